@@ -0,0 +1,57 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.util.HexUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * v4(Argon2id) 密码记录的生成和验证耗时，v1-v3 见 {@link HexUtilBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Argon2Benchmark {
+
+    private static final String PASSWORD = "TestPass123";
+
+    @Param({"19456"})
+    private int memoryKiB;
+
+    @Param({"1", "2", "4"})
+    private int iterations;
+
+    private HexUtil.Argon2Cost cost;
+
+    private String storedPassword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cost = new HexUtil.Argon2Cost(memoryKiB, iterations, 1);
+        storedPassword = HexUtil.encryptAndFormat(PASSWORD, cost);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return HexUtil.verify(storedPassword, PASSWORD);
+    }
+
+    @Benchmark
+    public String encryptAndFormat() {
+        return HexUtil.encryptAndFormat(PASSWORD, cost);
+    }
+
+}
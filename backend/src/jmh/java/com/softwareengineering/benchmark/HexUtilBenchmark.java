@@ -0,0 +1,66 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.util.HexUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 密码验证和生成的吞吐量及每次操作的分配量，legacy* 为原先的实现
+ * <p>
+ * 分配量需加上 GC 分析器查看 gc.alloc.rate.norm：-Djmh.args="HexUtil -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexUtilBenchmark {
+
+    private static final String PASSWORD = "TestPass123";
+
+    @Param({"v1", "v2", "v3"})
+    private String algorithm;
+
+    private String storedPassword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storedPassword = LegacyHexUtil.format(PASSWORD, algorithm, "k3j9x2");
+        if (!HexUtil.verify(storedPassword, PASSWORD)) {
+            throw new IllegalStateException("新旧实现结果不一致");
+        }
+    }
+
+    @Benchmark
+    public boolean legacyVerify() {
+        return LegacyHexUtil.verify(storedPassword, PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return HexUtil.verify(storedPassword, PASSWORD);
+    }
+
+    @Benchmark
+    public String legacyEncryptAndFormat() {
+        return LegacyHexUtil.encryptAndFormat(PASSWORD);
+    }
+
+    @Benchmark
+    public String encryptAndFormat() {
+        return HexUtil.encryptAndFormat(PASSWORD);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.dao.UserCredentials;
+import com.softwareengineering.dao.UserIdentity;
+import com.softwareengineering.dao.UserRepository;
+import com.softwareengineering.entity.User;
+import com.softwareengineering.service.MailService;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * 基准测试用的内存替身，只实现 UserServiceImpl 登录/注册路径以及索引构建用到的方法，用于测量服务本身的开销
+ */
+final class InMemoryStandIns {
+
+    private InMemoryStandIns() {
+    }
+
+    /**
+     * 按用户名存储的用户表，用户名重复时与唯一索引一样抛出 DataIntegrityViolationException
+     */
+    static UserRepository userRepository() {
+        Map<String, User> users = new ConcurrentHashMap<>();
+        AtomicLong ids = new AtomicLong();
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername" -> users.get((String) args[0]);
+                    case "findCredentialsByUsername" -> {
+                        User user = users.get((String) args[0]);
+                        yield user == null ? null : new UserCredentials(user.getId(), user.getPassword());
+                    }
+                    case "save" -> {
+                        User user = (User) args[0];
+                        if (users.putIfAbsent(user.getUsername(), user) != null) {
+                            throw new DataIntegrityViolationException(User.USERNAME_UNIQUE_INDEX);
+                        }
+                        user.setId(ids.incrementAndGet());
+                        yield user;
+                    }
+                    case "streamAllIdentities" -> users.values().stream().map(user -> new UserIdentity() {
+
+                        @Override
+                        public String getUsername() {
+                            return user.getUsername();
+                        }
+
+                        @Override
+                        public String getEmail() {
+                            return user.getEmail();
+                        }
+
+                    });
+                    case "compareAndSetPassword" -> {
+                        User user = users.values().stream()
+                                .filter(candidate -> Objects.equals(candidate.getId(), args[0]))
+                                .findFirst()
+                                .orElse(null);
+                        if (user == null || !user.getPassword().equals(args[1])) {
+                            yield 0;
+                        }
+                        user.setPassword((String) args[2]);
+                        yield 1;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * 不做任何事的事务管理器，供只在事务模板中调用内存替身的组件使用
+     */
+    static PlatformTransactionManager noopTransactionManager() {
+        return new AbstractPlatformTransactionManager() {
+
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+
+        };
+    }
+
+    static MailService noopMailService() {
+        return (to, subject, text) -> {
+        };
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.softwareengineering.benchmark;
+
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.SecureUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.crypto.digest.Digester;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BinaryOperator;
+
+/**
+ * 原先的 HexUtil 实现，仅作为基准测试的对照
+ */
+final class LegacyHexUtil {
+
+    private static final String SEPARATOR = "#";
+
+    private static final int AFTER_SEPARATOR_LENGTH = 3;
+
+    private static final Digester SM3_DIGESTER = DigestUtil.digester("sm3");
+
+    private static final Map<String, BinaryOperator<String>> ENCRYPTION_POLICY_MAP = Map.of(
+            "v1", (plainPassword, salt) -> SecureUtil.md5(plainPassword + salt),
+            "v2", (plainPassword, salt) -> SecureUtil.sha1(plainPassword + salt),
+            "v3", ((plainPassword, salt) -> SM3_DIGESTER.digestHex(plainPassword + salt))
+    );
+
+    private static final List<String> POLICY_CODES = ENCRYPTION_POLICY_MAP.keySet().stream().toList();
+
+    private LegacyHexUtil() {
+    }
+
+    static boolean verify(String storedPassword, String plainPassword) {
+        String[] parts = storedPassword.split(SEPARATOR);
+        if (parts.length != AFTER_SEPARATOR_LENGTH) {
+            throw new IllegalArgumentException("Invalid password format, storedPassword: " + storedPassword);
+        }
+        String salt = parts[0];
+        String algorithmCode = parts[1];
+        String encryptedValue = parts[2];
+
+        BinaryOperator<String> policy = ENCRYPTION_POLICY_MAP.get(algorithmCode);
+        if (policy == null) {
+            throw new UnsupportedOperationException("Unsupported util algorithm: " + algorithmCode);
+        }
+
+        return encryptedValue.equals(policy.apply(plainPassword, salt));
+    }
+
+    static String encryptAndFormat(String plainPassword) {
+        String algorithmCode = POLICY_CODES.get(ThreadLocalRandom.current().nextInt(POLICY_CODES.size()));
+        return format(plainPassword, algorithmCode, RandomUtil.randomString(ThreadLocalRandom.current().nextInt(4, 8)));
+    }
+
+    /**
+     * 使用指定算法和盐值生成密码记录
+     */
+    static String format(String plainPassword, String algorithmCode, String salt) {
+        return salt + SEPARATOR + algorithmCode + SEPARATOR + ENCRYPTION_POLICY_MAP.get(algorithmCode).apply(plainPassword, salt);
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.softwareengineering.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.common.Result;
+import com.softwareengineering.dao.UserCredentials;
+import com.softwareengineering.entity.User;
+import com.softwareengineering.util.HexUtil;
+import com.softwareengineering.vo.LoginResultVO;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * 登录查询和响应：加载整个用户实体并返回 Result&lt;User&gt;，与只查询ID和密码哈希并返回 Result&lt;LoginResultVO&gt; 对比
+ * <p>
+ * 查询语句与 Hibernate 对 findByUsername / findCredentialsByUsername 生成的一致，不包含持久化上下文的开销。
+ * 结果中的 responseBytes / logins 即平均响应大小，配合 -prof gc 查看每次登录的分配量
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginQueryBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private static final String SESSION_ID = "0b4cbc1e-5f4d-4f0b-9a4e-2d1c6f7e8a90";
+
+    private static final String ENTITY_SQL = "select u.id, u.email, u.last_modify_date, u.password, u.register_date, u.sex, u.username "
+            + "from user u where u.username = ?";
+
+    private static final String CREDENTIALS_SQL = "select u.id, u.password from user u where u.username = ?";
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:login-benchmark;MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("h2/schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            rows.add(new Object[]{"user" + i, HexUtil.encryptAndFormat("Secret123"), "user" + i + "@example.com",
+                    i % 2 == 0 ? "M" : "F", now, now});
+        }
+        jdbcTemplate.batchUpdate("insert into user (username, password, email, sex, register_date, last_modify_date) "
+                + "values (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class ResponseCounter {
+
+        public long logins;
+
+        public long responseBytes;
+
+    }
+
+    @Benchmark
+    public byte[] entity(ResponseCounter counter) throws JsonProcessingException {
+        User user = jdbcTemplate.queryForObject(ENTITY_SQL, (rs, rowNum) -> {
+            String sex = rs.getString("sex");
+            return new User(rs.getLong("id"), rs.getString("username"), rs.getString("password"), rs.getString("email"),
+                    sex == null ? null : sex.charAt(0), rs.getTimestamp("register_date").toInstant(),
+                    rs.getTimestamp("last_modify_date").toInstant());
+        }, randomUsername());
+        return respond(Result.success(user), counter);
+    }
+
+    @Benchmark
+    public byte[] projection(ResponseCounter counter) throws JsonProcessingException {
+        UserCredentials credentials = jdbcTemplate.queryForObject(CREDENTIALS_SQL,
+                (rs, rowNum) -> new UserCredentials(rs.getLong("id"), rs.getString("password")), randomUsername());
+        return respond(Result.success(new LoginResultVO(credentials.id(), SESSION_ID)), counter);
+    }
+
+    private byte[] respond(Result<?> result, ResponseCounter counter) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(result);
+        counter.logins++;
+        counter.responseBytes += body.length;
+        return body;
+    }
+
+    private static String randomUsername() {
+        return "user" + ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+}
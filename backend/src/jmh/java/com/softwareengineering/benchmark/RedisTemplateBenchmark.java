@@ -0,0 +1,132 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.config.RedisClientProperties;
+import com.softwareengineering.config.RedisConfig;
+import com.softwareengineering.util.SessionKeys;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 通过 StringRedisTemplate 的Redis吞吐量：client=default 为调整前的客户端(Lettuce默认选项、10秒超时)，
+ * client=tuned 为 RedisConfig 的客户端选项
+ * <p>
+ * session 为登录时创建会话的管道(SETEX + SADD + EXPIRE)，带哈希标签的键在集群中只访问一个节点。
+ * 需要本地 Redis，可通过 -Dredis.host / -Dredis.port / -Dredis.database 指定，默认使用 15 号库；
+ * 指定 -Dredis.cluster=host:port,host:port 时连接集群
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class RedisTemplateBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private static final String KEY_PREFIX = "bench:template:";
+
+    /**
+     * 基准测试写入的会话和索引的过期时间(秒)
+     */
+    private static final long SESSION_EXPIRE_SECONDS = 60;
+
+    @Param({"default", "tuned"})
+    private String client;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String clusterNodes = System.getProperty("redis.cluster");
+        RedisConfiguration configuration;
+        if (clusterNodes != null) {
+            configuration = new RedisClusterConfiguration(Arrays.asList(clusterNodes.split(",")));
+        } else {
+            RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(
+                    System.getProperty("redis.host", "localhost"),
+                    Integer.getInteger("redis.port", 6379));
+            standalone.setDatabase(Integer.getInteger("redis.database", 15));
+            configuration = standalone;
+        }
+
+        LettuceClientConfiguration clientConfiguration = "tuned".equals(client)
+                ? LettuceClientConfiguration.builder()
+                        .commandTimeout(Duration.ofSeconds(2))
+                        .clientOptions(RedisConfig.clientOptions(new RedisClientProperties(), Duration.ofSeconds(1),
+                                clusterNodes != null))
+                        .build()
+                : LettuceClientConfiguration.builder()
+                        .commandTimeout(Duration.ofSeconds(10))
+                        .build();
+        connectionFactory = new LettuceConnectionFactory(configuration, clientConfiguration);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        for (int i = 0; i < KEYS; i++) {
+            redisTemplate.opsForValue().set(KEY_PREFIX + i, String.valueOf(i), Duration.ofHours(1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (int i = 0; i < KEYS; i++) {
+            redisTemplate.unlink(KEY_PREFIX + i);
+        }
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public String get() {
+        return redisTemplate.opsForValue().get(KEY_PREFIX + ThreadLocalRandom.current().nextInt(KEYS));
+    }
+
+    @Benchmark
+    public void set() {
+        int i = ThreadLocalRandom.current().nextInt(KEYS);
+        redisTemplate.opsForValue().set(KEY_PREFIX + i, String.valueOf(i), Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public Object session() {
+        // 负数用户ID不会与真实用户冲突，会话随过期时间清除
+        Long userId = (long) -ThreadLocalRandom.current().nextInt(1, KEYS);
+        String sessionId = SessionKeys.newSessionId(userId);
+        String indexKey = SessionKeys.userSessionsKey(userId);
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.setEx(SessionKeys.sessionKey(sessionId), SESSION_EXPIRE_SECONDS, userId.toString());
+            stringConnection.sAdd(indexKey, sessionId);
+            stringConnection.expire(indexKey, SESSION_EXPIRE_SECONDS);
+            return null;
+        });
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.softwareengineering.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.common.Result;
+import com.softwareengineering.common.ResultJsonEncoder;
+import com.softwareengineering.entity.User;
+import com.softwareengineering.vo.LoginResultVO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Result 的 JSON 序列化开销，ObjectMapper 与 Spring Boot 默认配置一致
+ * <p>
+ * jackson* 为 ObjectMapper 直接序列化(原来的响应路径)，encoder* 为 {@link ResultJsonEncoder}；
+ * login 为 Result&lt;LoginResultVO&gt;，register 为 Result.success()。两者都写入复用的输出流，
+ * 与写入响应的缓冲区一致，配合 -prof gc 查看每次的分配量
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private ResultJsonEncoder encoder;
+
+    private Result<User> result;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        encoder = new ResultJsonEncoder(objectMapper);
+        User user = new User(1L, "testUser", "k3j9x2#v1#0123456789abcdef0123456789abcdef", "test@example.com", 'M',
+                Instant.now(), Instant.now());
+        result = Result.success(user);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public int jacksonLogin() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, Result.success(new LoginResultVO(1L, "0b4cbc1e-5f4d-4f0b-9a4e-2d1c6f7e8a90")));
+        return output.size();
+    }
+
+    @Benchmark
+    public int encoderLogin() throws IOException {
+        output.reset();
+        encoder.write(Result.success(new LoginResultVO(1L, "0b4cbc1e-5f4d-4f0b-9a4e-2d1c6f7e8a90")), output);
+        return output.size();
+    }
+
+    @Benchmark
+    public int jacksonRegister() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, Result.success());
+        return output.size();
+    }
+
+    @Benchmark
+    public int encoderRegister() throws IOException {
+        output.reset();
+        encoder.write(Result.success(), output);
+        return output.size();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.service.SessionService;
+import com.softwareengineering.service.impl.InMemorySessionServiceImpl;
+import com.softwareengineering.service.impl.RedisSessionServiceImpl;
+import com.softwareengineering.service.impl.SessionTouchBuffer;
+import com.softwareengineering.service.impl.TokenSessionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 会话校验吞吐量对比：redis(无近端缓存)、redis-near-cache、token、memory 四种模式
+ * <p>
+ * 除 memory 外需要本地 Redis，可通过 -Dredis.host / -Dredis.port / -Dredis.database 指定，默认使用 15 号库
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class SessionModeBenchmark {
+
+    private static final int SESSIONS = 1000;
+
+    @Param({"redis", "redis-near-cache", "token", "memory"})
+    private String mode;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private SessionService sessionService;
+
+    private String[] sessionIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379));
+        configuration.setDatabase(Integer.getInteger("redis.database", 15));
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+
+        SessionProperties properties = new SessionProperties();
+        properties.getToken().setSecret("benchmark-secret-benchmark-secret-benchmark");
+        if ("redis".equals(mode)) {
+            properties.getNearCache().setMaximumSize(0);
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        sessionService = switch (mode) {
+            case "token" -> new TokenSessionServiceImpl(redisTemplate, listenerContainer, properties, meterRegistry);
+            case "memory" -> new InMemorySessionServiceImpl(properties, meterRegistry);
+            default -> new RedisSessionServiceImpl(redisTemplate,
+                    new SessionTouchBuffer(redisTemplate, properties, meterRegistry),
+                    listenerContainer, properties, meterRegistry);
+        };
+
+        sessionIds = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            sessionIds[i] = sessionService.create((long) -i - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (int i = 0; i < SESSIONS; i++) {
+            sessionService.removeAll((long) -i - 1);
+        }
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public Long resolve() {
+        return sessionService.resolve(sessionIds[ThreadLocalRandom.current().nextInt(SESSIONS)]);
+    }
+
+}
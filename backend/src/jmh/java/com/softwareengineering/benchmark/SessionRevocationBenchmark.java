@@ -0,0 +1,139 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.constant.CommonConstants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 重置密码时删除用户全部会话的开销对比
+ * <p>
+ * legacyScan 为原先的 KEYS + 逐个 GET 方式，indexed 为基于用户会话索引的 SMEMBERS + UNLINK 方式。
+ * 随着 totalSessions 增长，前者线性变慢，后者保持不变
+ * <p>
+ * 需要本地 Redis，可通过 -Dredis.host / -Dredis.port / -Dredis.database 指定，默认使用 15 号库
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionRevocationBenchmark {
+
+    private static final String TARGET_USER_ID = "-1";
+
+    private static final int TARGET_USER_SESSIONS = 5;
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    private int totalSessions;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379));
+        configuration.setDatabase(Integer.getInteger("redis.database", 15));
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        // 其他用户的会话，模拟线上的会话总量
+        for (int from = 0; from < totalSessions; from += BATCH_SIZE) {
+            int start = from;
+            int end = Math.min(from + BATCH_SIZE, totalSessions);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (int i = start; i < end; i++) {
+                    String userId = String.valueOf(i % 50_000);
+                    stringConnection.setEx(CommonConstants.Redis.SESSION_PREFIX + "bench-" + i, 3600, userId);
+                    stringConnection.sAdd(CommonConstants.Redis.USER_SESSIONS_PREFIX + userId, "bench-" + i);
+                }
+                return null;
+            });
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareTargetSessions() {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (int i = 0; i < TARGET_USER_SESSIONS; i++) {
+                stringConnection.setEx(CommonConstants.Redis.SESSION_PREFIX + "target-" + i, 3600, TARGET_USER_ID);
+                stringConnection.sAdd(CommonConstants.Redis.USER_SESSIONS_PREFIX + TARGET_USER_ID, "target-" + i);
+            }
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (int from = 0; from < totalSessions; from += BATCH_SIZE) {
+            List<String> keys = new ArrayList<>();
+            for (int i = from; i < Math.min(from + BATCH_SIZE, totalSessions); i++) {
+                keys.add(CommonConstants.Redis.SESSION_PREFIX + "bench-" + i);
+                keys.add(CommonConstants.Redis.USER_SESSIONS_PREFIX + (i % 50_000));
+            }
+            redisTemplate.unlink(keys);
+        }
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public int legacyScan() {
+        int removed = 0;
+        Set<String> keys = redisTemplate.keys(CommonConstants.Redis.SESSION_PREFIX + "*");
+        if (keys != null) {
+            for (String key : keys) {
+                String userId = redisTemplate.opsForValue().get(key);
+                if (TARGET_USER_ID.equals(userId)) {
+                    redisTemplate.delete(key);
+                    removed++;
+                }
+            }
+        }
+        redisTemplate.delete(CommonConstants.Redis.USER_SESSIONS_PREFIX + TARGET_USER_ID);
+        return removed;
+    }
+
+    @Benchmark
+    public long indexed() {
+        String indexKey = CommonConstants.Redis.USER_SESSIONS_PREFIX + TARGET_USER_ID;
+        Set<String> sessionIds = redisTemplate.opsForSet().members(indexKey);
+        List<String> keys = new ArrayList<>();
+        if (sessionIds != null) {
+            for (String sessionId : sessionIds) {
+                keys.add(CommonConstants.Redis.SESSION_PREFIX + sessionId);
+            }
+        }
+        keys.add(indexKey);
+        Long removed = redisTemplate.unlink(keys);
+        return removed == null ? 0 : removed;
+    }
+
+}
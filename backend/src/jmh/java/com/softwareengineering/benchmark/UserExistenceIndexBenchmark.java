@@ -0,0 +1,90 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.util.BloomFilter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 注册时用户名/邮箱存在性检查需要的数据库查询数
+ * <p>
+ * 不使用索引时每次注册固定2次查询；使用布隆过滤器时只有误判或确实重复才查询。
+ * 结果中的 dbQueries / registrations 即每次注册的平均查询数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserExistenceIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int existingUsers;
+
+    @Param({"0.01", "0.001"})
+    private double falsePositiveRate;
+
+    /**
+     * 注册请求中用户名已被占用的比例
+     */
+    @Param({"0.05"})
+    private double duplicateRatio;
+
+    private BloomFilter usernames;
+
+    private BloomFilter emails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        usernames = new BloomFilter(existingUsers * 2L, falsePositiveRate);
+        emails = new BloomFilter(existingUsers * 2L, falsePositiveRate);
+        for (int i = 0; i < existingUsers; i++) {
+            usernames.put("user" + i);
+            emails.put("user" + i + "@example.com");
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class QueryCounter {
+
+        public long registrations;
+
+        public long dbQueries;
+
+    }
+
+    @Benchmark
+    public boolean register(QueryCounter counter) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String username = random.nextDouble() < duplicateRatio
+                ? "user" + random.nextInt(existingUsers)
+                : "new" + random.nextLong();
+        String email = username + "@example.com";
+        counter.registrations++;
+
+        boolean taken = false;
+        if (usernames.mightContain(username)) {
+            counter.dbQueries++;
+            taken = username.startsWith("user");
+        }
+        if (!taken && emails.mightContain(email)) {
+            counter.dbQueries++;
+        }
+        return taken;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.softwareengineering.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.config.UserImportProperties;
+import com.softwareengineering.service.UserImportService;
+import com.softwareengineering.service.impl.UserImportServiceImpl;
+import com.softwareengineering.vo.UserImportReportVO;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * 批量导入吞吐量（行/秒），不同批大小对比
+ * <p>
+ * 使用 H2 内存库，结果反映解析、哈希和批量写入本身的开销；对 MySQL 的实际吞吐还取决于网络往返，
+ * 批越大收益越明显。密码哈希使用 app.user-import 的默认 Argon2 参数，是导入的主要开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserImportBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UserImportServiceImpl userImportService;
+
+    private byte[] csv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:import-benchmark;MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("h2/schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        UserImportProperties properties = new UserImportProperties();
+        properties.setBatchSize(batchSize);
+        userImportService = new UserImportServiceImpl(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                new ObjectMapper(), event -> {
+                }, properties);
+
+        StringBuilder builder = new StringBuilder("username,password,email,sex\n");
+        for (int i = 0; i < ROWS; i++) {
+            builder.append("import").append(i).append(",Secret123,import").append(i).append("@example.com,")
+                    .append(i % 2 == 0 ? 'M' : 'F').append('\n');
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() {
+        jdbcTemplate.update("truncate table user");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        userImportService.destroy();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public UserImportReportVO importCsv() throws IOException {
+        return userImportService.importUsers(new ByteArrayInputStream(csv), UserImportService.Format.CSV);
+    }
+
+}
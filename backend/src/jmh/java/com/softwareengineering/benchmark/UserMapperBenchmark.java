@@ -0,0 +1,51 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.entity.User;
+import com.softwareengineering.mapper.UserMapper;
+import com.softwareengineering.mapper.UserMapperImpl;
+import com.softwareengineering.vo.UserRegisterVO;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 注册请求到实体的转换开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private UserMapper userMapper;
+
+    private UserRegisterVO registerVO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userMapper = new UserMapperImpl();
+        registerVO = new UserRegisterVO();
+        registerVO.setUsername("testUser");
+        registerVO.setPassword("TestPass123");
+        registerVO.setEmail("test@example.com");
+        registerVO.setSex("M");
+        registerVO.setVerificationCode("123456");
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(registerVO);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.softwareengineering.benchmark;
+
+import com.softwareengineering.config.UserSearchProperties;
+import com.softwareengineering.dao.UserRepository;
+import com.softwareengineering.entity.User;
+import com.softwareengineering.index.UserSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 用户搜索索引的前缀查询耗时，关键字越短匹配的候选越多
+ * <p>
+ * 构建后的估算内存在 setUp 中打印，运行时也可以通过 user.search.memory 指标查看
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserSearchIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    /**
+     * 关键字长度，取自随机用户名的开头
+     */
+    @Param({"2", "4", "8"})
+    private int keywordLength;
+
+    private String[] usernames;
+
+    private UserSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserRepository userRepository = InMemoryStandIns.userRepository();
+        usernames = new String[users];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < users; i++) {
+            // 随机字母开头，前缀分布接近真实用户名
+            String username = (char) ('a' + random.nextInt(26)) + "" + (char) ('a' + random.nextInt(26)) + "user" + i;
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail(username + "@example.com");
+            userRepository.save(user);
+            usernames[i] = username;
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        index = new UserSearchIndex(userRepository, InMemoryStandIns.noopTransactionManager(), new UserSearchProperties(),
+                meterRegistry);
+        index.rebuild();
+        System.out.printf("%n用户搜索索引估算内存：%dKB%n",
+                (long) meterRegistry.get("user.search.memory").gauge().value() / 1024);
+    }
+
+    @Benchmark
+    public List<String> search() {
+        String username = usernames[ThreadLocalRandom.current().nextInt(users)];
+        return index.search(username.substring(0, Math.min(keywordLength, username.length())), 20);
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.softwareengineering.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.cache.UserCache;
+import com.softwareengineering.config.PasswordHashingProperties;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.config.UserCacheProperties;
+import com.softwareengineering.config.VerificationCodeProperties;
+import com.softwareengineering.dao.UserRepository;
+import com.softwareengineering.entity.User;
+import com.softwareengineering.mapper.UserMapperImpl;
+import com.softwareengineering.service.PasswordHashService;
+import com.softwareengineering.service.UserService;
+import com.softwareengineering.service.VerificationCodeService;
+import com.softwareengineering.service.impl.InMemorySessionServiceImpl;
+import com.softwareengineering.service.impl.InMemoryVerificationCodeServiceImpl;
+import com.softwareengineering.service.impl.PasswordHashServiceImpl;
+import com.softwareengineering.service.impl.UserServiceImpl;
+import com.softwareengineering.util.HexUtil;
+import com.softwareengineering.vo.LoginResultVO;
+import com.softwareengineering.vo.UserLoginVO;
+import com.softwareengineering.vo.UserRegisterVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * UserServiceImpl 登录和注册的开销，数据库和邮件使用内存替身，会话和验证码使用进程内存储
+ * <p>
+ * hashing=digest 时密码使用快速摘要，结果即服务本身的开销；hashing=argon2 时使用生产的 Argon2 参数，
+ * 结果主要是密码哈希的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int USERS = 1000;
+
+    private static final String PASSWORD = "TestPass123";
+
+    private static final String CODE = "123456";
+
+    @Param({"digest", "argon2"})
+    private String hashing;
+
+    private PasswordHashServiceImpl argon2HashService;
+
+    private VerificationCodeService verificationCodeService;
+
+    private UserService userService;
+
+    private final AtomicLong registrations = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PasswordHashService passwordHashService;
+        if ("argon2".equals(hashing)) {
+            PasswordHashingProperties properties = new PasswordHashingProperties();
+            properties.setIterations(2);
+            argon2HashService = new PasswordHashServiceImpl(properties, new SimpleMeterRegistry());
+            passwordHashService = argon2HashService;
+        } else {
+            passwordHashService = new DigestPasswordHashService();
+        }
+
+        UserRepository userRepository = InMemoryStandIns.userRepository();
+        verificationCodeService = new InMemoryVerificationCodeServiceImpl(new VerificationCodeProperties(),
+                new SimpleMeterRegistry());
+        // 登录和注册不使用存在性索引；关闭用户缓存，每次登录都查询替身仓库
+        UserCacheProperties cacheProperties = new UserCacheProperties();
+        cacheProperties.setEnabled(false);
+        UserCache userCache = new UserCache(new StringRedisTemplate(), new RedisMessageListenerContainer(),
+                new ObjectMapper(), cacheProperties, new SimpleMeterRegistry());
+        userService = new UserServiceImpl(userRepository, new UserMapperImpl(), InMemoryStandIns.noopMailService(),
+                passwordHashService, verificationCodeService,
+                new InMemorySessionServiceImpl(new SessionProperties(), new SimpleMeterRegistry()), null, userCache,
+                event -> {
+                });
+
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword(passwordHashService.hash(PASSWORD));
+            userRepository.save(user);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (argon2HashService != null) {
+            argon2HashService.destroy();
+        }
+    }
+
+    @Benchmark
+    public LoginResultVO login() {
+        UserLoginVO loginVO = new UserLoginVO();
+        loginVO.setUsername("user" + ThreadLocalRandom.current().nextInt(USERS));
+        loginVO.setPassword(PASSWORD);
+        return userService.login(loginVO);
+    }
+
+    @Benchmark
+    public UserRegisterVO register() {
+        long id = registrations.incrementAndGet();
+        UserRegisterVO registerVO = new UserRegisterVO();
+        registerVO.setUsername("new" + id);
+        registerVO.setPassword(PASSWORD);
+        registerVO.setEmail("new" + id + "@example.com");
+        registerVO.setSex("M");
+        registerVO.setVerificationCode(CODE);
+        verificationCodeService.save(registerVO.getEmail(), CODE, Duration.ofMinutes(5));
+        userService.register(registerVO);
+        return registerVO;
+    }
+
+    /**
+     * 使用快速摘要、在当前线程计算的密码哈希
+     */
+    private static final class DigestPasswordHashService implements PasswordHashService {
+
+        @Override
+        public String hash(String plainPassword) {
+            return HexUtil.encryptAndFormat(plainPassword);
+        }
+
+        @Override
+        public boolean verify(String storedPassword, String plainPassword) {
+            return HexUtil.verify(storedPassword, plainPassword);
+        }
+
+        @Override
+        public boolean needsRehash(String storedPassword) {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.softwareengineering.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 固定并发的闭环压测：每个虚拟线程收到响应后立即发送下一个请求，预热结束后开始统计
+ * <p>
+ * 用于对比同一接口在平台线程池和虚拟线程下、同步和异步版本的吞吐量与延迟。
+ * url 和 body 中的 {n} 替换为递增序号，避免同一邮箱触发限流。参数：
+ * <pre>
+ * url=http://localhost:8080/api/user/verification-code?email=load{n}@example.com
+ * method=GET body= concurrency=200 warmup=10s duration=30s
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final Pattern CODE = Pattern.compile("\"code\"\\s*:\\s*(-?\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "method", "GET",
+                "body", "",
+                "concurrency", "200",
+                "warmup", "10s",
+                "duration", "30s"));
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("参数格式为 key=value：" + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        if (!options.containsKey("url")) {
+            throw new IllegalArgumentException("缺少参数 url");
+        }
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        Duration warmup = parseDuration(options.get("warmup"));
+        Duration duration = parseDuration(options.get("duration"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        AtomicLong sequence = new AtomicLong();
+        long measureStart = System.nanoTime() + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        List<Worker> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                Worker worker = new Worker(client, options, sequence, measureStart, end);
+                workers.add(worker);
+                futures.add(executor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        report(options.get("method") + " " + options.get("url"), concurrency, duration, workers);
+    }
+
+    private static void report(String target, int concurrency, Duration duration, List<Worker> workers) {
+        int total = workers.stream().mapToInt(worker -> worker.count).sum();
+        long[] latencies = new long[total];
+        Map<String, Integer> outcomes = new TreeMap<>();
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            offset += worker.count;
+            worker.outcomes.forEach((outcome, count) -> outcomes.merge(outcome, count, Integer::sum));
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("目标：%s，并发：%d，统计时长：%s%n", target, concurrency, duration);
+        System.out.printf("请求数：%d，吞吐量：%.1f 请求/秒%n", total, total * 1e9 / duration.toNanos());
+        if (total > 0) {
+            System.out.printf("延迟(ms)：p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), latencies[total - 1] / 1e6);
+        }
+        System.out.println("结果分布(HTTP状态/业务码)：" + outcomes);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static final class Worker implements Runnable {
+
+        private final HttpClient client;
+
+        private final Map<String, String> options;
+
+        private final AtomicLong sequence;
+
+        private final long measureStart;
+
+        private final long end;
+
+        private final Map<String, Integer> outcomes = new HashMap<>();
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private Worker(HttpClient client, Map<String, String> options, AtomicLong sequence, long measureStart, long end) {
+            this.client = client;
+            this.options = options;
+            this.sequence = sequence;
+            this.measureStart = measureStart;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            long now;
+            while ((now = System.nanoTime()) < end && !Thread.currentThread().isInterrupted()) {
+                String outcome = send();
+                long latency = System.nanoTime() - now;
+                // 只统计开始时间在统计区间内的请求
+                if (now >= measureStart) {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = latency;
+                    outcomes.merge(outcome, 1, Integer::sum);
+                }
+            }
+        }
+
+        private String send() {
+            String n = Long.toString(sequence.incrementAndGet());
+            String body = options.get("body").replace("{n}", n);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(options.get("url").replace("{n}", n)))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .method(options.get("method"), body.isEmpty()
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                Matcher matcher = CODE.matcher(response.body());
+                return response.statusCode() + (matcher.find() ? "/" + matcher.group(1) : "");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "interrupted";
+            } catch (Exception e) {
+                return e.getClass().getSimpleName();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,495 @@
+package com.softwareengineering.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.fppt.jedismock.RedisServer;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.softwareengineering.SoftwareEngineeringApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 端到端混合负载压测：在本地替身上启动整个应用，按比例并发执行注册、登录、登出、重置密码
+ * <p>
+ * MySQL 使用 H2(MySQL模式)，Redis 使用进程内的 jedis-mock，SMTP 使用 GreenMail，不需要任何外部服务。
+ * 验证码从应用的 Redis 中读取，邮件仍经过发件箱发送到 GreenMail。每个虚拟用户使用固定种子的随机数选择操作，
+ * 同样的参数得到同样的操作序列。结果按接口输出吞吐量和延迟百分位，并写入 JSON 报告，指定 baseline 时与之对比。参数：
+ * <pre>
+ * concurrency=100 warmup=10s duration=30s seed-users=200 seed=42
+ * mix=register:1,login:6,logout:2,reset:1
+ * result=target/load-test-result.json baseline=上次的报告 label=报告名称
+ * </pre>
+ * 以 -- 开头的参数原样传给应用，如 --spring.threads.virtual.enabled=false
+ * <p>
+ * 重置密码会使该用户的会话失效，之后用这些会话登出会返回401，在结果分布中单独统计
+ */
+public class MixedLoadTest {
+
+    private static final String VERIFICATION_CODE_PREFIX = "verification:code:";
+
+    private static final String PASSWORD_PREFIX = "Passw0rd";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final URI baseUri;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Account> accounts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger accountCount = new AtomicInteger();
+
+    /**
+     * 登录得到的会话，供登出使用
+     */
+    private final ConcurrentLinkedQueue<String> sessions = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 开始时间不早于该时刻的请求才计入统计，预热阶段为 Long.MAX_VALUE
+     */
+    private volatile long measureStart = Long.MAX_VALUE;
+
+    private MixedLoadTest(URI baseUri, StringRedisTemplate redisTemplate) {
+        this.baseUri = baseUri;
+        this.redisTemplate = redisTemplate;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "concurrency", "100",
+                "warmup", "10s",
+                "duration", "30s",
+                "seed-users", "200",
+                "seed", "42",
+                "mix", "register:1,login:6,logout:2,reset:1",
+                "result", "target/load-test-result.json",
+                "label", ""));
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("参数格式为 key=value：" + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        Mix mix = Mix.parse(options.get("mix"));
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        Duration warmup = parseDuration(options.get("warmup"));
+        Duration duration = parseDuration(options.get("duration"));
+        long seed = Long.parseLong(options.get("seed"));
+
+        RedisServer redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        GreenMail greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        ConfigurableApplicationContext context = null;
+        try {
+            context = new SpringApplicationBuilder(SoftwareEngineeringApplication.class)
+                    .run(applicationArgs(redisServer.getBindPort(), greenMail.getSmtp().getPort(), applicationArgs));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            MixedLoadTest loadTest = new MixedLoadTest(URI.create("http://localhost:" + port),
+                    context.getBean(StringRedisTemplate.class));
+
+            loadTest.seedUsers(Integer.parseInt(options.get("seed-users")));
+            Thread purger = Thread.ofVirtual().name("greenmail-purge").start(() -> purgePeriodically(greenMail));
+            loadTest.run(mix, concurrency, seed, warmup, duration);
+            purger.interrupt();
+
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            Map<String, Object> report = loadTest.report(options, duration, meterRegistry);
+            File result = new File(options.get("result"));
+            if (result.getParentFile() != null) {
+                result.getParentFile().mkdirs();
+            }
+            OBJECT_MAPPER.writer(SerializationFeature.INDENT_OUTPUT).writeValue(result, report);
+            System.out.println("报告已写入 " + result.getAbsolutePath());
+            if (options.containsKey("baseline")) {
+                compare(OBJECT_MAPPER.readTree(new File(options.get("baseline"))), OBJECT_MAPPER.valueToTree(report));
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            greenMail.stop();
+            redisServer.stop();
+        }
+    }
+
+    /**
+     * 指向本地替身的应用参数，命令行参数优先级最高，覆盖 application.yml 中的MySQL、Redis和SMTP配置
+     */
+    private static String[] applicationArgs(int redisPort, int smtpPort, List<String> overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:load-test;MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.sql.init.mode=always",
+                "--spring.sql.init.schema-locations=classpath:h2/schema.sql",
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.jpa.show-sql=false",
+                // 从库配置中引用的占位符，从库保持关闭
+                "--mysql.ip=localhost",
+                "--mysql.port=3306",
+                "--mysql.database=load-test",
+                "--mysql.username=sa",
+                "--mysql.password=",
+                "--redis.host=localhost",
+                "--redis.port=" + redisPort,
+                "--redis.password=",
+                "--mail.host=localhost",
+                "--mail.port=" + smtpPort,
+                "--mail.username=load-test@example.com",
+                "--mail.password=",
+                // GreenMail 使用明文SMTP，不认证
+                "--spring.mail.properties.mail.smtp.auth=false",
+                "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                "--spring.mail.properties.mail.smtp.starttls.required=false",
+                "--spring.mail.properties.mail.smtp.socketFactory.class=javax.net.SocketFactory",
+                "--spring.mail.properties.mail.smtp.socketFactory.port=" + smtpPort,
+                // 压测同一邮箱会多次发送验证码
+                "--app.rate-limit.enabled=false"));
+        args.addAll(overrides);
+        return args.toArray(String[]::new);
+    }
+
+    /**
+     * 通过接口注册初始用户，不计入统计
+     */
+    private void seedUsers(int count) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(this::register));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        System.out.printf("已注册初始用户：%d%n", accountCount.get());
+    }
+
+    private void run(Mix mix, int concurrency, long seed, Duration warmup, Duration duration) throws Exception {
+        long start = System.nanoTime();
+        long end = start + warmup.toNanos() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                Random random = new Random(seed + i);
+                futures.add(executor.submit(() -> {
+                    while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                        switch (mix.pick(random)) {
+                            case REGISTER -> register();
+                            case LOGIN -> login(random);
+                            case LOGOUT -> logout(random);
+                            case RESET -> resetPassword(random);
+                        }
+                    }
+                }));
+            }
+            Thread.sleep(warmup);
+            measureStart = System.nanoTime();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    private void register() {
+        long n = sequence.incrementAndGet();
+        String username = "load" + n;
+        String email = username + "@example.com";
+        String password = PASSWORD_PREFIX + n;
+        String code = requestVerificationCode(email);
+        if (code == null) {
+            return;
+        }
+        JsonNode response = send("register", post("/api/user/register", Map.of(
+                "username", username,
+                "password", password,
+                "email", email,
+                "sex", n % 2 == 0 ? "M" : "F",
+                "verificationCode", code)));
+        if (succeeded(response)) {
+            accounts.put(accountCount.getAndIncrement(), new Account(username, email, password));
+        }
+    }
+
+    private void login(Random random) {
+        Account account = randomAccount(random);
+        if (account == null) {
+            return;
+        }
+        JsonNode response = send("login", post("/api/user/login", Map.of(
+                "username", account.username,
+                "password", account.password)));
+        if (succeeded(response)) {
+            sessions.add(response.path("data").path("sessionId").asText());
+        }
+    }
+
+    private void logout(Random random) {
+        String sessionId = sessions.poll();
+        if (sessionId == null) {
+            login(random);
+            return;
+        }
+        send("logout", HttpRequest.newBuilder(baseUri.resolve("/api/user/logout"))
+                .header("X-Session-Id", sessionId)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+    }
+
+    private void resetPassword(Random random) {
+        Account account = randomAccount(random);
+        if (account == null) {
+            return;
+        }
+        String code = requestVerificationCode(account.email);
+        if (code == null) {
+            return;
+        }
+        String newPassword = PASSWORD_PREFIX + sequence.incrementAndGet();
+        JsonNode response = send("reset-password", post("/api/user/reset-password", Map.of(
+                "email", account.email,
+                "verificationCode", code,
+                "newPassword", newPassword)));
+        if (succeeded(response)) {
+            account.password = newPassword;
+        }
+    }
+
+    /**
+     * @return 发送成功时从 Redis 读取的验证码
+     */
+    private String requestVerificationCode(String email) {
+        JsonNode response = send("verification-code", HttpRequest.newBuilder(baseUri.resolve(
+                        "/api/user/verification-code?email=" + URLEncoder.encode(email, StandardCharsets.UTF_8)))
+                .GET()
+                .build());
+        return succeeded(response) ? redisTemplate.opsForValue().get(VERIFICATION_CODE_PREFIX + email) : null;
+    }
+
+    private Account randomAccount(Random random) {
+        int count = accountCount.get();
+        // 编号已分配但尚未放入时返回null，本次跳过
+        return count == 0 ? null : accounts.get(random.nextInt(count));
+    }
+
+    private HttpRequest post(String path, Map<String, String> body) {
+        try {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(OBJECT_MAPPER.writeValueAsBytes(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 发送请求并在统计区间内记录延迟和结果(HTTP状态/业务码)
+     *
+     * @return 响应体，请求失败时返回null
+     */
+    private JsonNode send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        JsonNode body = null;
+        String outcome;
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            body = OBJECT_MAPPER.readTree(response.body());
+            outcome = response.statusCode() + (body.has("code") ? "/" + body.get("code").asText() : "");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            outcome = e.getClass().getSimpleName();
+        }
+        if (start >= measureStart) {
+            stats.computeIfAbsent(endpoint, key -> new EndpointStats()).record(System.nanoTime() - start, outcome);
+        }
+        return body;
+    }
+
+    private static boolean succeeded(JsonNode response) {
+        return response != null && response.path("code").asInt() == 200;
+    }
+
+    private Map<String, Object> report(Map<String, String> options, Duration duration, MeterRegistry meterRegistry) {
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%-18s %10s %10s %10s %10s %10s %10s%n", "接口", "请求数", "请求/秒", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        stats.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            Map<String, Object> summary = entry.getValue().summarize(seconds);
+            endpoints.put(entry.getKey(), summary);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> latency = (Map<String, Object>) summary.get("latencyMs");
+            System.out.printf("%-18s %10d %10.1f %10.2f %10.2f %10.2f %10.2f  %s%n", entry.getKey(),
+                    summary.get("requests"), summary.get("throughput"), latency.get("p50"), latency.get("p99"),
+                    latency.get("p999"), latency.get("max"), summary.get("outcomes"));
+        });
+
+        Map<String, Object> config = new LinkedHashMap<>(options);
+        config.remove("result");
+        config.remove("baseline");
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.get("label"));
+        report.put("timestamp", Instant.now().toString());
+        report.put("java", Runtime.version().toString());
+        report.put("processors", Runtime.getRuntime().availableProcessors());
+        report.put("config", config);
+        report.put("mailsSent", meterRegistry.counter("mail.sent").count());
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    /**
+     * 按接口打印与基线报告相比吞吐量和p99的变化
+     */
+    private static void compare(JsonNode baseline, JsonNode current) {
+        System.out.printf("与基线 %s(%s) 对比：%n", baseline.path("label").asText(), baseline.path("timestamp").asText());
+        current.path("endpoints").fields().forEachRemaining(entry -> {
+            JsonNode before = baseline.path("endpoints").path(entry.getKey());
+            if (before.isMissingNode()) {
+                return;
+            }
+            JsonNode after = entry.getValue();
+            System.out.printf("%-18s 吞吐量 %+.1f%%  p99 %+.1f%%  p999 %+.1f%%%n", entry.getKey(),
+                    change(before.path("throughput"), after.path("throughput")),
+                    change(before.path("latencyMs").path("p99"), after.path("latencyMs").path("p99")),
+                    change(before.path("latencyMs").path("p999"), after.path("latencyMs").path("p999")));
+        });
+    }
+
+    private static double change(JsonNode before, JsonNode after) {
+        return (after.asDouble() - before.asDouble()) / before.asDouble() * 100;
+    }
+
+    /**
+     * GreenMail 在内存中保存收到的邮件，定期清空
+     */
+    private static void purgePeriodically(GreenMail greenMail) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(Duration.ofSeconds(5));
+                greenMail.purgeEmailFromAllMailboxes();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("清空GreenMail失败：" + e.getMessage());
+        }
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private enum Operation {
+        REGISTER, LOGIN, LOGOUT, RESET
+    }
+
+    /**
+     * 各操作的比例，如 register:1,login:6,logout:2,reset:1
+     */
+    private record Mix(Operation[] operations, int[] cumulativeWeights) {
+
+        static Mix parse(String value) {
+            String[] parts = value.split(",");
+            Operation[] operations = new Operation[parts.length];
+            int[] cumulativeWeights = new int[parts.length];
+            int total = 0;
+            for (int i = 0; i < parts.length; i++) {
+                String[] pair = parts[i].trim().split(":");
+                operations[i] = Operation.valueOf(pair[0].trim().toUpperCase());
+                total += Integer.parseInt(pair[1].trim());
+                cumulativeWeights[i] = total;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("mix 的权重之和必须大于0：" + value);
+            }
+            return new Mix(operations, cumulativeWeights);
+        }
+
+        Operation pick(Random random) {
+            int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; ; i++) {
+                if (r < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+        }
+
+    }
+
+    private static final class Account {
+
+        private final String username;
+
+        private final String email;
+
+        private volatile String password;
+
+        private Account(String username, String email, String password) {
+            this.username = username;
+            this.email = email;
+            this.password = password;
+        }
+
+    }
+
+}
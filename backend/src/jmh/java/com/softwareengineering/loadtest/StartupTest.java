@@ -0,0 +1,237 @@
+package com.softwareengineering.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 各启动模式的启动耗时和首个请求的响应时间
+ * <p>
+ * 每种模式启动应用子进程 runs 次，从创建进程开始计时，轮询存活探针直到返回200，即可以接收流量的时间；
+ * 同时从日志中读取 Spring 报告的启动耗时。模式：
+ * <pre>
+ * jar       java -jar，默认配置(启动时更新表结构)
+ * faststart java -jar，faststart 配置
+ * aot       加 -Dspring.aot.enabled=true
+ * aot-cds   再加 -XX:SharedArchiveFile=application.jsa
+ * native    native-image 可执行文件
+ * </pre>
+ * 需要先 mvn -Pfaststart package(native 模式另需 mvn -Pnative native:compile)，应用连接 dev 配置中的 MySQL 和 Redis。参数：
+ * <pre>
+ * modes=jar,faststart,aot,aot-cds,native runs=5 port=18080 profiles=dev
+ * dir=target/faststart native=target/software-engineering result=target/startup-result.json label=报告名称
+ * </pre>
+ * 以 -- 开头的参数原样传给应用。缺少产物的模式跳过
+ */
+public class StartupTest {
+
+    private static final Pattern STARTED = Pattern.compile(
+            "Started \\S+ in ([\\d.]+) seconds \\(process running for ([\\d.]+)\\)");
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "modes", "jar,faststart,aot,aot-cds,native",
+                "runs", "5",
+                "port", "18080",
+                "profiles", "dev",
+                "dir", "target/faststart",
+                "native", "target/software-engineering",
+                "result", "target/startup-result.json",
+                "label", ""));
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("参数格式为 key=value：" + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        int runs = Integer.parseInt(options.get("runs"));
+        int port = Integer.parseInt(options.get("port"));
+        applicationArgs.add("--server.port=" + port);
+        applicationArgs.add("--management.endpoint.health.probes.enabled=true");
+        URI probe = URI.create("http://localhost:" + port + "/actuator/health/liveness");
+
+        // 只测 native 时可以没有解压目录
+        File directory = new File(options.get("dir"));
+        File workingDirectory = directory.isDirectory() ? directory : null;
+
+        Map<String, Object> modes = new LinkedHashMap<>();
+        for (String mode : options.get("modes").split(",")) {
+            List<String> command = command(mode.trim(), options);
+            if (command == null) {
+                System.out.printf("%s：缺少构建产物，跳过%n", mode);
+                continue;
+            }
+            command.addAll(applicationArgs);
+            List<Run> results = new ArrayList<>(runs);
+            for (int i = 0; i < runs; i++) {
+                Run run = start(command, workingDirectory, probe);
+                System.out.printf("%s 第%d次：首个请求 %dms，Spring启动 %.3fs%n", mode, i + 1, run.firstRequestMillis(), run.startedSeconds());
+                results.add(run);
+            }
+            modes.put(mode, summarize(results));
+        }
+
+        report(modes);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", options.get("label"));
+        result.put("timestamp", Instant.now().toString());
+        result.put("runs", runs);
+        result.put("modes", modes);
+        OBJECT_MAPPER.writer(SerializationFeature.INDENT_OUTPUT).writeValue(new File(options.get("result")), result);
+        System.out.println("报告已写入 " + options.get("result"));
+    }
+
+    /**
+     * 命令在 dir 目录中执行，jar和归档使用与训练运行相同的相对路径，否则JVM校验类路径不一致会忽略CDS归档
+     *
+     * @return 启动命令，缺少产物时返回null
+     */
+    private static List<String> command(String mode, Map<String, String> options) {
+        if ("native".equals(mode)) {
+            File executable = new File(options.get("native"));
+            return executable.canExecute()
+                    ? new ArrayList<>(List.of(executable.getAbsolutePath(), profiles(options, true)))
+                    : null;
+        }
+        File directory = new File(options.get("dir"));
+        File[] jars = directory.listFiles((dir, name) -> name.endsWith(".jar"));
+        if (jars == null || jars.length != 1) {
+            return null;
+        }
+        List<String> command = new ArrayList<>(List.of(javaExecutable()));
+        switch (mode) {
+            case "jar", "faststart" -> {
+            }
+            case "aot" -> command.add("-Dspring.aot.enabled=true");
+            case "aot-cds" -> {
+                File archive = new File(directory, "application.jsa");
+                if (!archive.isFile()) {
+                    return null;
+                }
+                command.add("-XX:SharedArchiveFile=" + archive.getName());
+                command.add("-Dspring.aot.enabled=true");
+            }
+            default -> throw new IllegalArgumentException("未知的模式：" + mode);
+        }
+        command.addAll(List.of("-jar", jars[0].getName(), profiles(options, !"jar".equals(mode))));
+        return command;
+    }
+
+    private static String profiles(Map<String, String> options, boolean faststart) {
+        return "--spring.profiles.active=" + options.get("profiles") + (faststart ? ",faststart" : "");
+    }
+
+    private static String javaExecutable() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static Run start(List<String> command, File directory, URI probe) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(probe).timeout(Duration.ofSeconds(1)).build();
+        double[] started = {Double.NaN};
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(directory).redirectErrorStream(true).start();
+        Thread.ofVirtual().name("startup-log").start(() -> readLog(process, started));
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("应用启动失败，退出码：" + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long firstRequest = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        return new Run(firstRequest, started[0]);
+                    }
+                } catch (IOException e) {
+                    // 端口尚未监听
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            throw new IllegalStateException("应用在" + STARTUP_TIMEOUT + "内未就绪");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void readLog(Process process, double[] started) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (matcher.find()) {
+                    started[0] = Double.parseDouble(matcher.group(1));
+                }
+            }
+        } catch (IOException e) {
+            // 进程已退出
+        }
+    }
+
+    private static Map<String, Object> summarize(List<Run> runs) {
+        long[] firstRequest = runs.stream().mapToLong(Run::firstRequestMillis).sorted().toArray();
+        double[] started = runs.stream().mapToDouble(Run::startedSeconds).sorted().toArray();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("firstRequestMillisMedian", firstRequest[firstRequest.length / 2]);
+        summary.put("firstRequestMillisMin", firstRequest[0]);
+        summary.put("firstRequestMillisMax", firstRequest[firstRequest.length - 1]);
+        summary.put("startedSecondsMedian", started[started.length / 2]);
+        summary.put("firstRequestMillis", firstRequest);
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void report(Map<String, Object> modes) {
+        System.out.printf("%-10s %16s %12s %12s %16s%n", "模式", "首个请求中位数ms", "最小ms", "最大ms", "Spring启动中位数s");
+        modes.forEach((mode, value) -> {
+            Map<String, Object> summary = (Map<String, Object>) value;
+            System.out.printf("%-10s %16d %12d %12d %16.3f%n", mode,
+                    (long) summary.get("firstRequestMillisMedian"),
+                    (long) summary.get("firstRequestMillisMin"),
+                    (long) summary.get("firstRequestMillisMax"),
+                    (double) summary.get("startedSecondsMedian"));
+        });
+    }
+
+    /**
+     * @param startedSeconds Spring 日志中的启动耗时，未读到时为NaN
+     */
+    private record Run(long firstRequestMillis, double startedSeconds) {
+    }
+
+}
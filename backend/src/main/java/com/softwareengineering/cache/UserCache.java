@@ -0,0 +1,233 @@
+package com.softwareengineering.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.softwareengineering.config.UserCacheProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.dao.UserCredentials;
+import com.softwareengineering.event.UserCreatedEvent;
+import com.softwareengineering.util.CollationKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 登录时按用户名查询用户ID和密码哈希的两级读穿缓存：本地 Caffeine + Redis
+ * <p>
+ * 键为按排序规则折叠后的取值，大小写、重音不同的写法共用一个条目，清除时不会遗漏；无法折叠的取值不缓存。
+ * "用户不存在"也会缓存，创建用户时清除。
+ * <p>
+ * 清除时在Redis写入短期墓碑并通过pub/sub通知所有节点清除本地缓存，事务中会在提交后再清除一次。
+ * 回填使用 SET NX，墓碑期间不会把并发读取到的旧数据写回，保证密码修改后不会读到旧的密码哈希。
+ * <p>
+ * memory 会话模式(单节点)没有pub/sub监听容器，只使用本地缓存，不访问Redis
+ */
+@Slf4j
+@Component
+public class UserCache implements MessageListener {
+
+    private static final String USERNAME = "username:";
+
+    private static final String NOT_FOUND = "";
+
+    private static final String TOMBSTONE = "!";
+
+    private static final String KEY_DELIMITER = ",";
+
+    /**
+     * 只使用本地缓存时为null
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserCacheProperties properties;
+
+    private final Cache<String, Optional<UserCredentials>> localCache;
+
+    /**
+     * 本地失效计数，回填本地缓存期间发生过失效时放弃回填
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter redisHits;
+
+    private final Counter redisMisses;
+
+    public UserCache(StringRedisTemplate redisTemplate,
+                     @Nullable RedisMessageListenerContainer listenerContainer,
+                     ObjectMapper objectMapper,
+                     UserCacheProperties properties,
+                     MeterRegistry meterRegistry) {
+        this.redisTemplate = listenerContainer == null ? null : redisTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaximumSize())
+                .expireAfterWrite(properties.getLocalTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "user.local");
+        this.redisHits = Counter.builder("cache.gets").tag("cache", "user.redis").tag("result", "hit").register(meterRegistry);
+        this.redisMisses = Counter.builder("cache.gets").tag("cache", "user.redis").tag("result", "miss").register(meterRegistry);
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CommonConstants.Redis.USER_CACHE_INVALIDATE_CHANNEL));
+        }
+    }
+
+    /**
+     * @param loader 缓存未命中时查询数据库
+     * @return 用户ID和密码哈希，不存在时返回null
+     */
+    public UserCredentials findByUsername(String username, Function<String, UserCredentials> loader) {
+        String normalized = CollationKeys.normalize(username);
+        if (!properties.isEnabled() || normalized == null) {
+            return loader.apply(username);
+        }
+        return find(key(normalized), username, loader);
+    }
+
+    /**
+     * 清除用户名对应的条目，在事务中调用时提交后会再清除一次
+     */
+    public void evict(String username) {
+        String normalized = CollationKeys.normalize(username);
+        if (!properties.isEnabled() || normalized == null) {
+            return;
+        }
+        List<String> keys = List.of(key(normalized));
+        evictKeys(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictKeys(keys);
+                }
+            });
+        }
+    }
+
+    @EventListener
+    public void onUserCreated(UserCreatedEvent event) {
+        // 清除"用户不存在"的缓存
+        evict(event.username());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidateLocal(Arrays.asList(new String(message.getBody(), StandardCharsets.UTF_8).split(KEY_DELIMITER)));
+    }
+
+    private UserCredentials find(String key, String username, Function<String, UserCredentials> loader) {
+        Optional<UserCredentials> local = localCache.getIfPresent(key);
+        if (local != null) {
+            return local.orElse(null);
+        }
+
+        long generation = invalidations.get();
+        if (redisTemplate == null) {
+            UserCredentials credentials = loader.apply(username);
+            putLocal(key, Optional.ofNullable(credentials), generation);
+            return credentials;
+        }
+        String cached = redisTemplate.opsForValue().get(key);
+        if (cached != null && !TOMBSTONE.equals(cached)) {
+            Optional<UserCredentials> entry = NOT_FOUND.equals(cached) ? Optional.empty() : deserialize(cached);
+            if (entry != null) {
+                redisHits.increment();
+                putLocal(key, entry, generation);
+                return entry.orElse(null);
+            }
+        }
+
+        redisMisses.increment();
+        UserCredentials credentials = loader.apply(username);
+        if (!TOMBSTONE.equals(cached)) {
+            Optional<UserCredentials> entry = Optional.ofNullable(credentials);
+            Duration ttl = entry.isPresent() ? properties.getTtl() : properties.getNegativeTtl();
+            Boolean stored = redisTemplate.opsForValue().setIfAbsent(key, entry.map(this::serialize).orElse(NOT_FOUND), ttl);
+            if (Boolean.TRUE.equals(stored)) {
+                putLocal(key, entry, generation);
+            }
+        }
+        return credentials;
+    }
+
+    private void putLocal(String key, Optional<UserCredentials> entry, long generation) {
+        localCache.put(key, entry);
+        // 读取期间发生过失效，读到的可能是旧数据
+        if (invalidations.get() != generation) {
+            localCache.invalidate(key);
+        }
+    }
+
+    private void evictKeys(List<String> keys) {
+        if (redisTemplate == null) {
+            invalidateLocal(keys);
+            return;
+        }
+        long tombstoneMillis = properties.getTombstoneTtl().toMillis();
+        String message = String.join(KEY_DELIMITER, keys);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String key : keys) {
+                stringConnection.pSetEx(key, tombstoneMillis, TOMBSTONE);
+            }
+            stringConnection.publish(CommonConstants.Redis.USER_CACHE_INVALIDATE_CHANNEL, message);
+            return null;
+        });
+        invalidateLocal(keys);
+    }
+
+    private void invalidateLocal(List<String> keys) {
+        invalidations.incrementAndGet();
+        localCache.invalidateAll(keys);
+    }
+
+    private static String key(String normalizedUsername) {
+        return CommonConstants.Redis.USER_CACHE_PREFIX + USERNAME + normalizedUsername;
+    }
+
+    private String serialize(UserCredentials credentials) {
+        try {
+            return objectMapper.writeValueAsString(credentials);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return 无法解析(如字段变更后的旧数据)时返回null，按未命中处理
+     */
+    private Optional<UserCredentials> deserialize(String json) {
+        try {
+            return Optional.of(objectMapper.readValue(json, UserCredentials.class));
+        } catch (JsonProcessingException e) {
+            log.warn("用户缓存解析失败：{}", e.getMessage());
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.softwareengineering.cache;
+
+import com.softwareengineering.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户实体更新、删除时清除缓存，由Hibernate通过Spring容器创建
+ * <p>
+ * 这里只能拿到更新后的用户名，修改用户名时需由调用方清除旧用户名的条目；
+ * JPQL批量更新不会触发，需由调用方自行清除
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+
+    private final UserCache userCache;
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userCache.evict(user.getUsername());
+    }
+
+}
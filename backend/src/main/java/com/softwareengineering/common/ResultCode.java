@@ -1,5 +1,7 @@
 package com.softwareengineering.common;
 
+import java.util.HashMap;
+import java.util.Map;
 import lombok.Getter;
 
 @Getter
@@ -9,12 +11,22 @@ public enum ResultCode {
     UNAUTHORIZED(401, "未授权"),
     FORBIDDEN(403, "禁止访问"),
     NOT_FOUND(404, "资源不存在"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后再试"),
     USER_EXISTED(1001, "用户已存在"),
     USER_NOT_FOUND(1002, "用户不存在"),
     PASSWORD_ERROR(1003, "密码错误"),
     EMAIL_EXISTED(1004, "邮箱已被注册"),
     VERIFICATION_CODE_ERROR(1005, "验证码错误或已过期"),
-    SYSTEM_ERROR(500, "系统错误");
+    SYSTEM_ERROR(500, "系统错误"),
+    SERVER_BUSY(503, "服务器繁忙，请稍后再试");
+
+    private static final Map<Integer, ResultCode> BY_CODE = new HashMap<>();
+
+    static {
+        for (ResultCode resultCode : values()) {
+            BY_CODE.put(resultCode.code, resultCode);
+        }
+    }
 
     private final Integer code;
 
@@ -24,4 +36,11 @@ public enum ResultCode {
         this.code = code;
         this.message = message;
     }
+
+    /**
+     * @return 对应的错误码，不存在时返回null
+     */
+    public static ResultCode of(Integer code) {
+        return BY_CODE.get(code);
+    }
 } 
\ No newline at end of file
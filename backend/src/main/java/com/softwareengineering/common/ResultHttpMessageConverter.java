@@ -0,0 +1,52 @@
+package com.softwareengineering.common;
+
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 接口返回的 {@link Result} 使用 {@link ResultJsonEncoder} 写出，只负责写，请求体仍由 Jackson 转换器读取
+ * <p>
+ * Spring Boot 将 HttpMessageConverter 类型的 Bean 排在默认转换器之前
+ */
+@Component
+public class ResultHttpMessageConverter extends AbstractHttpMessageConverter<Result<?>> {
+
+    private final ResultJsonEncoder encoder;
+
+    public ResultHttpMessageConverter(ResultJsonEncoder encoder) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.encoder = encoder;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Result.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Result<?> readInternal(Class<? extends Result<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("不支持读取 Result", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(Result<?> result, MediaType contentType) {
+        byte[] encoded = encoder.encoded(result);
+        return encoded == null ? null : (long) encoded.length;
+    }
+
+    @Override
+    protected void writeInternal(Result<?> result, HttpOutputMessage outputMessage) throws IOException {
+        encoder.write(result, outputMessage.getBody());
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.softwareengineering.common;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link Result} 的 JSON 编码，输出与 ObjectMapper 直接序列化的字节相同
+ * <p>
+ * 不带数据且使用默认消息的结果(Result.success()、Result.error(ResultCode))在启动时编码一次，之后直接写出缓存的字节；
+ * 其余结果由生成器逐个字段写出外层，只有 data 交给 ObjectMapper 序列化
+ */
+@Component
+public class ResultJsonEncoder {
+
+    private static final SerializedString CODE = new SerializedString("code");
+
+    private static final SerializedString MESSAGE = new SerializedString("message");
+
+    private static final SerializedString DATA = new SerializedString("data");
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 写完 data 后不刷新，由调用方的缓冲区决定何时写出
+     */
+    private final ObjectWriter dataWriter;
+
+    private final Map<ResultCode, byte[]> constants = new EnumMap<>(ResultCode.class);
+
+    private final Map<ResultCode, SerializedString> messages = new EnumMap<>(ResultCode.class);
+
+    public ResultJsonEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.dataWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        for (ResultCode resultCode : ResultCode.values()) {
+            try {
+                constants.put(resultCode, objectMapper.writeValueAsBytes(Result.error(resultCode)));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            messages.put(resultCode, new SerializedString(resultCode.getMessage()));
+        }
+    }
+
+    /**
+     * @return 预先编码的字节，结果带数据或使用了自定义消息时返回null；返回的数组不能修改
+     */
+    public byte[] encoded(Result<?> result) {
+        if (result.getData() != null) {
+            return null;
+        }
+        ResultCode resultCode = defaultMessageCode(result);
+        return resultCode == null ? null : constants.get(resultCode);
+    }
+
+    /**
+     * 写出结果，不关闭输出流
+     */
+    public void write(Result<?> result, OutputStream output) throws IOException {
+        byte[] encoded = encoded(result);
+        if (encoded != null) {
+            output.write(encoded);
+            return;
+        }
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(output), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeFieldName(CODE);
+            if (result.getCode() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(result.getCode());
+            }
+            generator.writeFieldName(MESSAGE);
+            ResultCode resultCode = defaultMessageCode(result);
+            if (resultCode != null) {
+                generator.writeString(messages.get(resultCode));
+            } else {
+                generator.writeString(result.getMessage());
+            }
+            generator.writeFieldName(DATA);
+            dataWriter.writeValue(generator, result.getData());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * @return 消息为默认消息时对应的错误码，否则返回null
+     */
+    private static ResultCode defaultMessageCode(Result<?> result) {
+        ResultCode resultCode = ResultCode.of(result.getCode());
+        return resultCode != null && resultCode.getMessage().equals(result.getMessage()) ? resultCode : null;
+    }
+
+}
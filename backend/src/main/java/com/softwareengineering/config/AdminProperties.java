@@ -0,0 +1,24 @@
+package com.softwareengineering.config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.admin")
+public class AdminProperties {
+
+    /**
+     * 管理员用户ID，为空时管理接口拒绝所有请求
+     */
+    private Set<Long> userIds = new HashSet<>();
+
+    /**
+     * 只允许管理员访问的接口路径(Ant风格)，同时须在 app.session.protected-paths 中
+     */
+    private List<String> paths = new ArrayList<>(List.of("/api/admin/**"));
+
+}
@@ -0,0 +1,71 @@
+package com.softwareengineering.config;
+
+import com.softwareengineering.datasource.ReadWriteRoutingDataSource;
+import com.softwareengineering.filter.PrimaryStickinessFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * 读写分离数据源，app.datasource.replica.enabled=true 时生效，否则使用 Spring Boot 自动配置的单个连接池
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    /**
+     * 主库连接池，连接池参数沿用 spring.datasource.hikari
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties primaryProperties, ReplicaDataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(primaryProperties.determineDriverClassName());
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMinimumIdle(properties.getMinimumIdle());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        // 从库不可用时快速失败并回退到主库，启动时也不要求从库可用
+        dataSource.setConnectionTimeout(properties.getValidationTimeout().toMillis() + 1000);
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                        HikariDataSource replicaDataSource,
+                                                        ReplicaDataSourceProperties properties) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, properties.getValidationTimeout());
+    }
+
+    /**
+     * JPA、JdbcTemplate 等使用的数据源
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public PrimaryStickinessFilter primaryStickinessFilter() {
+        return new PrimaryStickinessFilter();
+    }
+
+}
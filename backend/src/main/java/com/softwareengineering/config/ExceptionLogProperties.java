@@ -0,0 +1,26 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 业务异常和参数校验失败的日志限频，按错误码分别计算；意外异常始终记录完整堆栈
+ */
+@Data
+@ConfigurationProperties(prefix = "app.exception-log")
+public class ExceptionLogProperties {
+
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * 每个窗口内全部记录的次数
+     */
+    private int burst = 10;
+
+    /**
+     * 超过 burst 后每多少次记录一次
+     */
+    private int sampleEvery = 1000;
+
+}
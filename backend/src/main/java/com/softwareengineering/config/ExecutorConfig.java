@@ -0,0 +1,27 @@
+package com.softwareengineering.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * 异步接口中阻塞I/O(数据库、Redis、SMTP)使用的执行器，每个任务一个虚拟线程，
+     * 不受 spring.threads.virtual.enabled 影响；CPU密集的密码哈希仍在独立的有界线程池中计算。
+     * 提交任务时传递当前的追踪上下文，异步接口的span与请求的span属于同一条链路
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService ioExecutor(MeterRegistry meterRegistry) {
+        ExecutorService executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 0).factory()), "io");
+        return ContextExecutorService.wrap(executor, ContextSnapshotFactory.builder().build());
+    }
+
+}
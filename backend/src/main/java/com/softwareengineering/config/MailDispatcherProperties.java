@@ -0,0 +1,62 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.mail.dispatcher")
+public class MailDispatcherProperties {
+
+    /**
+     * 发送线程数(虚拟线程)，即同时占用的SMTP连接数
+     */
+    private int concurrency = 2;
+
+    /**
+     * 每批最多发送的邮件数，同一批复用一个SMTP连接
+     */
+    private int batchSize = 20;
+
+    /**
+     * 发件箱为空时的轮询间隔，本节点投递新邮件时会立即唤醒
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * 单封邮件最多尝试次数，发件箱按消费组记录的投递次数计算，超过后转入死信
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * 发件箱中未确认的邮件空闲超过该时间后由任一消费者接管重发，发送失败的邮件也在此之后重试；
+     * 应大于发送一批邮件的最长耗时，否则正在发送的邮件会被其他消费者重复发送
+     */
+    private Duration claimMinIdle = Duration.ofSeconds(30);
+
+    /**
+     * 每个发送线程检查可接管邮件的间隔
+     */
+    private Duration claimInterval = Duration.ofSeconds(10);
+
+    /**
+     * 进程内队列(memory会话模式)首次重试的退避时间，之后每次翻倍
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    private Duration maxBackoff = Duration.ofMinutes(1);
+
+    /**
+     * @return 下一次重试的退避时间，翻倍但不超过 max-backoff
+     */
+    public Duration nextBackoff(Duration backoff) {
+        Duration doubled = backoff.multipliedBy(2);
+        return doubled.compareTo(maxBackoff) > 0 ? maxBackoff : doubled;
+    }
+
+    /**
+     * 消费者名称前缀，用于在待确认列表中区分节点；未确认的邮件按 claim-min-idle 由任一消费者接管，不要求重启后保持不变
+     */
+    private String consumerName = "local";
+
+}
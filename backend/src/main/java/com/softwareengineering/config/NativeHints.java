@@ -0,0 +1,48 @@
+package com.softwareengineering.config;
+
+import com.softwareengineering.cache.UserCacheEvictionListener;
+import com.softwareengineering.dao.UserCredentials;
+import com.softwareengineering.entity.User;
+import com.softwareengineering.event.UserCreatedEvent;
+import com.softwareengineering.mapper.UserMapper;
+import com.softwareengineering.vo.UserImportRowVO;
+import com.softwareengineering.vo.UserSummaryVO;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * AOT 无法从Bean定义推断出的运行时反射和资源，供 GraalVM native-image 使用
+ * <p>
+ * 控制器的请求和响应类型由 Spring 自动登记，这里只登记在控制器之外由 Jackson、Hibernate 通过反射访问的类型。
+ * Lombok 只在编译期生成代码，MapStruct 生成的实现是普通的 Spring Bean，都不需要额外的反射，
+ * 实体和映射实现仍完整登记，避免 Hibernate 按属性访问时缺少方法
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // RedisScript 从类路径读取的Lua脚本
+        hints.resources().registerPattern("scripts/*.lua");
+
+        // Jackson：用户缓存、新用户广播、NDJSON导出和导入
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                UserCredentials.class, UserCreatedEvent.class, UserSummaryVO.class, UserImportRowVO.class);
+        // JPQL构造器表达式 new UserCredentials(...)
+        hints.reflection().registerType(UserCredentials.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        hints.reflection().registerType(User.class,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS);
+        hints.reflection().registerType(UserCacheEvictionListener.class, MemberCategory.INVOKE_DECLARED_METHODS);
+        hints.reflection().registerType(TypeReference.of(UserMapper.class.getName() + "Impl"),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+
+}
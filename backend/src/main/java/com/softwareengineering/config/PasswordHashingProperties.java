@@ -0,0 +1,48 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * Argon2 内存开销
+     */
+    private DataSize memory = DataSize.ofMegabytes(19);
+
+    private int parallelism = 1;
+
+    /**
+     * 固定迭代次数，为0时启动时按 target-latency 校准
+     */
+    private int iterations = 0;
+
+    /**
+     * 校准的目标单次哈希耗时
+     */
+    private Duration targetLatency = Duration.ofMillis(100);
+
+    private int minIterations = 2;
+
+    private int maxIterations = 10;
+
+    /**
+     * 哈希线程数，同时也限制了 Argon2 的总内存占用(threads * memory)
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 等待队列长度，队列满时直接拒绝
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 请求最长等待时间(排队+计算)，超时返回服务器繁忙
+     */
+    private Duration maxWait = Duration.ofSeconds(2);
+
+}
@@ -0,0 +1,54 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 接口 -> 维度(email/username-ip/ip) -> 令牌桶，未配置的维度不限流
+     */
+    private Map<String, Map<String, Bucket>> endpoints = new HashMap<>();
+
+    private Memory memory = new Memory();
+
+    @Data
+    public static class Bucket {
+
+        /**
+         * 桶容量，即允许的突发请求数
+         */
+        private int capacity;
+
+        /**
+         * 从空桶补满所需的时间
+         */
+        private Duration refillPeriod;
+
+        /**
+         * @return 每毫秒补充的令牌数
+         */
+        public double refillRate() {
+            return (double) capacity / refillPeriod.toMillis();
+        }
+
+    }
+
+    @Data
+    public static class Memory {
+
+        /**
+         * memory会话模式下进程内最多保留的令牌桶数，超出时淘汰最久未访问的桶(相当于补满)
+         */
+        private long maximumSize = 100_000;
+
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Lettuce 客户端选项，连接地址、超时、集群和哨兵节点仍使用 spring.data.redis
+ */
+@Data
+@ConfigurationProperties(prefix = "app.redis")
+public class RedisClientProperties {
+
+    /**
+     * 连接断开期间直接拒绝命令，不在客户端排队等待重连
+     */
+    private boolean rejectWhenDisconnected = true;
+
+    /**
+     * 每个连接已发出、等待响应的命令数上限，超出时立即失败
+     */
+    private int requestQueueSize = 10_000;
+
+    private Topology topology = new Topology();
+
+    @Data
+    public static class Topology {
+
+        /**
+         * 定期刷新集群拓扑的间隔
+         */
+        private Duration refreshPeriod = Duration.ofSeconds(30);
+
+        /**
+         * 收到 MOVED/ASK 重定向或连接断开时立即刷新拓扑
+         */
+        private boolean adaptiveRefresh = true;
+
+        /**
+         * 两次自适应刷新的最小间隔，避免故障期间频繁刷新
+         */
+        private Duration adaptiveRefreshTimeout = Duration.ofSeconds(5);
+
+    }
+
+}
@@ -1,11 +1,97 @@
 package com.softwareengineering.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.tracing.MicrometerTracing;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 @EnableCaching
 @Configuration
 public class RedisConfig {
-    // 配置都已经移到application.yml中
-    // 如果后续需要自定义Redis操作，可以在这里添加
-} 
\ No newline at end of file
+    // 连接相关配置都已经移到application.yml中，单机、哨兵(spring.data.redis.sentinel)、集群(spring.data.redis.cluster)由 Spring Boot 按配置选择
+
+    /**
+     * pub/sub 监听容器，各组件自行注册频道监听；memory 会话模式下不创建
+     */
+    @Bean
+    @ConditionalOnExpression(SessionProperties.SHARED_MODE)
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * 客户端选项：命令超时对异步命令同样生效，连接断开时快速失败，集群模式下定期和按需刷新拓扑
+     * <p>
+     * 所有线程共享一个原生连接(LettuceConnectionFactory 默认)，并发的命令在同一连接上连续写出、按序读取响应，
+     * 不需要连接池；多条命令的业务操作使用显式管道
+     */
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer lettuceClientOptionsCustomizer(RedisProperties redisProperties,
+                                                                                     RedisClientProperties properties) {
+        return builder -> builder.clientOptions(clientOptions(properties, redisProperties.getConnectTimeout(),
+                redisProperties.getCluster() != null));
+    }
+
+    /**
+     * 基准测试复用同一套选项
+     *
+     * @param connectTimeout 为null时使用 Lettuce 默认值
+     */
+    public static ClientOptions clientOptions(RedisClientProperties properties, Duration connectTimeout, boolean cluster) {
+        SocketOptions socketOptions = SocketOptions.builder()
+                .connectTimeout(connectTimeout == null ? SocketOptions.DEFAULT_CONNECT_TIMEOUT_DURATION : connectTimeout)
+                .keepAlive(true)
+                .build();
+        ClientOptions.DisconnectedBehavior disconnectedBehavior = properties.isRejectWhenDisconnected()
+                ? ClientOptions.DisconnectedBehavior.REJECT_COMMANDS
+                : ClientOptions.DisconnectedBehavior.DEFAULT;
+        if (!cluster) {
+            return ClientOptions.builder()
+                    .socketOptions(socketOptions)
+                    .timeoutOptions(TimeoutOptions.enabled())
+                    .disconnectedBehavior(disconnectedBehavior)
+                    .requestQueueSize(properties.getRequestQueueSize())
+                    .build();
+        }
+        RedisClientProperties.Topology topology = properties.getTopology();
+        ClusterTopologyRefreshOptions.Builder refresh = ClusterTopologyRefreshOptions.builder()
+                .enablePeriodicRefresh(topology.getRefreshPeriod());
+        if (topology.isAdaptiveRefresh()) {
+            refresh.enableAllAdaptiveRefreshTriggers()
+                    .adaptiveRefreshTriggersTimeout(topology.getAdaptiveRefreshTimeout());
+        }
+        return ClusterClientOptions.builder()
+                .socketOptions(socketOptions)
+                .timeoutOptions(TimeoutOptions.enabled())
+                .disconnectedBehavior(disconnectedBehavior)
+                .requestQueueSize(properties.getRequestQueueSize())
+                .topologyRefreshOptions(refresh.build())
+                .build();
+    }
+
+    /**
+     * 为每个Redis命令生成span，开销与命令数成正比，默认关闭；命令耗时指标(lettuce.command.completion)由 Spring Boot 自动配置
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.tracing", name = "redis", havingValue = "true")
+    public ClientResourcesBuilderCustomizer lettuceTracingCustomizer(ObservationRegistry observationRegistry) {
+        return builder -> builder.tracing(new MicrometerTracing(observationRegistry, "redis"));
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * 关闭时所有请求都使用 spring.datasource 配置的主库
+     */
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int minimumIdle = 10;
+
+    private int maximumPoolSize = 80;
+
+    /**
+     * 从库健康检查间隔，不可用期间只读事务回退到主库
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * 健康检查中校验连接的超时时间
+     */
+    private Duration validationTimeout = Duration.ofSeconds(1);
+
+}
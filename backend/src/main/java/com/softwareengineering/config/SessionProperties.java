@@ -0,0 +1,122 @@
+package com.softwareengineering.config;
+
+import com.softwareengineering.constant.CommonConstants;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.session")
+public class SessionProperties {
+
+    /**
+     * 会话不存储在进程内(redis/token模式)时才创建依赖Redis的组件，memory模式下使用进程内的实现，不连接Redis
+     */
+    public static final String SHARED_MODE = "!'${app.session.mode:redis}'.equalsIgnoreCase('memory')";
+
+    /**
+     * 会话模式
+     */
+    private Mode mode = Mode.REDIS;
+
+    /**
+     * 需要会话认证的接口路径(Ant风格)
+     */
+    private List<String> protectedPaths = new ArrayList<>();
+
+    private NearCache nearCache = new NearCache();
+
+    private Token token = new Token();
+
+    private Sliding sliding = new Sliding();
+
+    private Memory memory = new Memory();
+
+    public enum Mode {
+
+        /**
+         * 随机会话ID，会话存储在Redis
+         */
+        REDIS,
+
+        /**
+         * HMAC签名的自描述令牌，校验不访问Redis
+         */
+        TOKEN,
+
+        /**
+         * 随机会话ID，会话存储在进程内，只适用于单节点部署
+         */
+        MEMORY
+
+    }
+
+    @Data
+    public static class NearCache {
+
+        /**
+         * 本地最多缓存的会话数
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * 本地缓存有效期，应远小于会话有效期
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+    }
+
+    @Data
+    public static class Token {
+
+        /**
+         * HMAC-SHA256密钥，至少32字节，集群内各节点必须一致
+         */
+        private String secret;
+
+        /**
+         * 令牌有效期
+         */
+        private Duration ttl = Duration.ofMinutes(CommonConstants.Redis.SESSION_EXPIRE);
+
+        /**
+         * 集群内各节点令牌有效期的最大值，用户级吊销记录保留到此前签发的令牌全部过期；未设置时等于 ttl。
+         * 各节点 ttl 不同时必须在所有节点设置为同一个值，并留出时钟偏差的余量
+         */
+        private Duration maxTtl;
+
+    }
+
+    @Data
+    public static class Sliding {
+
+        /**
+         * 是否在访问时延长会话有效期(redis、memory模式)
+         */
+        private boolean enabled = true;
+
+        /**
+         * 同一会话在该窗口内最多刷新一次
+         */
+        private Duration refreshWindow = Duration.ofMinutes(1);
+
+        /**
+         * 批量刷新的间隔
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+    }
+
+    @Data
+    public static class Memory {
+
+        /**
+         * memory模式下最多保存的会话数，超出时淘汰访问最少的会话
+         */
+        private long maximumSize = 1_000_000;
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.user-cache")
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 本地缓存最大条目数
+     */
+    private long localMaximumSize = 10_000;
+
+    /**
+     * 本地缓存有效期，失效主要依靠pub/sub广播，有效期只是兜底
+     */
+    private Duration localTtl = Duration.ofMinutes(1);
+
+    /**
+     * Redis缓存有效期
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * "用户不存在"的缓存有效期
+     */
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    /**
+     * 清除缓存后禁止回填的时间，需大于一次数据库查询的耗时，防止并发读取把旧数据写回缓存
+     */
+    private Duration tombstoneTtl = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,15 @@
+package com.softwareengineering.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.user-export")
+public class UserExportProperties {
+
+    /**
+     * 导出时每次从数据库游标读取的行数，内存占用只与该值有关；MySQL需开启 useCursorFetch
+     */
+    private int fetchSize = 1000;
+
+}
@@ -0,0 +1,33 @@
+package com.softwareengineering.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "app.user-import")
+public class UserImportProperties {
+
+    /**
+     * 每批写入的行数，同一批在一个事务中提交
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 导入专用的密码哈希线程数，不占用登录使用的密码哈希线程池，默认只用一半CPU
+     */
+    private int hashingParallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * 导入时的 Argon2 内存开销，低于 app.password-hashing 的参数，用户首次登录时按当前参数重新哈希
+     */
+    private DataSize hashingMemory = DataSize.ofMegabytes(4);
+
+    private int hashingIterations = 1;
+
+    /**
+     * 报告中最多列出的失败行数
+     */
+    private int maxReportedErrors = 1000;
+
+}
@@ -0,0 +1,21 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.user-index")
+public class UserIndexProperties {
+
+    /**
+     * 布隆过滤器期望误判率
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * 后台重建间隔，重建时按当前用户数重新计算容量
+     */
+    private Duration rebuildInterval = Duration.ofHours(6);
+
+}
@@ -0,0 +1,32 @@
+package com.softwareengineering.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "app.user-search")
+public class UserSearchProperties {
+
+    /**
+     * 关闭时只使用数据库前缀查询
+     */
+    private boolean enabled = true;
+
+    /**
+     * 索引内存上限，构建时超出则放弃构建，搜索回退到数据库前缀查询
+     */
+    private DataSize memoryBudget = DataSize.ofMegabytes(256);
+
+    /**
+     * 每次搜索最多扫描的候选条目数，在其中排序取前N个
+     */
+    private int maxCandidates = 1000;
+
+    /**
+     * 后台重建间隔
+     */
+    private Duration rebuildInterval = Duration.ofHours(6);
+
+}
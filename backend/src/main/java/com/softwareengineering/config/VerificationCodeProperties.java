@@ -0,0 +1,41 @@
+package com.softwareengineering.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.verification-code")
+public class VerificationCodeProperties {
+
+    /**
+     * 验证码存储
+     */
+    private Store store = Store.REDIS;
+
+    private Memory memory = new Memory();
+
+    public enum Store {
+
+        /**
+         * 存储在Redis，集群内共享
+         */
+        REDIS,
+
+        /**
+         * 存储在进程内，只适用于单节点部署
+         */
+        MEMORY
+
+    }
+
+    @Data
+    public static class Memory {
+
+        /**
+         * 最多保存的验证码数，超出时淘汰访问最少的验证码
+         */
+        private long maximumSize = 100_000;
+
+    }
+
+}
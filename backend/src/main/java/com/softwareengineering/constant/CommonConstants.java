@@ -4,10 +4,34 @@ public class CommonConstants {
 
     public static class Redis {
 
-        public static final String SESSION_PREFIX = "user:session:";
+        public static final String SESSION_PREFIX = "user:session:"; // 完整的键由 SessionKeys 生成，带哈希标签
+
+        public static final String USER_SESSIONS_PREFIX = "user:sessions:"; // 用户会话索引(Set)，成员为sessionId
+
+        public static final String LEGACY_SESSIONS_REVOKED_PREFIX = "user:sessions:legacy-revoked:"; // 升级前的会话已被删除全部会话吊销的标记
 
         public static final long SESSION_EXPIRE = 30; // 会话过期时间(分钟)
 
+        public static final String SESSION_INVALIDATE_CHANNEL = "user:session:invalidate"; // 会话失效广播频道
+
+        public static final String TOKEN_REVOKED_KEY = "user:token:revoked"; // 令牌吊销记录(ZSet)，score为保留截止时间戳
+
+        public static final String TOKEN_GENERATION_PREFIX = "user:token:generation:"; // 用户令牌代数，吊销用户的全部令牌时递增
+
+        public static final String TOKEN_REVOKE_CHANNEL = "user:token:revoke"; // 令牌吊销广播频道
+
+        public static final String MAIL_OUTBOX_STREAM = "mail:outbox"; // 邮件发件箱(Stream)
+
+        public static final String MAIL_DEAD_LETTER_STREAM = "mail:outbox:dead"; // 多次发送失败的邮件
+
+        public static final String MAIL_DISPATCHER_GROUP = "mail-dispatcher"; // 发件箱消费组
+
+        public static final String USER_CACHE_PREFIX = "user:cache:"; // 用户缓存，按折叠后的用户名/邮箱
+
+        public static final String USER_CACHE_INVALIDATE_CHANNEL = "user:cache:invalidate"; // 用户缓存失效广播频道
+
+        public static final String USER_CREATED_CHANNEL = "user:created"; // 新用户广播频道，各节点追加到内存索引
+
     }
 
 }
\ No newline at end of file
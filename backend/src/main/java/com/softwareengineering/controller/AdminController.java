@@ -0,0 +1,80 @@
+package com.softwareengineering.controller;
+
+import com.softwareengineering.common.Result;
+import com.softwareengineering.service.UserImportService;
+import com.softwareengineering.service.UserQueryService;
+import com.softwareengineering.vo.UserImportReportVO;
+import com.softwareengineering.vo.UserPageVO;
+import com.softwareengineering.vo.UserQueryVO;
+import com.softwareengineering.vo.UserSummaryVO;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Validated
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final UserImportService userImportService;
+
+    private final UserQueryService userQueryService;
+
+    /**
+     * 按ID游标分页查询用户，下一页使用响应中的 nextAfterId
+     */
+    @GetMapping("/users")
+    public Result<UserPageVO> listUsers(@Valid UserQueryVO query) {
+        return Result.success(userQueryService.list(query));
+    }
+
+    /**
+     * 按用户名或邮箱前缀搜索用户
+     */
+    @GetMapping("/users/search")
+    public Result<List<UserSummaryVO>> searchUsers(@RequestParam @NotBlank @Size(max = 32) String keyword,
+                                                   @RequestParam(defaultValue = "20") @Min(1) @Max(50) int limit) {
+        return Result.success(userQueryService.search(keyword, limit));
+    }
+
+    /**
+     * 流式导出用户，边读边写入响应
+     */
+    @GetMapping("/users/export")
+    public void exportUsers(@Valid UserQueryVO query,
+                            @RequestParam(defaultValue = "CSV") UserImportService.Format format,
+                            HttpServletResponse response) throws IOException {
+        boolean csv = format == UserImportService.Format.CSV;
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + (csv ? "csv" : "ndjson"));
+        userQueryService.export(query, format, response.getOutputStream());
+    }
+
+    /**
+     * 批量导入用户，请求体为CSV或NDJSON文件内容，边读边写入
+     */
+    @PostMapping("/users/import")
+    public Result<UserImportReportVO> importUsers(InputStream body,
+                                                  @RequestParam(defaultValue = "CSV") UserImportService.Format format)
+            throws IOException {
+        return Result.success(userImportService.importUsers(body, format));
+    }
+
+}
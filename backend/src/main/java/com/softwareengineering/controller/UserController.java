@@ -1,11 +1,16 @@
 package com.softwareengineering.controller;
 
 import com.softwareengineering.common.Result;
-import com.softwareengineering.entity.User;
+import com.softwareengineering.service.RateLimitService;
 import com.softwareengineering.service.UserService;
+import com.softwareengineering.vo.LoginResultVO;
 import com.softwareengineering.vo.UserLoginVO;
 import com.softwareengineering.vo.UserRegisterVO;
 import com.softwareengineering.vo.ResetPasswordVO;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
 
 @Validated
 @RestController
@@ -26,29 +32,63 @@ public class UserController {
 
     private final UserService userService;
 
+    private final RateLimitService rateLimitService;
+
+    private final ExecutorService ioExecutor;
+
     @PostMapping("/register")
     public Result<Void> register(@RequestBody @Valid UserRegisterVO registerVO) {
         userService.register(registerVO);
         return Result.success();
     }
 
+    @GetMapping("/username-available")
+    public Result<Boolean> isUsernameAvailable(@RequestParam @Size(min = 4, max = 32) String username) {
+        return Result.success(userService.isUsernameAvailable(username));
+    }
+
     @PostMapping("/login")
-    public Result<User> login(@RequestBody @Valid UserLoginVO loginVO) {
+    public Result<LoginResultVO> login(@RequestBody @Valid UserLoginVO loginVO, HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        rateLimitService.acquire(RateLimitService.LOGIN, Map.of(
+                RateLimitService.USERNAME_IP, loginVO.getUsername() + "|" + ip,
+                RateLimitService.IP, ip
+        ));
         return Result.success(userService.login(loginVO));
     }
 
     @GetMapping("/verification-code")
-    public Result<Void> sendVerificationCode(@RequestParam @Email String email) {
-        userService.sendVerificationCode(email);
+    public Result<Void> sendVerificationCode(@RequestParam @Email String email, HttpServletRequest request) {
+        sendVerificationCode(email, request.getRemoteAddr());
         return Result.success();
     }
 
+    /**
+     * 与 /verification-code 相同，在虚拟线程中执行，不占用请求线程
+     */
+    @GetMapping("/verification-code/async")
+    public CompletableFuture<Result<Void>> sendVerificationCodeAsync(@RequestParam @Email String email,
+                                                                     HttpServletRequest request) {
+        // 请求对象不能跨线程使用，先取出IP
+        String ip = request.getRemoteAddr();
+        return CompletableFuture.supplyAsync(() -> {
+            sendVerificationCode(email, ip);
+            return Result.success();
+        }, ioExecutor);
+    }
+
     @PostMapping("/logout")
     public Result<Void> logout(@RequestHeader("X-Session-Id") String sessionId) {
         userService.logout(sessionId);
         return Result.success();
     }
 
+    @PostMapping("/logout-all")
+    public Result<Void> logoutAll(@RequestHeader("X-Session-Id") String sessionId) {
+        userService.logoutAll(sessionId);
+        return Result.success();
+    }
+
     @PostMapping("/reset-password")
     public Result<Void> resetPassword(@RequestBody @Valid ResetPasswordVO resetPasswordVO) {
         userService.resetPassword(
@@ -59,4 +99,27 @@ public class UserController {
         return Result.success();
     }
 
+    /**
+     * 与 /reset-password 相同，在虚拟线程中执行，不占用请求线程
+     */
+    @PostMapping("/reset-password/async")
+    public CompletableFuture<Result<Void>> resetPasswordAsync(@RequestBody @Valid ResetPasswordVO resetPasswordVO) {
+        return CompletableFuture.supplyAsync(() -> {
+            userService.resetPassword(
+                resetPasswordVO.getEmail(),
+                resetPasswordVO.getVerificationCode(),
+                resetPasswordVO.getNewPassword()
+            );
+            return Result.success();
+        }, ioExecutor);
+    }
+
+    private void sendVerificationCode(String email, String ip) {
+        rateLimitService.acquire(RateLimitService.VERIFICATION_CODE, Map.of(
+                RateLimitService.EMAIL, email,
+                RateLimitService.IP, ip
+        ));
+        userService.sendVerificationCode(email);
+    }
+
 }
\ No newline at end of file
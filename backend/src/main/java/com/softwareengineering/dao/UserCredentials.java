@@ -0,0 +1,9 @@
+package com.softwareengineering.dao;
+
+/**
+ * 登录校验需要的ID和密码哈希
+ * <p>
+ * 使用构造器表达式直接创建，不经过实体和持久化上下文，也不需要接口投影的代理
+ */
+public record UserCredentials(Long id, String password) {
+}
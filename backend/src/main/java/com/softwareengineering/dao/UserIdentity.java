@@ -0,0 +1,12 @@
+package com.softwareengineering.dao;
+
+/**
+ * 用户名和邮箱投影，用于流式构建内存索引
+ */
+public interface UserIdentity {
+
+    String getUsername();
+
+    String getEmail();
+
+}
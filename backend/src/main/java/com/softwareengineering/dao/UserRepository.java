@@ -1,7 +1,15 @@
 package com.softwareengineering.dao;
 
 import com.softwareengineering.entity.User;
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
@@ -11,6 +19,32 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     User findByUsername(String username);
 
+    /**
+     * 登录只读取ID和密码哈希，不加载实体；不能容忍复制延迟，调用方应通过
+     * {@link com.softwareengineering.datasource.ReadWriteRoutingDataSource#usePrimary} 在主库上执行
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.softwareengineering.dao.UserCredentials(u.id, u.password) from User u where u.username = :username")
+    UserCredentials findCredentialsByUsername(@Param("username") String username);
+
     User findByEmail(String email);
 
+    /**
+     * 流式读取全部用户名和邮箱，需在事务中调用并关闭Stream
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.username as username, u.email as email from User u")
+    Stream<UserIdentity> streamAllIdentities();
+
+    /**
+     * 仅当密码仍为 oldPassword 时更新，用于登录时升级密码哈希，不会覆盖并发的密码重置
+     *
+     * @return 更新的行数
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newPassword where u.id = :id and u.password = :oldPassword")
+    int compareAndSetPassword(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                              @Param("newPassword") String newPassword);
+
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.softwareengineering.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 读写分离路由：只读事务使用从库，其余使用主库
+ * <p>
+ * 需要包装在 {@link LazyConnectionDataSourceProxy} 中使用，事务开始时还没有设置只读标记，
+ * 要等到执行第一条语句获取连接时才能判断。
+ * <p>
+ * 在 {@link #beginPrimaryStickiness()} 和 {@link #clearPrimaryStickiness()} 之间(一个请求内)执行过写事务后，
+ * 之后的只读事务也使用主库，保证同一请求读到自己刚写入的数据。范围之外(定时任务、邮件发送、导入等后台线程)
+ * 写入不会把线程固定到主库，需要读到自己写入的只读查询使用 {@link #usePrimary}。
+ * 从库不可用时回退到主库，由 {@link #checkReplica()} 定期恢复
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * 未设置表示不在粘滞范围内，FALSE表示范围内尚未写入，TRUE表示已写入
+     */
+    private static final ThreadLocal<Boolean> PRIMARY_STICKY = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    /**
+     * 健康检查中校验连接的超时秒数
+     */
+    private final int validationTimeoutSeconds;
+
+    private volatile boolean replicaHealthy = true;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration validationTimeout) {
+        this.primary = primary;
+        this.replica = replica;
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * 在主库上执行，用于不能容忍复制延迟的只读查询
+     */
+    public static <T> T usePrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    /**
+     * 请求开始时进入粘滞范围，之后的写事务使当前线程的只读事务改用主库
+     */
+    public static void beginPrimaryStickiness() {
+        PRIMARY_STICKY.set(Boolean.FALSE);
+    }
+
+    /**
+     * 请求结束时退出粘滞范围，清除当前线程的主库粘滞标记
+     */
+    public static void clearPrimaryStickiness() {
+        PRIMARY_STICKY.remove();
+    }
+
+    public boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+
+    /**
+     * 校验从库连接并更新健康状态
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval:5s}")
+    public void checkReplica() {
+        boolean healthy;
+        try (Connection connection = replica.getConnection()) {
+            healthy = connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        if (healthy != replicaHealthy) {
+            if (healthy) {
+                log.info("从库已恢复，只读事务重新使用从库");
+            } else {
+                log.warn("从库不可用，只读事务回退到主库");
+            }
+            replicaHealthy = healthy;
+        }
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (PRIMARY_STICKY.get() != null) {
+                PRIMARY_STICKY.set(Boolean.TRUE);
+            }
+            return Route.PRIMARY;
+        }
+        boolean primary = FORCE_PRIMARY.get() != null || Boolean.TRUE.equals(PRIMARY_STICKY.get());
+        return replicaHealthy && !primary ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaUnavailable(e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return replica.getConnection(username, password);
+        } catch (SQLException e) {
+            replicaUnavailable(e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    private void replicaUnavailable(SQLException e) {
+        if (replicaHealthy) {
+            log.warn("从库获取连接失败，只读事务回退到主库：{}", e.getMessage());
+            replicaHealthy = false;
+        }
+    }
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+}
@@ -1,6 +1,6 @@
 package com.softwareengineering.entity;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
+import com.softwareengineering.cache.UserCacheEvictionListener;
 import java.time.Instant;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -9,13 +9,14 @@ import lombok.Setter;
 import lombok.ToString;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
-import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
 
 @AllArgsConstructor
 @NoArgsConstructor
@@ -23,9 +24,17 @@ import jakarta.persistence.Transient;
 @Setter
 @ToString
 @Entity
-@Table(name = "user")
+@EntityListeners(UserCacheEvictionListener.class)
+@Table(name = "user", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_UNIQUE_INDEX, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_UNIQUE_INDEX, columnNames = "email")
+})
 public class User {
 
+    public static final String USERNAME_UNIQUE_INDEX = "user_username_uindex";
+
+    public static final String EMAIL_UNIQUE_INDEX = "user_email_uindex";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", nullable = false)
@@ -49,10 +58,6 @@ public class User {
     @Column(name = "last_modify_date", nullable = false)
     private Instant lastModifyDate = Instant.now();
 
-    @Transient
-    @JsonInclude(JsonInclude.Include.NON_NULL)
-    private String sessionId;
-
     @PrePersist
     public void prePersist() {
         if (registerDate == null) {
@@ -0,0 +1,10 @@
+package com.softwareengineering.event;
+
+/**
+ * 新用户写入数据库后发布(注册或批量导入)，用于维护内存索引等派生数据
+ *
+ * @param username 用户名
+ * @param email 邮箱
+ */
+public record UserCreatedEvent(String username, String email) {
+}
@@ -1,21 +1,49 @@
 package com.softwareengineering.exception;
 
 import com.softwareengineering.common.ResultCode;
+import java.util.EnumMap;
+import java.util.Map;
 import lombok.Getter;
 
+/**
+ * 预期内的业务失败(密码错误、验证码错误、限流等)，不记录堆栈
+ * <p>
+ * 固定错误码使用 {@link #of(ResultCode)} 返回的共享实例，抛出时不分配对象；
+ * 包装意外异常时使用带 cause 的构造方法，保留完整堆栈
+ */
 @Getter
 public class BusinessException extends RuntimeException {
 
+    private static final Map<ResultCode, BusinessException> SHARED = new EnumMap<>(ResultCode.class);
+
+    static {
+        for (ResultCode resultCode : ResultCode.values()) {
+            SHARED.put(resultCode, new BusinessException(resultCode));
+        }
+    }
+
     private final ResultCode resultCode;
 
     public BusinessException(ResultCode resultCode) {
-        super(resultCode.getMessage());
-        this.resultCode = resultCode;
+        this(resultCode, resultCode.getMessage());
     }
 
     public BusinessException(ResultCode resultCode, String message) {
-        super(message);
+        // 不填充堆栈、不记录被抑制的异常，cause 固定为null，共享实例抛出后不会被修改
+        super(message, null, false, false);
         this.resultCode = resultCode;
     }
 
-}
\ No newline at end of file
+    public BusinessException(ResultCode resultCode, String message, Throwable cause) {
+        super(message, cause);
+        this.resultCode = resultCode;
+    }
+
+    /**
+     * @return 该错误码的共享实例，消息为错误码的默认消息
+     */
+    public static BusinessException of(ResultCode resultCode) {
+        return SHARED.get(resultCode);
+    }
+
+}
@@ -2,6 +2,12 @@ package com.softwareengineering.exception;
 
 import com.softwareengineering.common.Result;
 import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.config.ExceptionLogProperties;
+import com.softwareengineering.util.LogSampler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -9,41 +15,74 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import jakarta.validation.ConstraintViolationException;
 
+/**
+ * 业务异常和参数校验失败按错误码计数(business.exceptions)，日志按错误码限频抽样；
+ * 意外异常和包装了 cause 的业务异常记录完整堆栈
+ */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final Map<ResultCode, Counter> counters = new EnumMap<>(ResultCode.class);
+
+    private final LogSampler logSampler;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry, ExceptionLogProperties properties) {
+        for (ResultCode resultCode : ResultCode.values()) {
+            counters.put(resultCode, Counter.builder("business.exceptions")
+                    .tag("code", resultCode.name())
+                    .register(meterRegistry));
+        }
+        this.logSampler = new LogSampler(properties.getWindow(), properties.getBurst(), properties.getSampleEvery());
+    }
+
     @ExceptionHandler(BusinessException.class)
     public Result<Void> handleBusinessException(BusinessException e) {
-        log.warn("业务异常：{}", e.getMessage());
+        if (e.getCause() != null) {
+            counters.get(e.getResultCode()).increment();
+            log.error("业务异常：{}", e.getMessage(), e);
+        } else {
+            warn(e.getResultCode(), "业务异常", e.getMessage());
+        }
         return Result.error(e.getResultCode(), e.getMessage());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Result<Void> handleValidException(MethodArgumentNotValidException e) {
         String message = e.getBindingResult().getAllErrors().getFirst().getDefaultMessage();
-        log.warn("参数校验异常：{}", message);
+        warn(ResultCode.PARAM_ERROR, "参数校验异常", message);
         return Result.error(ResultCode.PARAM_ERROR, message);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
     public Result<Void> handleConstraintViolationException(ConstraintViolationException e) {
         String message = e.getConstraintViolations().iterator().next().getMessage();
-        log.warn("参数校验异常：{}", message);
+        warn(ResultCode.PARAM_ERROR, "参数校验异常", message);
         return Result.error(ResultCode.PARAM_ERROR, message);
     }
 
     @ExceptionHandler(BindException.class)
     public Result<Void> handleBindException(BindException e) {
         String message = e.getAllErrors().getFirst().getDefaultMessage();
-        log.warn("参数绑定异常：{}", message);
+        warn(ResultCode.PARAM_ERROR, "参数绑定异常", message);
         return Result.error(ResultCode.PARAM_ERROR, message);
     }
 
     @ExceptionHandler(Exception.class)
     public Result<Void> handleException(Exception e) {
+        counters.get(ResultCode.SYSTEM_ERROR).increment();
         log.error("系统异常：", e);
         return Result.error(ResultCode.SYSTEM_ERROR);
     }
 
-}
\ No newline at end of file
+    private void warn(ResultCode resultCode, String type, String message) {
+        counters.get(resultCode).increment();
+        long skipped = logSampler.acquire(resultCode);
+        if (skipped == 0) {
+            log.warn("{}：{}", type, message);
+        } else if (skipped > 0) {
+            log.warn("{}：{}(省略了{}条相同错误码的日志)", type, message, skipped);
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.softwareengineering.filter;
+
+import com.softwareengineering.datasource.ReadWriteRoutingDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 以请求为主库粘滞的范围，读写分离只在同一请求内保证读到自己的写入，请求结束时清除
+ */
+public class PrimaryStickinessFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadWriteRoutingDataSource.beginPrimaryStickiness();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.clearPrimaryStickiness();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.softwareengineering.filter;
+
+import com.softwareengineering.common.Result;
+import com.softwareengineering.common.ResultJsonEncoder;
+import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.config.AdminProperties;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.service.SessionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 会话认证过滤器
+ * <p>
+ * 携带 X-Session-Id 的请求都会校验会话，有效时刷新会话有效期并将用户ID放入请求属性 {@link #USER_ID_ATTRIBUTE}；
+ * app.session.protected-paths 中的接口没有有效会话时返回401，其余接口照常处理。
+ * app.admin.paths 中的接口另外要求用户ID在 app.admin.user-ids 中，否则返回403
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String SESSION_HEADER = "X-Session-Id";
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final SessionService sessionService;
+
+    private final SessionProperties sessionProperties;
+
+    private final AdminProperties adminProperties;
+
+    private final ResultJsonEncoder resultJsonEncoder;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !StringUtils.hasText(request.getHeader(SESSION_HEADER))
+                && !matches(sessionProperties.getProtectedPaths(), request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String sessionId = request.getHeader(SESSION_HEADER);
+        Long userId = StringUtils.hasText(sessionId) ? sessionService.resolve(sessionId) : null;
+        if (matches(sessionProperties.getProtectedPaths(), request)) {
+            if (userId == null) {
+                reject(response, ResultCode.UNAUTHORIZED);
+                return;
+            }
+            if (matches(adminProperties.getPaths(), request) && !adminProperties.getUserIds().contains(userId)) {
+                reject(response, ResultCode.FORBIDDEN);
+                return;
+            }
+        }
+        if (userId != null) {
+            sessionService.touch(sessionId, userId);
+            request.setAttribute(USER_ID_ATTRIBUTE, userId);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean matches(List<String> patterns, HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return patterns.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    private void reject(HttpServletResponse response, ResultCode resultCode) throws IOException {
+        response.setStatus(resultCode.getCode());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resultJsonEncoder.write(Result.error(resultCode), response.getOutputStream());
+    }
+
+}
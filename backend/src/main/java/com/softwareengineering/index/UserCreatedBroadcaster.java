@@ -0,0 +1,73 @@
+package com.softwareengineering.index;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.event.UserCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * 将本节点创建的用户通过Redis pub/sub广播给所有节点，追加到各节点的内存索引
+ * <p>
+ * 否则其他节点的布隆过滤器在下次重建前会把已被占用的用户名判定为一定不存在，搜索索引也查不到新用户。
+ * 本节点也会收到自己的消息，重复追加没有副作用；连接断开期间丢失的消息在下次重建时补齐，
+ * 这期间注册仍由数据库唯一索引保证不重复。memory 会话模式只有一个节点，本地事件已足够，不创建广播
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression(SessionProperties.SHARED_MODE)
+public class UserCreatedBroadcaster implements MessageListener {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserExistenceIndex userExistenceIndex;
+
+    private final UserSearchIndex userSearchIndex;
+
+    public UserCreatedBroadcaster(StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  ObjectMapper objectMapper,
+                                  UserExistenceIndex userExistenceIndex,
+                                  UserSearchIndex userSearchIndex) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.userExistenceIndex = userExistenceIndex;
+        this.userSearchIndex = userSearchIndex;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CommonConstants.Redis.USER_CREATED_CHANNEL));
+    }
+
+    @EventListener
+    public void onUserCreated(UserCreatedEvent event) {
+        try {
+            redisTemplate.convertAndSend(CommonConstants.Redis.USER_CREATED_CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            // 用户已写入数据库，广播失败不影响注册结果
+            log.warn("新用户广播失败：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        UserCreatedEvent event;
+        try {
+            event = objectMapper.readValue(message.getBody(), UserCreatedEvent.class);
+        } catch (Exception e) {
+            log.warn("新用户广播解析失败：{}", e.getMessage());
+            return;
+        }
+        userExistenceIndex.add(event.username(), event.email());
+        userSearchIndex.add(event.username(), event.email());
+    }
+
+}
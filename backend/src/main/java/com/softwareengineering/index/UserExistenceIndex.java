@@ -0,0 +1,165 @@
+package com.softwareengineering.index;
+
+import com.softwareengineering.config.UserIndexProperties;
+import com.softwareengineering.dao.UserIdentity;
+import com.softwareengineering.dao.UserRepository;
+import com.softwareengineering.event.UserCreatedEvent;
+import com.softwareengineering.util.BloomFilter;
+import com.softwareengineering.util.CollationKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 用户名/邮箱存在性索引
+ * <p>
+ * 启动后在后台流式读取user表构建布隆过滤器，注册时实时追加，其他节点注册的用户由 {@link UserCreatedBroadcaster} 追加。
+ * 过滤器判定不存在时无需查询数据库；判定可能存在、索引尚未构建完成或取值无法折叠为ASCII时回源数据库
+ */
+@Slf4j
+@Component
+public class UserExistenceIndex {
+
+    private static final long MIN_CAPACITY = 100_000;
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final UserIndexProperties properties;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final Counter negativeChecks;
+
+    private final Counter fallthroughChecks;
+
+    /**
+     * 当前生效的过滤器，构建完成前为null
+     */
+    private volatile Filters filters;
+
+    /**
+     * 重建中的过滤器，重建期间的注册同时写入
+     */
+    private volatile Filters building;
+
+    public UserExistenceIndex(UserRepository userRepository,
+                              PlatformTransactionManager transactionManager,
+                              UserIndexProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.negativeChecks = Counter.builder("user.index.checks").tag("result", "negative").register(meterRegistry);
+        this.fallthroughChecks = Counter.builder("user.index.checks").tag("result", "fallthrough").register(meterRegistry);
+        Gauge.builder("user.index.memory", this, index -> index.filters == null ? 0 : index.filters.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false表示用户名一定不存在
+     */
+    public boolean mightContainUsername(String username) {
+        return mightContain(Filters::usernames, username);
+    }
+
+    /**
+     * @return false表示邮箱一定不存在
+     */
+    public boolean mightContainEmail(String email) {
+        return mightContain(Filters::emails, email);
+    }
+
+    public void add(String username, String email) {
+        Filters current = filters;
+        if (current != null) {
+            current.add(username, email);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.add(username, email);
+        }
+    }
+
+    @EventListener
+    public void onUserCreated(UserCreatedEvent event) {
+        add(event.username(), event.email());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("user-index-build").start(this::rebuild);
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-index.rebuild-interval:6h}", initialDelayString = "${app.user-index.rebuild-interval:6h}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long expected = Math.max(MIN_CAPACITY, userRepository.count() * 2);
+            Filters next = new Filters(
+                    new BloomFilter(expected, properties.getFalsePositiveRate()),
+                    new BloomFilter(expected, properties.getFalsePositiveRate()));
+            building = next;
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserIdentity> identities = userRepository.streamAllIdentities()) {
+                    identities.forEach(identity -> next.add(identity.getUsername(), identity.getEmail()));
+                }
+            });
+            filters = next;
+            log.info("用户存在性索引构建完成，容量：{}，内存：{}KB，耗时：{}ms",
+                    expected, next.sizeInBytes() / 1024, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("用户存在性索引构建失败", e);
+        } finally {
+            building = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    private boolean mightContain(Function<Filters, BloomFilter> selector, String value) {
+        Filters current = filters;
+        String normalized = CollationKeys.normalize(value);
+        if (current == null || normalized == null || selector.apply(current).mightContain(normalized)) {
+            fallthroughChecks.increment();
+            return true;
+        }
+        negativeChecks.increment();
+        return false;
+    }
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+
+        void add(String username, String email) {
+            String normalizedUsername = CollationKeys.normalize(username);
+            if (normalizedUsername != null) {
+                usernames.put(normalizedUsername);
+            }
+            String normalizedEmail = CollationKeys.normalize(email);
+            if (normalizedEmail != null) {
+                emails.put(normalizedEmail);
+            }
+        }
+
+        long sizeInBytes() {
+            return usernames.sizeInBytes() + emails.sizeInBytes();
+        }
+
+    }
+
+}
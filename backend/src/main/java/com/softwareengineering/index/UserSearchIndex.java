@@ -0,0 +1,230 @@
+package com.softwareengineering.index;
+
+import com.softwareengineering.config.UserSearchProperties;
+import com.softwareengineering.dao.UserIdentity;
+import com.softwareengineering.dao.UserRepository;
+import com.softwareengineering.event.UserCreatedEvent;
+import com.softwareengineering.util.CollationKeys;
+import com.softwareengineering.util.PrefixIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 按用户名、邮箱前缀搜索用户的内存索引
+ * <p>
+ * 启动后在后台流式读取user表构建不可变的 {@link PrefixIndex}，注册的用户(含其他节点通过 {@link UserCreatedBroadcaster} 广播的)
+ * 追加到有序的增量表中，
+ * 定期重建时合并。键为按排序规则折叠后的取值，与数据库的比较规则一致；无法折叠的取值不进入索引。
+ * 索引未构建完成或超出内存上限时返回null，由调用方回退到数据库前缀查询
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    /**
+     * 增量表键中分隔折叠后取值和用户名的字符，同一取值可以对应多个用户名
+     */
+    private static final char KEY_DELIMITER = '\0';
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final UserSearchProperties properties;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final Timer searchTimer;
+
+    /**
+     * 当前生效的索引，构建完成前为null
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 重建中使用的增量表，重建期间的注册同时写入
+     */
+    private volatile Map<String, String> building;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           PlatformTransactionManager transactionManager,
+                           UserSearchProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.searchTimer = Timer.builder("user.search").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        Gauge.builder("user.search.memory", this, index -> index.snapshot == null ? 0 : index.snapshot.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("user.search.memory.budget", properties, p -> p.getMemoryBudget().toBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("user.search.entries", this, index -> index.snapshot == null ? 0 : index.snapshot.size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按前缀搜索，完全匹配优先，其次匹配的取值越短越靠前
+     *
+     * @param keyword 用户名或邮箱的开头部分
+     * @param limit 最多返回的用户数
+     * @return 匹配的用户名；索引不可用或关键字无法折叠时返回null
+     */
+    public List<String> search(String keyword, int limit) {
+        Snapshot current = snapshot;
+        String prefix = CollationKeys.normalize(keyword);
+        if (current == null || prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        return searchTimer.record(() -> {
+            List<Match> matches = new ArrayList<>();
+            current.index().forEachWithPrefix(prefix, properties.getMaxCandidates(),
+                    (key, username) -> matches.add(new Match(key, username)));
+            for (Map.Entry<String, String> entry : current.recent().subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+                if (matches.size() >= 2 * properties.getMaxCandidates()) {
+                    break;
+                }
+                String key = entry.getKey();
+                matches.add(new Match(key.substring(0, key.indexOf(KEY_DELIMITER)), entry.getValue()));
+            }
+            matches.sort(Comparator.comparing((Match match) -> !match.key().equals(prefix))
+                    .thenComparingInt(match -> match.key().length())
+                    .thenComparing(Match::key));
+
+            // 同一用户的用户名和邮箱可能都匹配，只保留排名靠前的一次
+            Set<String> usernames = new LinkedHashSet<>();
+            for (int i = 0; i < matches.size() && usernames.size() < limit; i++) {
+                usernames.add(matches.get(i).username());
+            }
+            return List.copyOf(usernames);
+        });
+    }
+
+    public void add(String username, String email) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            addTo(current.recent(), username, email);
+        }
+        Map<String, String> next = building;
+        if (next != null) {
+            addTo(next, username, email);
+        }
+    }
+
+    @EventListener
+    public void onUserCreated(UserCreatedEvent event) {
+        add(event.username(), event.email());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (properties.isEnabled()) {
+            Thread.ofVirtual().name("user-search-build").start(this::rebuild);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-search.rebuild-interval:6h}", initialDelayString = "${app.user-search.rebuild-interval:6h}")
+    public void rebuild() {
+        if (!properties.isEnabled() || !rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long budget = properties.getMemoryBudget().toBytes();
+            ConcurrentSkipListMap<String, String> recent = new ConcurrentSkipListMap<>();
+            building = recent;
+            PrefixIndex.Builder builder = PrefixIndex.builder();
+            AtomicLong rows = new AtomicLong();
+            boolean withinBudget = Boolean.TRUE.equals(readOnlyTransaction.execute(status -> {
+                try (Stream<UserIdentity> identities = userRepository.streamAllIdentities()) {
+                    return identities.allMatch(identity -> {
+                        addTo(builder, identity.getUsername(), identity.getEmail());
+                        // 每1024行检查一次内存上限
+                        return (rows.incrementAndGet() & 1023) != 0 || builder.sizeInBytes() <= budget;
+                    });
+                }
+            }));
+            if (!withinBudget || builder.sizeInBytes() > budget) {
+                snapshot = null;
+                log.error("用户搜索索引超出内存上限{}，已放弃构建，搜索回退到数据库", properties.getMemoryBudget());
+                return;
+            }
+            PrefixIndex index = builder.build();
+            snapshot = new Snapshot(index, recent);
+            log.info("用户搜索索引构建完成，条目：{}，内存：{}KB，耗时：{}ms",
+                    index.size(), index.sizeInBytes() / 1024, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("用户搜索索引构建失败", e);
+        } finally {
+            building = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    private static void addTo(PrefixIndex.Builder builder, String username, String email) {
+        String normalizedUsername = CollationKeys.normalize(username);
+        if (normalizedUsername != null) {
+            // 用户名本身已是小写ASCII时复用同一个实例
+            builder.add(normalizedUsername.equals(username) ? username : normalizedUsername, username);
+        }
+        String normalizedEmail = CollationKeys.normalize(email);
+        if (normalizedEmail != null) {
+            builder.add(normalizedEmail, username);
+        }
+    }
+
+    private static void addTo(Map<String, String> recent, String username, String email) {
+        String normalizedUsername = CollationKeys.normalize(username);
+        if (normalizedUsername != null) {
+            recent.put(normalizedUsername + KEY_DELIMITER + username, username);
+        }
+        String normalizedEmail = CollationKeys.normalize(email);
+        if (normalizedEmail != null) {
+            recent.put(normalizedEmail + KEY_DELIMITER + username, username);
+        }
+    }
+
+    /**
+     * @param recent 构建开始后注册的用户，与 index 可能有重复，搜索时去重
+     */
+    private record Snapshot(PrefixIndex index, ConcurrentSkipListMap<String, String> recent) {
+
+        long sizeInBytes() {
+            long recentBytes = 0;
+            for (Map.Entry<String, String> entry : recent.entrySet()) {
+                // 跳表节点和索引节点约64字节
+                recentBytes += 64 + PrefixIndex.estimateSize(entry.getKey());
+            }
+            return index.sizeInBytes() + recentBytes;
+        }
+
+        long size() {
+            return index.size() + recent.size();
+        }
+
+    }
+
+    private record Match(String key, String username) {
+    }
+
+}
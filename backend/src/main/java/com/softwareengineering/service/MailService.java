@@ -0,0 +1,14 @@
+package com.softwareengineering.service;
+
+public interface MailService {
+
+    /**
+     * 将邮件写入发件箱，由后台异步发送
+     *
+     * @param to 收件人
+     * @param subject 主题
+     * @param text 正文
+     */
+    void send(String to, String subject, String text);
+
+}
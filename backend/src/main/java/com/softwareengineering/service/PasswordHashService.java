@@ -0,0 +1,27 @@
+package com.softwareengineering.service;
+
+/**
+ * 密码哈希服务，开销大的哈希计算在独立的有界线程池中执行
+ */
+public interface PasswordHashService {
+
+    /**
+     * 使用当前的 Argon2 参数生成密码记录
+     *
+     * @throws com.softwareengineering.exception.BusinessException 线程池饱和时抛出 SERVER_BUSY
+     */
+    String hash(String plainPassword);
+
+    /**
+     * 验证密码，兼容所有版本的密码记录
+     *
+     * @throws com.softwareengineering.exception.BusinessException 线程池饱和时抛出 SERVER_BUSY
+     */
+    boolean verify(String storedPassword, String plainPassword);
+
+    /**
+     * 记录是否应在验证成功后用当前参数重新哈希
+     */
+    boolean needsRehash(String storedPassword);
+
+}
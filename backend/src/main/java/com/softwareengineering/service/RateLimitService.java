@@ -0,0 +1,29 @@
+package com.softwareengineering.service;
+
+import java.util.Map;
+
+public interface RateLimitService {
+
+    String VERIFICATION_CODE = "verification-code";
+
+    String LOGIN = "login";
+
+    String EMAIL = "email";
+
+    /**
+     * 用户名和IP的组合(用户名|IP)，同一账号在不同IP上的尝试互不影响，他人无法通过反复失败锁定该账号
+     */
+    String USERNAME_IP = "username-ip";
+
+    String IP = "ip";
+
+    /**
+     * 为一次请求在各维度的令牌桶中各取一个令牌，任一维度超限时抛出
+     * {@link com.softwareengineering.common.ResultCode#TOO_MANY_REQUESTS}
+     *
+     * @param endpoint 接口
+     * @param subjects 维度 -> 取值，如 email -> a@b.com；取值按数据库排序规则折叠，大小写和重音不同的取值共用一个令牌桶
+     */
+    void acquire(String endpoint, Map<String, String> subjects);
+
+}
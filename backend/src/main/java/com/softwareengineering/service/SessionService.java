@@ -0,0 +1,45 @@
+package com.softwareengineering.service;
+
+public interface SessionService {
+
+    /**
+     * 为用户创建新会话
+     *
+     * @param userId 用户ID
+     * @return 会话ID
+     */
+    String create(Long userId);
+
+    /**
+     * 解析会话对应的用户
+     *
+     * @param sessionId 会话ID
+     * @return 用户ID，会话不存在或已过期时返回null
+     */
+    Long resolve(String sessionId);
+
+    /**
+     * 记录一次会话访问，用于滑动过期
+     *
+     * @param sessionId 会话ID
+     * @param userId 用户ID
+     */
+    default void touch(String sessionId, Long userId) {
+    }
+
+    /**
+     * 删除单个会话
+     *
+     * @param sessionId 会话ID
+     * @return 会话存在并已删除时返回true
+     */
+    boolean remove(String sessionId);
+
+    /**
+     * 删除用户的全部会话
+     *
+     * @param userId 用户ID
+     */
+    void removeAll(Long userId);
+
+}
@@ -0,0 +1,32 @@
+package com.softwareengineering.service;
+
+import com.softwareengineering.vo.UserImportReportVO;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    enum Format {
+
+        /**
+         * 逗号分隔：username,password,email,sex，首行可以是表头
+         */
+        CSV,
+
+        /**
+         * 每行一个JSON对象，字段同 {@link com.softwareengineering.vo.UserImportRowVO}
+         */
+        NDJSON
+
+    }
+
+    /**
+     * 流式导入用户，单行失败(格式错误、用户名或邮箱重复)只记录在报告中，不影响其他行
+     *
+     * @param input 文件内容
+     * @param format 文件格式
+     * @return 导入报告
+     */
+    UserImportReportVO importUsers(InputStream input, Format format) throws IOException;
+
+}
@@ -0,0 +1,38 @@
+package com.softwareengineering.service;
+
+import com.softwareengineering.vo.UserPageVO;
+import com.softwareengineering.vo.UserQueryVO;
+import com.softwareengineering.vo.UserSummaryVO;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface UserQueryService {
+
+    /**
+     * 按ID游标分页查询用户
+     *
+     * @param query 查询条件
+     * @return 一页用户，按ID升序
+     */
+    UserPageVO list(UserQueryVO query);
+
+    /**
+     * 按用户名或邮箱前缀搜索用户，完全匹配优先，其次匹配的取值越短越靠前
+     *
+     * @param keyword 用户名或邮箱的开头部分
+     * @param limit 最多返回的用户数
+     */
+    List<UserSummaryVO> search(String keyword, int limit);
+
+    /**
+     * 流式导出符合条件的全部用户，边读边写入输出流
+     *
+     * @param query 查询条件，忽略 limit
+     * @param format 输出格式，CSV首行为表头
+     * @param output 输出流，不会关闭
+     * @return 导出的行数
+     */
+    long export(UserQueryVO query, UserImportService.Format format, OutputStream output) throws IOException;
+
+}
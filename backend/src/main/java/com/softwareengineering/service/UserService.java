@@ -1,6 +1,6 @@
 package com.softwareengineering.service;
 
-import com.softwareengineering.entity.User;
+import com.softwareengineering.vo.LoginResultVO;
 import com.softwareengineering.vo.UserLoginVO;
 import com.softwareengineering.vo.UserRegisterVO;
 
@@ -8,12 +8,16 @@ public interface UserService {
 
     void register(UserRegisterVO registerVO);
 
-    User login(UserLoginVO loginVO);
+    boolean isUsernameAvailable(String username);
+
+    LoginResultVO login(UserLoginVO loginVO);
 
     void sendVerificationCode(String email);
 
     void logout(String sessionId);
 
+    void logoutAll(String sessionId);
+
     void resetPassword(String email, String verificationCode, String newPassword);
 
 }
\ No newline at end of file
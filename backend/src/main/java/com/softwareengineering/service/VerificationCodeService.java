@@ -0,0 +1,42 @@
+package com.softwareengineering.service;
+
+import java.time.Duration;
+
+/**
+ * 验证码存储，按邮箱保存
+ */
+public interface VerificationCodeService {
+
+    /**
+     * 保存验证码，覆盖该邮箱之前的验证码
+     *
+     * @param email 邮箱
+     * @param code 验证码
+     * @param ttl 有效期
+     */
+    void save(String email, String code, Duration ttl);
+
+    /**
+     * 验证码一致时原子地删除，不一致时不删除
+     *
+     * @param email 邮箱
+     * @param code 验证码
+     * @return 删除前的剩余有效期(毫秒)，-1表示未设置过期；不一致或不存在时返回null
+     */
+    Long consume(String email, String code);
+
+    /**
+     * 归还 {@link #consume} 删除的验证码，该邮箱已有新的验证码时不覆盖
+     *
+     * @param remainingMillis {@link #consume} 返回的剩余有效期，为0时不归还
+     */
+    void restore(String email, String code, long remainingMillis);
+
+    /**
+     * @return 验证码存在且一致时返回true
+     */
+    boolean matches(String email, String code);
+
+    void remove(String email);
+
+}
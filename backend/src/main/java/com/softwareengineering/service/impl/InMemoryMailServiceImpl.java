@@ -0,0 +1,147 @@
+package com.softwareengineering.service.impl;
+
+import com.softwareengineering.config.MailDispatcherProperties;
+import com.softwareengineering.service.MailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+/**
+ * 进程内的异步邮件发送，只适用于单节点部署，与 memory 会话模式一起启用
+ * <p>
+ * 请求线程只把邮件放入内存队列；后台虚拟线程批量取出发送，同一批复用一个SMTP连接。
+ * 失败的邮件到退避时间后再放回队列，不占用发送线程，超过次数后放弃。
+ * 队列不持久化，进程退出时尚未发送的邮件会丢失，验证码可以重新获取
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.session", name = "mode", havingValue = "memory")
+public class InMemoryMailServiceImpl implements MailService, SmartLifecycle {
+
+    private final MailBatchSender mailSender;
+
+    private final MailDispatcherProperties properties;
+
+    private final BlockingQueue<PendingMail> queue = new LinkedBlockingQueue<>();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Counter sentCounter;
+
+    private final Counter failedCounter;
+
+    /**
+     * 到退避时间后把失败的邮件放回队列
+     */
+    private ScheduledExecutorService retryScheduler;
+
+    private volatile boolean running;
+
+    public InMemoryMailServiceImpl(JavaMailSender mailSender,
+                                   MailDispatcherProperties properties,
+                                   MeterRegistry meterRegistry,
+                                   ObservationRegistry observationRegistry) {
+        this.mailSender = new MailBatchSender(mailSender, observationRegistry);
+        this.properties = properties;
+        this.sentCounter = Counter.builder("mail.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.failed").register(meterRegistry);
+    }
+
+    @Override
+    public void send(String to, String subject, String text) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+        queue.add(new PendingMail(message, 1, properties.getInitialBackoff()));
+    }
+
+    @Override
+    public void start() {
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("mail-retry").factory());
+        running = true;
+        for (int i = 0; i < properties.getConcurrency(); i++) {
+            workers.add(Thread.ofVirtual().name("mail-dispatcher-" + i).start(this::poll));
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+        retryScheduler.shutdownNow();
+        if (!queue.isEmpty()) {
+            log.warn("进程退出，{}封邮件未发送", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void poll() {
+        List<PendingMail> batch = new ArrayList<>(properties.getBatchSize());
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("邮件发送处理失败", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<PendingMail> batch) {
+        Map<SimpleMailMessage, PendingMail> pending = new IdentityHashMap<>(batch.size());
+        batch.forEach(mail -> pending.put(mail.message(), mail));
+        List<SimpleMailMessage> failed = mailSender.send(batch.stream().map(PendingMail::message).toList());
+        sentCounter.increment(batch.size() - failed.size());
+        int retried = 0;
+        for (SimpleMailMessage message : failed) {
+            PendingMail mail = pending.get(message);
+            if (mail.attempt() >= properties.getMaxAttempts()) {
+                log.error("邮件多次发送失败，已放弃：{}", String.join(",", message.getTo()));
+                failedCounter.increment();
+                continue;
+            }
+            PendingMail retry = new PendingMail(message, mail.attempt() + 1, properties.nextBackoff(mail.backoff()));
+            retryScheduler.schedule(() -> queue.add(retry), mail.backoff().toMillis(), TimeUnit.MILLISECONDS);
+            retried++;
+        }
+        if (retried > 0) {
+            log.warn("{}封邮件发送失败，稍后重试", retried);
+        }
+    }
+
+    /**
+     * @param attempt 本次是第几次尝试
+     * @param backoff 本次失败后的退避时间
+     */
+    private record PendingMail(SimpleMailMessage message, int attempt, Duration backoff) {
+    }
+
+}
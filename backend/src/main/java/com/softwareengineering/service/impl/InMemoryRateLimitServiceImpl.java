@@ -0,0 +1,145 @@
+package com.softwareengineering.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.config.RateLimitProperties;
+import com.softwareengineering.exception.BusinessException;
+import com.softwareengineering.service.RateLimitService;
+import com.softwareengineering.util.CollationKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * 进程内的令牌桶限流，只适用于单节点部署，与 memory 会话模式一起启用
+ * <p>
+ * 与Redis令牌桶脚本的语义相同：一次请求涉及的所有令牌桶都有令牌时各扣一个，否则都不扣。
+ * 涉及的令牌桶按键的顺序加锁，并发请求不会死锁；桶在补满所需的时间内未被访问后过期
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.session", name = "mode", havingValue = "memory")
+public class InMemoryRateLimitServiceImpl implements RateLimitService {
+
+    private final RateLimitProperties properties;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Counter rejections;
+
+    public InMemoryRateLimitServiceImpl(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMemory().getMaximumSize())
+                .expireAfter(new RefillExpiry())
+                .build();
+        this.rejections = Counter.builder("rate.limit.rejections").tag("source", "local").register(meterRegistry);
+    }
+
+    @Override
+    public void acquire(String endpoint, Map<String, String> subjects) {
+        Map<String, RateLimitProperties.Bucket> configs = properties.getEndpoints().get(endpoint);
+        if (!properties.isEnabled() || configs == null) {
+            return;
+        }
+
+        Map<String, RateLimitProperties.Bucket> keys = new TreeMap<>();
+        for (Map.Entry<String, String> subject : subjects.entrySet()) {
+            RateLimitProperties.Bucket config = configs.get(subject.getKey());
+            if (config != null && subject.getValue() != null) {
+                keys.put(endpoint + ":" + subject.getKey() + ":" + CollationKeys.normalizeOrLowerCase(subject.getValue()), config);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        List<TokenBucket> locked = new ArrayList<>(keys.size());
+        try {
+            for (Map.Entry<String, RateLimitProperties.Bucket> entry : keys.entrySet()) {
+                TokenBucket bucket = buckets.get(entry.getKey(), key -> new TokenBucket(entry.getValue()));
+                bucket.lock.lock();
+                locked.add(bucket);
+            }
+            long now = System.nanoTime();
+            for (TokenBucket bucket : locked) {
+                if (!bucket.refill(now)) {
+                    rejections.increment();
+                    throw BusinessException.of(ResultCode.TOO_MANY_REQUESTS);
+                }
+            }
+            locked.forEach(bucket -> bucket.tokens--);
+        } finally {
+            locked.forEach(bucket -> bucket.lock.unlock());
+        }
+    }
+
+    /**
+     * 最后一次访问后经过补满所需的时间过期，此时桶已补满，与不存在等价
+     */
+    private static final class RefillExpiry implements Expiry<String, TokenBucket> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenBucket bucket, long currentTime) {
+            return bucket.refillPeriod.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.refillPeriod.toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.refillPeriod.toNanos();
+        }
+
+    }
+
+    private static final class TokenBucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final int capacity;
+
+        private final Duration refillPeriod;
+
+        /**
+         * 每纳秒补充的令牌数
+         */
+        private final double refillRate;
+
+        private double tokens;
+
+        private long refilledAt;
+
+        private TokenBucket(RateLimitProperties.Bucket config) {
+            this.capacity = config.getCapacity();
+            this.refillPeriod = config.getRefillPeriod();
+            this.refillRate = (double) capacity / refillPeriod.toNanos();
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /**
+         * 按经过的时间补充令牌
+         *
+         * @return 是否至少有一个令牌
+         */
+        private boolean refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillRate);
+            refilledAt = now;
+            return tokens >= 1;
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.softwareengineering.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.service.SessionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * 会话存储在进程内，校验和登录都不访问Redis，只适用于单节点部署
+ * <p>
+ * 开启滑动过期时每次解析会话都延长有效期，不需要批量刷新；会话数上限为 app.session.memory.maximum-size，
+ * 超出时淘汰的会话需要重新登录，淘汰次数见 cache.evictions{cache=session.memory}。
+ * 过期由可变过期时间({@link Expiry})管理，Caffeine按时间轮以O(1)维护到期顺序；
+ * 系统调度线程在到期时清除会话并移除索引，不依赖后续的读写触发清理
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.session", name = "mode", havingValue = "memory")
+public class InMemorySessionServiceImpl implements SessionService {
+
+    private final Cache<String, Long> sessions;
+
+    /**
+     * 用户会话索引：userId -> sessionId集合，会话被删除、过期或淘汰时同步移除
+     */
+    private final Map<Long, Set<String>> userSessions = new ConcurrentHashMap<>();
+
+    public InMemorySessionServiceImpl(SessionProperties sessionProperties, MeterRegistry meterRegistry) {
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(sessionProperties.getMemory().getMaximumSize())
+                .expireAfter(new SessionExpiry(Duration.ofMinutes(CommonConstants.Redis.SESSION_EXPIRE).toNanos(),
+                        sessionProperties.getSliding().isEnabled()))
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .removalListener(this::onRemoval)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "session.memory");
+    }
+
+    /**
+     * 会话和索引在同一个 compute 中写入，与 {@link #removeAll} 对同一用户互斥，不会留下索引之外的会话
+     */
+    @Override
+    public String create(Long userId) {
+        String sessionId = UUID.randomUUID().toString();
+        userSessions.compute(userId, (key, sessionIds) -> {
+            Set<String> ids = sessionIds == null ? ConcurrentHashMap.newKeySet() : sessionIds;
+            ids.add(sessionId);
+            sessions.put(sessionId, userId);
+            return ids;
+        });
+        return sessionId;
+    }
+
+    @Override
+    public Long resolve(String sessionId) {
+        return sessions.getIfPresent(sessionId);
+    }
+
+    @Override
+    public boolean remove(String sessionId) {
+        Long userId = sessions.asMap().remove(sessionId);
+        if (userId == null) {
+            return false;
+        }
+        unindex(userId, sessionId);
+        return true;
+    }
+
+    @Override
+    public void removeAll(Long userId) {
+        Set<String> sessionIds = userSessions.remove(userId);
+        if (sessionIds != null) {
+            sessions.invalidateAll(sessionIds);
+        }
+    }
+
+    /**
+     * 会话过期、淘汰或被删除后移除索引
+     */
+    private void onRemoval(String sessionId, Long userId, RemovalCause cause) {
+        if (sessionId == null || userId == null) {
+            return;
+        }
+        unindex(userId, sessionId);
+    }
+
+    private void unindex(Long userId, String sessionId) {
+        userSessions.computeIfPresent(userId, (key, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
+    /**
+     * 滑动过期时每次访问重置为完整有效期，否则从创建起计算
+     */
+    private record SessionExpiry(long ttlNanos, boolean sliding) implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(String sessionId, Long userId, long currentTime) {
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String sessionId, Long userId, long currentTime, long currentDuration) {
+            return sliding ? ttlNanos : currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String sessionId, Long userId, long currentTime, long currentDuration) {
+            return sliding ? ttlNanos : currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.softwareengineering.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.softwareengineering.config.VerificationCodeProperties;
+import com.softwareengineering.service.VerificationCodeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * 验证码存储在进程内，登录和注册不访问Redis，只适用于单节点部署
+ * <p>
+ * 每个验证码按自己的截止时间过期，由 Caffeine 的分层时间轮管理，过期和淘汰都是O(1)；
+ * 条目数上限为 app.verification-code.memory.maximum-size
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.verification-code", name = "store", havingValue = "memory")
+public class InMemoryVerificationCodeServiceImpl implements VerificationCodeService {
+
+    /**
+     * 不过期的截止时间
+     */
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final Cache<String, Code> codes;
+
+    public InMemoryVerificationCodeServiceImpl(VerificationCodeProperties properties, MeterRegistry meterRegistry) {
+        this.codes = Caffeine.newBuilder()
+                .maximumSize(properties.getMemory().getMaximumSize())
+                .expireAfter(new DeadlineExpiry())
+                // 到期后由后台线程及时清除，不依赖后续读写
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, codes, "verification-code");
+    }
+
+    @Override
+    public void save(String email, String code, Duration ttl) {
+        codes.put(email, new Code(code, System.nanoTime() + ttl.toNanos()));
+    }
+
+    @Override
+    public Long consume(String email, String code) {
+        Long[] remainingMillis = {null};
+        codes.asMap().computeIfPresent(email, (key, saved) -> {
+            if (!saved.value().equals(code)) {
+                return saved;
+            }
+            remainingMillis[0] = saved.deadline() == NO_DEADLINE
+                    ? -1L
+                    : Math.max(0, TimeUnit.NANOSECONDS.toMillis(saved.deadline() - System.nanoTime()));
+            return null;
+        });
+        return remainingMillis[0];
+    }
+
+    @Override
+    public void restore(String email, String code, long remainingMillis) {
+        if (remainingMillis == 0) {
+            return;
+        }
+        long deadline = remainingMillis < 0 ? NO_DEADLINE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+        codes.asMap().putIfAbsent(email, new Code(code, deadline));
+    }
+
+    @Override
+    public boolean matches(String email, String code) {
+        Code saved = codes.getIfPresent(email);
+        return saved != null && saved.value().equals(code);
+    }
+
+    @Override
+    public void remove(String email) {
+        codes.invalidate(email);
+    }
+
+    /**
+     * @param deadline 过期时刻(System.nanoTime)
+     */
+    private record Code(String value, long deadline) {
+    }
+
+    /**
+     * 按条目的截止时间过期，读取不延长有效期
+     */
+    private static final class DeadlineExpiry implements Expiry<String, Code> {
+
+        @Override
+        public long expireAfterCreate(String key, Code value, long currentTime) {
+            return value.deadline() == NO_DEADLINE ? Long.MAX_VALUE : value.deadline() - currentTime;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Code value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Code value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
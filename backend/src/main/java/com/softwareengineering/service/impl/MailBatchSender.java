@@ -0,0 +1,61 @@
+package com.softwareengineering.service.impl;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * 一批邮件复用一个SMTP连接发送，发件箱和进程内发送共用
+ */
+@Slf4j
+final class MailBatchSender {
+
+    private final JavaMailSender mailSender;
+
+    private final ObservationRegistry observationRegistry;
+
+    MailBatchSender(JavaMailSender mailSender, ObservationRegistry observationRegistry) {
+        this.mailSender = mailSender;
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * @return 发送失败的邮件，与传入的是同一批对象
+     */
+    List<SimpleMailMessage> send(List<SimpleMailMessage> batch) {
+        // 指标 mail.send.batch，开启追踪时同时记录SMTP发送的span
+        Observation observation = Observation.createNotStarted("mail.send.batch", observationRegistry)
+                .highCardinalityKeyValue("mail.count", String.valueOf(batch.size()))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            mailSender.send(batch.toArray(SimpleMailMessage[]::new));
+            return List.of();
+        } catch (MailSendException e) {
+            observation.error(e);
+            if (e.getFailedMessages().isEmpty()) {
+                return batch;
+            }
+            List<SimpleMailMessage> failed = new ArrayList<>();
+            e.getFailedMessages().keySet().forEach(message -> {
+                if (message instanceof SimpleMailMessage simpleMailMessage) {
+                    failed.add(simpleMailMessage);
+                }
+            });
+            log.warn("邮件发送失败：{}", e.getMessage());
+            return failed.isEmpty() ? batch : failed;
+        } catch (MailException e) {
+            observation.error(e);
+            log.warn("邮件发送失败：{}", e.getMessage());
+            return batch;
+        } finally {
+            observation.stop();
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.softwareengineering.service.impl;
+
+import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.config.PasswordHashingProperties;
+import com.softwareengineering.exception.BusinessException;
+import com.softwareengineering.service.PasswordHashService;
+import com.softwareengineering.util.HexUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.observation.annotation.Observed;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+/**
+ * Argon2 密码哈希
+ * <p>
+ * 哈希在固定大小的线程池中执行，作为隔离舱：登录高峰时排队的请求有上限，超出的直接返回服务器繁忙，
+ * 不会占满请求线程拖垮其他接口。启动时按目标耗时校准迭代次数，旧版本记录在登录成功后升级
+ */
+@Slf4j
+@Service
+public class PasswordHashServiceImpl implements PasswordHashService, DisposableBean {
+
+    private static final String CALIBRATION_PASSWORD = "calibration";
+
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final PasswordHashingProperties properties;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ExecutorService monitoredExecutor;
+
+    private final Counter queueFullRejections;
+
+    private final Counter timeoutRejections;
+
+    private final HexUtil.Argon2Cost cost;
+
+    public PasswordHashServiceImpl(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        // executor.queued / executor.active / executor.completed / executor.idle(排队耗时) / executor(执行耗时)
+        this.monitoredExecutor = ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+        this.queueFullRejections = Counter.builder("password.hashing.rejections").tag("reason", "queue-full").register(meterRegistry);
+        this.timeoutRejections = Counter.builder("password.hashing.rejections").tag("reason", "timeout").register(meterRegistry);
+        this.cost = calibrate();
+    }
+
+    /**
+     * password.hash 指标包含在线程池中排队的时间，单纯的计算耗时见 password.hashing 执行器指标
+     */
+    @Override
+    @Observed(name = "password.hash")
+    public String hash(String plainPassword) {
+        return execute(() -> HexUtil.encryptAndFormat(plainPassword, cost));
+    }
+
+    @Override
+    @Observed(name = "password.hash")
+    public boolean verify(String storedPassword, String plainPassword) {
+        // 快速摘要只需几微秒，直接在当前线程计算
+        if (!HexUtil.isArgon2(storedPassword)) {
+            return HexUtil.verify(storedPassword, plainPassword);
+        }
+        return execute(() -> HexUtil.verify(storedPassword, plainPassword));
+    }
+
+    @Override
+    public boolean needsRehash(String storedPassword) {
+        return HexUtil.needsRehash(storedPassword, cost);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = monitoredExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            throw BusinessException.of(ResultCode.SERVER_BUSY);
+        }
+        try {
+            return future.get(properties.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutRejections.increment();
+            throw BusinessException.of(ResultCode.SERVER_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw BusinessException.of(ResultCode.SERVER_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private int memoryKiB() {
+        return Math.toIntExact(properties.getMemory().toKilobytes());
+    }
+
+    /**
+     * 测量单次迭代的耗时，取使单次哈希接近目标耗时的迭代次数
+     */
+    private HexUtil.Argon2Cost calibrate() {
+        if (properties.getIterations() > 0) {
+            return new HexUtil.Argon2Cost(memoryKiB(), properties.getIterations(), properties.getParallelism());
+        }
+
+        HexUtil.Argon2Cost probe = new HexUtil.Argon2Cost(memoryKiB(), 1, properties.getParallelism());
+        HexUtil.encryptAndFormat(CALIBRATION_PASSWORD, probe);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            HexUtil.encryptAndFormat(CALIBRATION_PASSWORD, probe);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int iterations = Math.clamp(properties.getTargetLatency().toNanos() / Math.max(best, 1),
+                properties.getMinIterations(), properties.getMaxIterations());
+        log.info("密码哈希参数校准完成：内存{}KiB，单次迭代{}ms，迭代次数{}",
+                memoryKiB(), Duration.ofNanos(best).toMillis(), iterations);
+        return new HexUtil.Argon2Cost(memoryKiB(), iterations, properties.getParallelism());
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.softwareengineering.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.config.RateLimitProperties;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.exception.BusinessException;
+import com.softwareengineering.service.RateLimitService;
+import com.softwareengineering.util.CollationKeys;
+import io.lettuce.core.cluster.SlotHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * 基于Redis的令牌桶限流
+ * <p>
+ * 令牌桶的键使用折叠后的取值，大小写或重音不同的用户名、邮箱不能绕过限流。
+ * 一次请求涉及的所有令牌桶由一个Lua脚本原子检查，只需一次往返；
+ * 被Redis拒绝的令牌桶在本地记住解禁时间，期间的请求直接在本地拒绝，不再访问Redis。
+ * Redis Cluster 中脚本的键必须在同一个槽，各维度的令牌桶按槽分组依次检查，
+ * 后面的组被拒绝时前面的组已扣除的令牌不退还
+ */
+@Service
+@ConditionalOnExpression(SessionProperties.SHARED_MODE)
+public class RedisRateLimitServiceImpl implements RateLimitService {
+
+    private static final String KEY_PREFIX = "rate:limit:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RateLimitProperties properties;
+
+    private final boolean cluster;
+
+    /**
+     * 本地预过滤：已知超限的令牌桶 -> 解禁时间戳(毫秒)
+     */
+    private final Cache<String, Long> blockedUntil = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    private final Counter localRejections;
+
+    private final Counter redisRejections;
+
+    public RedisRateLimitServiceImpl(StringRedisTemplate redisTemplate, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.cluster = redisTemplate.getConnectionFactory() instanceof LettuceConnectionFactory factory
+                && factory.isClusterAware();
+        this.localRejections = Counter.builder("rate.limit.rejections").tag("source", "local").register(meterRegistry);
+        this.redisRejections = Counter.builder("rate.limit.rejections").tag("source", "redis").register(meterRegistry);
+    }
+
+    @Override
+    public void acquire(String endpoint, Map<String, String> subjects) {
+        Map<String, RateLimitProperties.Bucket> buckets = properties.getEndpoints().get(endpoint);
+        if (!properties.isEnabled() || buckets == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> keys = new ArrayList<>(subjects.size());
+        List<String> args = new ArrayList<>(subjects.size() * 2);
+        for (Map.Entry<String, String> subject : subjects.entrySet()) {
+            RateLimitProperties.Bucket bucket = buckets.get(subject.getKey());
+            if (bucket == null || subject.getValue() == null) {
+                continue;
+            }
+            String key = KEY_PREFIX + endpoint + ":" + subject.getKey() + ":" + CollationKeys.normalizeOrLowerCase(subject.getValue());
+            Long until = blockedUntil.getIfPresent(key);
+            if (until != null && until > now) {
+                localRejections.increment();
+                throw BusinessException.of(ResultCode.TOO_MANY_REQUESTS);
+            }
+            keys.add(key);
+            args.add(String.valueOf(bucket.getCapacity()));
+            args.add(String.valueOf(bucket.refillRate()));
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        if (!cluster) {
+            check(keys, args, now);
+            return;
+        }
+        Map<Integer, List<Integer>> slots = new TreeMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            slots.computeIfAbsent(SlotHash.getSlot(keys.get(i)), slot -> new ArrayList<>()).add(i);
+        }
+        for (List<Integer> indexes : slots.values()) {
+            List<String> slotKeys = new ArrayList<>(indexes.size());
+            List<String> slotArgs = new ArrayList<>(indexes.size() * 2);
+            for (int i : indexes) {
+                slotKeys.add(keys.get(i));
+                slotArgs.add(args.get(2 * i));
+                slotArgs.add(args.get(2 * i + 1));
+            }
+            check(slotKeys, slotArgs, now);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void check(List<String> keys, List<String> args, long now) {
+        List<Long> result = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, keys, args.toArray());
+        int denied = result.get(0).intValue();
+        if (denied > 0) {
+            blockedUntil.put(keys.get(denied - 1), now + result.get(1));
+            redisRejections.increment();
+            throw BusinessException.of(ResultCode.TOO_MANY_REQUESTS);
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.softwareengineering.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.service.SessionService;
+import com.softwareengineering.util.SessionKeys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+/**
+ * 基于Redis的会话管理
+ * <p>
+ * 会话解析先查本地近端缓存，未命中再查Redis；删除会话时通过pub/sub通知所有节点清除本地缓存。
+ * 近端缓存的有效期不超过读取时会话在Redis中的剩余有效期，过期的会话不会在本地继续有效
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.session", name = "mode", havingValue = "redis", matchIfMissing = true)
+public class RedisSessionServiceImpl implements SessionService, MessageListener {
+
+    private static final String ID_DELIMITER = ",";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Cache<String, CachedSession> nearCache;
+
+    private final SessionTouchBuffer touchBuffer;
+
+    public RedisSessionServiceImpl(StringRedisTemplate redisTemplate,
+                                   SessionTouchBuffer touchBuffer,
+                                   RedisMessageListenerContainer listenerContainer,
+                                   SessionProperties sessionProperties,
+                                   MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.touchBuffer = touchBuffer;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(sessionProperties.getNearCache().getMaximumSize())
+                .expireAfter(new NearCacheExpiry(sessionProperties.getNearCache().getTtl()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "session.near-cache");
+        listenerContainer.addMessageListener(this, new ChannelTopic(CommonConstants.Redis.SESSION_INVALIDATE_CHANNEL));
+    }
+
+    @Override
+    public String create(Long userId) {
+        // 存储会话并登记到用户会话索引(一次管道往返)
+        String sessionId = SessionKeys.newSessionId(userId);
+        String indexKey = SessionKeys.userSessionsKey(userId);
+        long expireSeconds = TimeUnit.MINUTES.toSeconds(CommonConstants.Redis.SESSION_EXPIRE);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.setEx(SessionKeys.sessionKey(sessionId), expireSeconds, userId.toString());
+            stringConnection.sAdd(indexKey, sessionId);
+            // 索引与最新的会话同时过期
+            stringConnection.expire(indexKey, expireSeconds);
+            return null;
+        });
+        nearCache.put(sessionId, new CachedSession(userId, Duration.ofSeconds(expireSeconds)));
+        touchBuffer.refreshed(sessionId);
+        return sessionId;
+    }
+
+    @Override
+    public Long resolve(String sessionId) {
+        // 映射函数返回null时不会写入缓存，不存在的会话每次都回源
+        CachedSession session = nearCache.get(sessionId, this::load);
+        return session == null ? null : session.userId();
+    }
+
+    @Override
+    public void touch(String sessionId, Long userId) {
+        touchBuffer.touch(sessionId, userId);
+    }
+
+    @Override
+    public boolean remove(String sessionId) {
+        String key = SessionKeys.sessionKey(sessionId);
+        String userId = redisTemplate.opsForValue().get(key);
+        if (userId == null) {
+            nearCache.invalidate(sessionId);
+            return false;
+        }
+        String indexKey = SessionKeys.isLegacy(sessionId)
+                ? SessionKeys.legacyUserSessionsKey(Long.valueOf(userId)) : SessionKeys.userSessionsKey(Long.valueOf(userId));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.unlink(key);
+            stringConnection.sRem(indexKey, sessionId);
+            return null;
+        });
+        invalidate(List.of(sessionId));
+        return true;
+    }
+
+    @Override
+    public void removeAll(Long userId) {
+        // 通过用户会话索引删除，开销只与该用户的会话数相关
+        String indexKey = SessionKeys.userSessionsKey(userId);
+        Set<String> sessionIds = redisTemplate.opsForSet().members(indexKey);
+        List<String> keys = new ArrayList<>();
+        if (sessionIds != null) {
+            for (String sessionId : sessionIds) {
+                keys.add(SessionKeys.sessionKey(sessionId));
+            }
+        }
+        keys.add(indexKey);
+        // 单条UNLINK，由Redis后台线程回收内存；各键的哈希标签相同，集群中也只访问一个节点
+        redisTemplate.unlink(keys);
+        if (sessionIds != null && !sessionIds.isEmpty()) {
+            invalidate(sessionIds);
+        }
+        removeLegacy(userId);
+    }
+
+    /**
+     * 升级前签发的会话登记在不带哈希标签的索引中，与新的键不在同一个槽，单独删除。
+     * 更早的版本签发的会话不在索引中，写入吊销标记使其读取时失效；升级后这些会话不再续期，
+     * 标记保留一个会话有效期即可覆盖。先写标记再读索引，与 indexLegacy 配合
+     */
+    private void removeLegacy(Long userId) {
+        redisTemplate.opsForValue().set(SessionKeys.legacyRevokedKey(userId), "1",
+                Duration.ofMinutes(CommonConstants.Redis.SESSION_EXPIRE));
+        String legacyIndexKey = SessionKeys.legacyUserSessionsKey(userId);
+        Set<String> sessionIds = redisTemplate.opsForSet().members(legacyIndexKey);
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        for (String sessionId : sessionIds) {
+            keys.add(SessionKeys.sessionKey(sessionId));
+        }
+        keys.add(legacyIndexKey);
+        redisTemplate.unlink(keys);
+        invalidate(sessionIds);
+    }
+
+    /**
+     * 收到其他节点(包括本节点)的失效广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        nearCache.invalidateAll(Arrays.asList(body.split(ID_DELIMITER)));
+    }
+
+    /**
+     * 一次管道往返读取会话和剩余有效期
+     */
+    private CachedSession load(String sessionId) {
+        String key = SessionKeys.sessionKey(sessionId);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.get(key);
+            stringConnection.pTtl(key);
+            return null;
+        });
+        String userId = (String) results.get(0);
+        Long ttlMillis = (Long) results.get(1);
+        if (userId == null || ttlMillis == null || ttlMillis == -2) {
+            return null;
+        }
+        if (SessionKeys.isLegacy(sessionId) && !indexLegacy(sessionId, Long.valueOf(userId))) {
+            return null;
+        }
+        // -1表示没有过期时间，只受近端缓存有效期限制
+        return new CachedSession(Long.valueOf(userId), ttlMillis < 0 ? ChronoUnit.FOREVER.getDuration() : Duration.ofMillis(ttlMillis));
+    }
+
+    /**
+     * 升级前的会话可能不在用户会话索引中，写入近端缓存前补登记，删除全部会话时能广播清除各节点的缓存。
+     * 登记之后再检查吊销标记：与删除全部会话并发时，要么删除时读到了登记，要么这里读到了标记
+     *
+     * @return 会话是否仍有效
+     */
+    private boolean indexLegacy(String sessionId, Long userId) {
+        String legacyIndexKey = SessionKeys.legacyUserSessionsKey(userId);
+        long expireSeconds = TimeUnit.MINUTES.toSeconds(CommonConstants.Redis.SESSION_EXPIRE);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.sAdd(legacyIndexKey, sessionId);
+            // 升级前的会话不再续期，剩余有效期不超过一个会话有效期
+            stringConnection.expire(legacyIndexKey, expireSeconds);
+            stringConnection.exists(SessionKeys.legacyRevokedKey(userId));
+            return null;
+        });
+        if (Boolean.TRUE.equals(results.get(2))) {
+            redisTemplate.unlink(SessionKeys.sessionKey(sessionId));
+            return false;
+        }
+        return true;
+    }
+
+    private void invalidate(Collection<String> sessionIds) {
+        nearCache.invalidateAll(sessionIds);
+        redisTemplate.convertAndSend(CommonConstants.Redis.SESSION_INVALIDATE_CHANNEL, String.join(ID_DELIMITER, sessionIds));
+    }
+
+    /**
+     * @param ttl 写入近端缓存时会话在Redis中的剩余有效期
+     */
+    private record CachedSession(Long userId, Duration ttl) {
+    }
+
+    /**
+     * 写入后经过近端缓存有效期和会话剩余有效期中较短的一个过期，读取不延长
+     */
+    private record NearCacheExpiry(Duration nearCacheTtl) implements Expiry<String, CachedSession> {
+
+        @Override
+        public long expireAfterCreate(String sessionId, CachedSession session, long currentTime) {
+            return (session.ttl().compareTo(nearCacheTtl) < 0 ? session.ttl() : nearCacheTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String sessionId, CachedSession session, long currentTime, long currentDuration) {
+            return expireAfterCreate(sessionId, session, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String sessionId, CachedSession session, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,296 @@
+package com.softwareengineering.service.impl;
+
+import com.softwareengineering.config.MailDispatcherProperties;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.service.MailService;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+/**
+ * 基于Redis Stream发件箱的异步邮件发送
+ * <p>
+ * 请求线程只执行一次XADD；后台虚拟线程通过消费组批量读取并发送，同一批邮件复用一个SMTP连接，
+ * 发送成功或转入死信后才确认。发送失败的邮件留在消费组的待确认列表中，空闲超过 claim-min-idle 后
+ * 由任一节点通过XAUTOCLAIM接管重试，投递次数超过 max-attempts 后转入死信；
+ * 节点宕机或更换消费者名称后留下的邮件同样被接管，发送线程不阻塞等待重试
+ */
+@Slf4j
+@Service
+@ConditionalOnExpression(SessionProperties.SHARED_MODE)
+public class RedisStreamMailServiceImpl implements MailService, SmartLifecycle {
+
+    private static final String FIELD_TO = "to";
+
+    private static final String FIELD_SUBJECT = "subject";
+
+    private static final String FIELD_TEXT = "text";
+
+    /**
+     * XAUTOCLAIM 的起始游标，返回该值表示已扫描完整个待确认列表
+     */
+    private static final String CLAIM_CURSOR_START = "0-0";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final MailBatchSender mailSender;
+
+    private final MailDispatcherProperties properties;
+
+    /**
+     * 本节点投递新邮件时唤醒等待中的发送线程，最多保留一个许可
+     */
+    private final Semaphore wakeup = new Semaphore(0);
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Counter sentCounter;
+
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+
+    public RedisStreamMailServiceImpl(StringRedisTemplate redisTemplate,
+                                      JavaMailSender mailSender,
+                                      MailDispatcherProperties properties,
+                                      MeterRegistry meterRegistry,
+                                      ObservationRegistry observationRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.mailSender = new MailBatchSender(mailSender, observationRegistry);
+        this.properties = properties;
+        this.sentCounter = Counter.builder("mail.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.failed").register(meterRegistry);
+    }
+
+    @Override
+    public void send(String to, String subject, String text) {
+        redisTemplate.opsForStream().add(StreamRecords.string(Map.of(
+                FIELD_TO, to,
+                FIELD_SUBJECT, subject,
+                FIELD_TEXT, text
+        )).withStreamKey(CommonConstants.Redis.MAIL_OUTBOX_STREAM));
+        // 唤醒后发送线程会批量读取所有新邮件，许可不需要随投递数累加
+        if (wakeup.availablePermits() == 0) {
+            wakeup.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        createGroupIfAbsent();
+        running = true;
+        for (int i = 0; i < properties.getConcurrency(); i++) {
+            Consumer consumer = Consumer.from(CommonConstants.Redis.MAIL_DISPATCHER_GROUP, properties.getConsumerName() + "-" + i);
+            workers.add(Thread.ofVirtual().name("mail-dispatcher-" + i).start(() -> poll(consumer)));
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void poll(Consumer consumer) {
+        StreamReadOptions readOptions = StreamReadOptions.empty().count(properties.getBatchSize());
+        String claimCursor = CLAIM_CURSOR_START;
+        long nextClaim = System.nanoTime();
+        while (running) {
+            try {
+                // 按间隔接管空闲的未确认邮件，游标回到起点前连续接管
+                if (System.nanoTime() - nextClaim >= 0) {
+                    ClaimedMessages<byte[], byte[]> claimed = autoClaim(consumer, claimCursor);
+                    claimCursor = claimed.getId();
+                    if (CLAIM_CURSOR_START.equals(claimCursor)) {
+                        nextClaim = System.nanoTime() + properties.getClaimInterval().toNanos();
+                    }
+                    if (!claimed.getMessages().isEmpty()) {
+                        dispatchClaimed(consumer, claimed.getMessages());
+                        continue;
+                    }
+                }
+                List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(consumer,
+                        readOptions, StreamOffset.create(CommonConstants.Redis.MAIL_OUTBOX_STREAM, ReadOffset.lastConsumed()));
+                if (records == null || records.isEmpty()) {
+                    wakeup.tryAcquire(properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                dispatch(records);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    // 停止时中断了正在执行的命令
+                    return;
+                }
+                log.error("邮件发件箱处理失败", e);
+                sleepQuietly(properties.getPollInterval());
+            }
+        }
+    }
+
+    /**
+     * 接管空闲超过 claim-min-idle 的未确认邮件，接管后投递次数加一；Spring Data Redis 未提供XAUTOCLAIM，使用Lettuce原生连接
+     */
+    @SuppressWarnings("unchecked")
+    private ClaimedMessages<byte[], byte[]> autoClaim(Consumer consumer, String cursor) {
+        byte[] key = CommonConstants.Redis.MAIL_OUTBOX_STREAM.getBytes(StandardCharsets.UTF_8);
+        XAutoClaimArgs<byte[]> args = XAutoClaimArgs.Builder.xautoclaim(
+                        io.lettuce.core.Consumer.from(consumer.getGroup().getBytes(StandardCharsets.UTF_8),
+                                consumer.getName().getBytes(StandardCharsets.UTF_8)),
+                        properties.getClaimMinIdle(), cursor)
+                .count(properties.getBatchSize());
+        return redisTemplate.execute((RedisCallback<ClaimedMessages<byte[], byte[]>>) connection ->
+                ((RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection())
+                        .xautoclaim(key, args).toCompletableFuture().join());
+    }
+
+    /**
+     * 投递次数超过 max-attempts 的邮件转入死信，其余重新发送
+     */
+    private void dispatchClaimed(Consumer consumer, List<StreamMessage<byte[], byte[]>> messages) {
+        List<MapRecord<String, Object, Object>> records = new ArrayList<>(messages.size());
+        for (StreamMessage<byte[], byte[]> message : messages) {
+            Map<Object, Object> fields = new LinkedHashMap<>();
+            message.getBody().forEach((field, value) ->
+                    fields.put(new String(field, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8)));
+            records.add(StreamRecords.newRecord()
+                    .in(CommonConstants.Redis.MAIL_OUTBOX_STREAM)
+                    .withId(RecordId.of(message.getId()))
+                    .ofMap(fields));
+        }
+
+        // 只查询本消费者在这批ID范围内的待确认记录
+        Map<String, Long> deliveryCounts = new HashMap<>();
+        redisTemplate.opsForStream().pending(CommonConstants.Redis.MAIL_OUTBOX_STREAM, consumer,
+                        Range.closed(records.getFirst().getId().getValue(), records.getLast().getId().getValue()),
+                        Long.MAX_VALUE)
+                .forEach(pending -> deliveryCounts.put(pending.getIdAsString(), pending.getTotalDeliveryCount()));
+
+        List<MapRecord<String, Object, Object>> retries = new ArrayList<>(records.size());
+        List<MapRecord<String, Object, Object>> exhausted = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            if (deliveryCounts.getOrDefault(record.getId().getValue(), 0L) > properties.getMaxAttempts()) {
+                exhausted.add(record);
+            } else {
+                retries.add(record);
+            }
+        }
+        if (!exhausted.isEmpty()) {
+            deadLetter(exhausted);
+        }
+        if (!retries.isEmpty()) {
+            dispatch(retries);
+        }
+    }
+
+    /**
+     * 批量发送，只确认并删除发送成功的邮件
+     */
+    private void dispatch(List<MapRecord<String, Object, Object>> records) {
+        Map<SimpleMailMessage, RecordId> recordIds = new IdentityHashMap<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            recordIds.put(toMessage(record.getValue()), record.getId());
+        }
+
+        List<SimpleMailMessage> failed = mailSender.send(new ArrayList<>(recordIds.keySet()));
+        sentCounter.increment(records.size() - failed.size());
+        if (!failed.isEmpty()) {
+            log.warn("{}封邮件发送失败，空闲{}后重试", failed.size(), properties.getClaimMinIdle());
+            failed.forEach(recordIds::remove);
+        }
+        acknowledge(recordIds.values());
+    }
+
+    private void deadLetter(List<MapRecord<String, Object, Object>> records) {
+        List<RecordId> recordIds = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            record.getValue().forEach((field, value) -> fields.put((String) field, (String) value));
+            log.error("邮件多次发送失败，已转入死信：{}", fields.get(FIELD_TO));
+            redisTemplate.opsForStream().add(StreamRecords.string(fields)
+                    .withStreamKey(CommonConstants.Redis.MAIL_DEAD_LETTER_STREAM));
+            recordIds.add(record.getId());
+        }
+        failedCounter.increment(records.size());
+        acknowledge(recordIds);
+    }
+
+    private void acknowledge(Collection<RecordId> recordIds) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        RecordId[] ids = recordIds.toArray(RecordId[]::new);
+        redisTemplate.opsForStream().acknowledge(CommonConstants.Redis.MAIL_OUTBOX_STREAM,
+                CommonConstants.Redis.MAIL_DISPATCHER_GROUP, ids);
+        redisTemplate.opsForStream().delete(CommonConstants.Redis.MAIL_OUTBOX_STREAM, ids);
+    }
+
+    private SimpleMailMessage toMessage(Map<Object, Object> fields) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo((String) fields.get(FIELD_TO));
+        message.setSubject((String) fields.get(FIELD_SUBJECT));
+        message.setText((String) fields.get(FIELD_TEXT));
+        return message;
+    }
+
+    private void createGroupIfAbsent() {
+        byte[] key = CommonConstants.Redis.MAIL_OUTBOX_STREAM.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(key, CommonConstants.Redis.MAIL_DISPATCHER_GROUP, ReadOffset.from("0"), true));
+        } catch (DataAccessException e) {
+            // BUSYGROUP：消费组已存在
+            log.debug("邮件发件箱消费组已存在：{}", e.getMessage());
+        }
+    }
+
+    private void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.softwareengineering.service.impl;
+
+import com.softwareengineering.service.VerificationCodeService;
+import java.time.Duration;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * 验证码存储在Redis，集群内各节点共享
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.verification-code", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisVerificationCodeServiceImpl implements VerificationCodeService {
+
+    private static final String VERIFICATION_CODE_PREFIX = "verification:code:";
+
+    private static final RedisScript<Long> CONSUME_VERIFICATION_CODE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/consume_verification_code.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void save(String email, String code, Duration ttl) {
+        redisTemplate.opsForValue().set(VERIFICATION_CODE_PREFIX + email, code, ttl);
+    }
+
+    @Override
+    public Long consume(String email, String code) {
+        // 原子地比较并删除
+        return redisTemplate.execute(CONSUME_VERIFICATION_CODE_SCRIPT, List.of(VERIFICATION_CODE_PREFIX + email), code);
+    }
+
+    @Override
+    public void restore(String email, String code, long remainingMillis) {
+        String key = VERIFICATION_CODE_PREFIX + email;
+        if (remainingMillis > 0) {
+            redisTemplate.opsForValue().setIfAbsent(key, code, Duration.ofMillis(remainingMillis));
+        } else if (remainingMillis < 0) {
+            redisTemplate.opsForValue().setIfAbsent(key, code);
+        }
+    }
+
+    @Override
+    public boolean matches(String email, String code) {
+        return code.equals(redisTemplate.opsForValue().get(VERIFICATION_CODE_PREFIX + email));
+    }
+
+    @Override
+    public void remove(String email) {
+        redisTemplate.delete(VERIFICATION_CODE_PREFIX + email);
+    }
+
+}
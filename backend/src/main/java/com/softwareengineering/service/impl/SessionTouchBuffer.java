@@ -0,0 +1,123 @@
+package com.softwareengineering.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.util.SessionKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会话滑动过期
+ * <p>
+ * 请求只在内存中登记一次"访问"，同一会话在刷新窗口内的多次访问合并为一次；
+ * 定时任务把登记的会话用管道批量执行EXPIRE，避免每个请求都写一次Redis。
+ * 刚创建的会话已设置完整有效期，窗口内不再刷新；关闭时写出尚未刷新的访问
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.session", name = "mode", havingValue = "redis", matchIfMissing = true)
+public class SessionTouchBuffer implements DisposableBean {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final boolean enabled;
+
+    /**
+     * 待刷新的会话：sessionId -> userId
+     */
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 刷新窗口内已经写过的会话
+     */
+    private final Cache<String, Boolean> recentlyRefreshed;
+
+    private final Counter queuedTouches;
+
+    private final Counter coalescedTouches;
+
+    private final Counter writtenTouches;
+
+    public SessionTouchBuffer(StringRedisTemplate redisTemplate, SessionProperties sessionProperties, MeterRegistry meterRegistry) {
+        SessionProperties.Sliding sliding = sessionProperties.getSliding();
+        this.redisTemplate = redisTemplate;
+        this.enabled = sliding.isEnabled();
+        this.recentlyRefreshed = Caffeine.newBuilder()
+                .maximumSize(sessionProperties.getNearCache().getMaximumSize())
+                .expireAfterWrite(sliding.getRefreshWindow())
+                .build();
+        this.queuedTouches = Counter.builder("session.touches").tag("result", "queued").register(meterRegistry);
+        this.coalescedTouches = Counter.builder("session.touches").tag("result", "coalesced").register(meterRegistry);
+        this.writtenTouches = Counter.builder("session.touch.writes").register(meterRegistry);
+    }
+
+    public void touch(String sessionId, Long userId) {
+        // 升级前签发的会话不续期，有效期结束后不再需要兼容原来的键
+        if (!enabled || SessionKeys.isLegacy(sessionId)) {
+            return;
+        }
+        if (recentlyRefreshed.getIfPresent(sessionId) != null || pending.putIfAbsent(sessionId, userId) != null) {
+            coalescedTouches.increment();
+        } else {
+            queuedTouches.increment();
+        }
+    }
+
+    /**
+     * 会话刚以完整有效期写入Redis，刷新窗口内的访问不必再刷新
+     */
+    public void refreshed(String sessionId) {
+        if (enabled) {
+            recentlyRefreshed.put(sessionId, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${app.session.sliding.flush-interval:1s}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Long> batch = new HashMap<>();
+        Iterator<Map.Entry<String, Long>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            batch.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+
+        long expireSeconds = TimeUnit.MINUTES.toSeconds(CommonConstants.Redis.SESSION_EXPIRE);
+        Set<Long> userIds = new HashSet<>(batch.values());
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            batch.keySet().forEach(sessionId ->
+                    stringConnection.expire(SessionKeys.sessionKey(sessionId), expireSeconds));
+            // 索引与最新的会话同时过期
+            userIds.forEach(userId ->
+                    stringConnection.expire(SessionKeys.userSessionsKey(userId), expireSeconds));
+            return null;
+        });
+        batch.keySet().forEach(sessionId -> recentlyRefreshed.put(sessionId, Boolean.TRUE));
+        writtenTouches.increment(batch.size());
+    }
+
+}
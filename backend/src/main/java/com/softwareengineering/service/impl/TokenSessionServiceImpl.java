@@ -0,0 +1,270 @@
+package com.softwareengineering.service.impl;
+
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.service.SessionService;
+import com.softwareengineering.util.RevocationList;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 基于HMAC签名令牌的无状态会话
+ * <p>
+ * 令牌格式为 {@code 用户ID.签发时间戳.过期时间戳.令牌代数.令牌ID(16进制).签名}，签名为前五段的HMAC-SHA256(base64url)。
+ * 校验只做签名计算和本地吊销表查询，不访问Redis；吊销记录写入Redis并通过pub/sub同步到各节点。
+ * 吊销用户的全部令牌时递增Redis中该用户的令牌代数，代数小于新值的令牌失效：签发时读取当前代数，
+ * 不比较签发时间，各节点时钟有偏差时也不会漏掉吊销前签发的令牌或误伤吊销后签发的令牌
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.session", name = "mode", havingValue = "token")
+public class TokenSessionServiceImpl implements SessionService, MessageListener {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private static final int MAX_TOKEN_LENGTH = 128;
+
+    private static final char DELIMITER = '.';
+
+    private static final String TOKEN_REVOCATION = "t";
+
+    /**
+     * 按令牌代数吊销用户的全部令牌；旧格式按签发时间(i)或过期时间(u)记录的用户吊销不再识别，对应的旧令牌已无法通过校验
+     */
+    private static final String USER_REVOCATION = "g";
+
+    private static final Base64.Encoder SIGNATURE_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final SecretKeySpec secretKey;
+
+    private final long ttlMillis;
+
+    /**
+     * 集群内令牌的最长有效期，用户级吊销记录保留这么久
+     */
+    private final long maxTtlMillis;
+
+    private final RevocationList revocationList = new RevocationList();
+
+    /**
+     * 每个线程复用的Mac和缓冲区，校验过程不产生新的对象
+     */
+    private final ThreadLocal<Signer> signer;
+
+    public TokenSessionServiceImpl(StringRedisTemplate redisTemplate,
+                                   RedisMessageListenerContainer listenerContainer,
+                                   SessionProperties sessionProperties,
+                                   MeterRegistry meterRegistry) {
+        String secret = sessionProperties.getToken().getSecret();
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("app.session.token.secret must be at least " + MIN_SECRET_LENGTH + " bytes in token mode");
+        }
+        this.redisTemplate = redisTemplate;
+        this.secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.ttlMillis = sessionProperties.getToken().getTtl().toMillis();
+        Duration maxTtl = sessionProperties.getToken().getMaxTtl();
+        this.maxTtlMillis = maxTtl == null ? ttlMillis : maxTtl.toMillis();
+        if (maxTtlMillis < ttlMillis) {
+            throw new IllegalStateException("app.session.token.max-ttl must not be shorter than app.session.token.ttl");
+        }
+        this.signer = ThreadLocal.withInitial(() -> new Signer(secretKey));
+        Gauge.builder("session.token.revocations", revocationList, RevocationList::size).register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CommonConstants.Redis.TOKEN_REVOKE_CHANNEL));
+        loadRevocations();
+    }
+
+    @Override
+    public String create(Long userId) {
+        long issuedAt = System.currentTimeMillis();
+        long expiresAt = issuedAt + ttlMillis;
+        long tokenId = ThreadLocalRandom.current().nextLong();
+        String generation = redisTemplate.opsForValue().get(CommonConstants.Redis.TOKEN_GENERATION_PREFIX + userId);
+        String payload = userId.toString() + DELIMITER + issuedAt + DELIMITER + expiresAt
+                + DELIMITER + (generation == null ? "0" : generation) + DELIMITER + Long.toHexString(tokenId);
+        return payload + DELIMITER + signer.get().sign(payload);
+    }
+
+    @Override
+    public Long resolve(String sessionId) {
+        ParsedToken token = parse(sessionId);
+        return token == null ? null : token.userId;
+    }
+
+    @Override
+    public boolean remove(String sessionId) {
+        ParsedToken token = parse(sessionId);
+        if (token == null) {
+            return false;
+        }
+        revoke(TOKEN_REVOCATION + DELIMITER + Long.toHexString(token.tokenId) + DELIMITER + token.expiresAt, token.expiresAt);
+        return true;
+    }
+
+    @Override
+    public void removeAll(Long userId) {
+        String generationKey = CommonConstants.Redis.TOKEN_GENERATION_PREFIX + userId;
+        Long generation = redisTemplate.opsForValue().increment(generationKey);
+        // 代数比吊销记录保留得久，记录清除前不会回到0
+        redisTemplate.expire(generationKey, Duration.ofMillis(2 * maxTtlMillis));
+        // 记录保留到此前签发的令牌全部过期，各节点有效期不同时按集群内的最长有效期
+        long retainUntil = System.currentTimeMillis() + maxTtlMillis;
+        revoke(USER_REVOCATION + DELIMITER + Long.toHexString(userId) + DELIMITER + generation + DELIMITER + retainUntil,
+                retainUntil);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        apply(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpiredRevocations() {
+        long now = System.currentTimeMillis();
+        revocationList.purge(now);
+        redisTemplate.opsForZSet().removeRangeByScore(CommonConstants.Redis.TOKEN_REVOKED_KEY, 0, now);
+    }
+
+    /**
+     * 校验令牌并解析，签名错误、已过期或已吊销时返回null
+     */
+    private ParsedToken parse(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        int first = token.indexOf(DELIMITER);
+        int second = first < 0 ? -1 : token.indexOf(DELIMITER, first + 1);
+        int third = second < 0 ? -1 : token.indexOf(DELIMITER, second + 1);
+        int fourth = third < 0 ? -1 : token.indexOf(DELIMITER, third + 1);
+        int fifth = fourth < 0 ? -1 : token.indexOf(DELIMITER, fourth + 1);
+        if (fifth < 0 || token.indexOf(DELIMITER, fifth + 1) >= 0) {
+            return null;
+        }
+        if (!signer.get().verify(token, fifth)) {
+            return null;
+        }
+        // 签名通过后各段一定是本服务签发的数字，签发时间只用于排查
+        long userId = Long.parseLong(token, 0, first, 10);
+        long expiresAt = Long.parseLong(token, second + 1, third, 10);
+        long generation = Long.parseLong(token, third + 1, fourth, 10);
+        long tokenId = Long.parseUnsignedLong(token, fourth + 1, fifth, 16);
+        if (expiresAt < System.currentTimeMillis() || revocationList.isRevoked(tokenId, userId, generation, expiresAt)) {
+            return null;
+        }
+        return new ParsedToken(userId, expiresAt, tokenId);
+    }
+
+    /**
+     * @param record      令牌吊销为 {@code t.令牌ID.过期时间}，用户吊销为 {@code g.用户ID.代数截止值.保留截止时间}，ID为16进制
+     * @param retainUntil 吊销记录在Redis中保留到该时间
+     */
+    private void revoke(String record, long retainUntil) {
+        apply(record);
+        redisTemplate.opsForZSet().add(CommonConstants.Redis.TOKEN_REVOKED_KEY, record, retainUntil);
+        redisTemplate.convertAndSend(CommonConstants.Redis.TOKEN_REVOKE_CHANNEL, record);
+    }
+
+    private void apply(String record) {
+        int first = record.indexOf(DELIMITER);
+        int second = record.indexOf(DELIMITER, first + 1);
+        long id = Long.parseUnsignedLong(record, first + 1, second, 16);
+        if (record.startsWith(USER_REVOCATION)) {
+            int third = record.indexOf(DELIMITER, second + 1);
+            revocationList.revokeUser(id, Long.parseLong(record, second + 1, third, 10),
+                    Long.parseLong(record, third + 1, record.length(), 10));
+        } else if (record.startsWith(TOKEN_REVOCATION)) {
+            revocationList.revokeToken(id, Long.parseLong(record, second + 1, record.length(), 10));
+        }
+    }
+
+    /**
+     * 启动时加载尚未过期的吊销记录
+     */
+    private void loadRevocations() {
+        Set<String> records = redisTemplate.opsForZSet()
+                .rangeByScore(CommonConstants.Redis.TOKEN_REVOKED_KEY, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        if (records != null) {
+            records.forEach(this::apply);
+            log.info("已加载令牌吊销记录：{}条", records.size());
+        }
+    }
+
+    private record ParsedToken(long userId, long expiresAt, long tokenId) {
+    }
+
+    private static final class Signer {
+
+        private final Mac mac;
+
+        private final byte[] payload = new byte[MAX_TOKEN_LENGTH];
+
+        private final byte[] digest;
+
+        private final byte[] encoded;
+
+        Signer(SecretKeySpec secretKey) {
+            try {
+                this.mac = Mac.getInstance(HMAC_ALGORITHM);
+                this.mac.init(secretKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC not available", e);
+            }
+            this.digest = new byte[mac.getMacLength()];
+            this.encoded = new byte[(digest.length * 4 + 2) / 3];
+        }
+
+        String sign(String payload) {
+            return SIGNATURE_ENCODER.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        /**
+         * 对 token[0, signatureStart) 计算签名，并与 token 中的签名段做常量时间比较
+         */
+        boolean verify(String token, int signatureStart) {
+            if (token.length() - signatureStart - 1 != encoded.length) {
+                return false;
+            }
+            for (int i = 0; i < signatureStart; i++) {
+                char c = token.charAt(i);
+                if (c > 0x7F) {
+                    return false;
+                }
+                payload[i] = (byte) c;
+            }
+            try {
+                mac.update(payload, 0, signatureStart);
+                mac.doFinal(digest, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            SIGNATURE_ENCODER.encode(digest, encoded);
+            int diff = 0;
+            for (int i = 0; i < encoded.length; i++) {
+                diff |= encoded[i] ^ token.charAt(signatureStart + 1 + i);
+            }
+            return diff == 0;
+        }
+
+    }
+
+}
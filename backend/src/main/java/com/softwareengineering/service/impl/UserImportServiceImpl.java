@@ -0,0 +1,392 @@
+package com.softwareengineering.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.config.UserImportProperties;
+import com.softwareengineering.event.UserCreatedEvent;
+import com.softwareengineering.service.UserImportService;
+import com.softwareengineering.util.HexUtil;
+import com.softwareengineering.vo.UserImportReportVO;
+import com.softwareengineering.vo.UserImportRowVO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 批量导入用户
+ * <p>
+ * 流式读取，每 batch-size 行为一批：批内去重、一次查询库中已存在的用户名和邮箱、并行计算密码哈希、
+ * JDBC批量写入并在一个事务中提交。内存占用只与批大小有关。
+ * 密码使用 Argon2 在导入专用线程池中哈希，参数低于注册时的参数以保证吞吐，用户首次登录时按当前参数重新哈希。
+ * 不使用登录的密码哈希线程池，导入不会让登录请求排队或被拒绝
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService, DisposableBean {
+
+    private static final String INSERT_SQL =
+            "insert into user (username, password, email, sex, register_date, last_modify_date) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String EXISTING_SQL =
+            "select username, email from user where username in (:usernames) or email in (:emails)";
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final UserImportProperties properties;
+
+    private final HexUtil.Argon2Cost hashingCost;
+
+    private final ForkJoinPool hashingPool;
+
+    public UserImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher,
+                                 UserImportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.hashingCost = new HexUtil.Argon2Cost(Math.toIntExact(properties.getHashingMemory().toKilobytes()),
+                properties.getHashingIterations(), 1);
+        this.hashingPool = new ForkJoinPool(properties.getHashingParallelism());
+    }
+
+    @Override
+    public UserImportReportVO importUsers(InputStream input, Format format) throws IOException {
+        UserImportReportVO report = new UserImportReportVO();
+        List<Row> batch = new ArrayList<>(properties.getBatchSize());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == Format.CSV) {
+                CsvRecordReader records = new CsvRecordReader(reader);
+                List<String> record;
+                while ((record = records.read()) != null) {
+                    if (record.size() == 1 && record.getFirst().isBlank()
+                            || records.getRecordLine() == 1 && "username".equals(record.getFirst().trim())) {
+                        continue;
+                    }
+                    collect(parseCsv(record, records.getRecordLine(), records.isMalformed(), report), batch, report);
+                }
+            } else {
+                long lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    collect(parseNdjson(line, lineNumber, report), batch, report);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, report);
+        }
+        log.info("批量导入用户完成，共{}行，成功{}行，失败{}行", report.getTotal(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.close();
+    }
+
+    private void collect(Row row, List<Row> batch, UserImportReportVO report) {
+        report.setTotal(report.getTotal() + 1);
+        if (row != null) {
+            batch.add(row);
+        }
+        if (batch.size() >= properties.getBatchSize()) {
+            importBatch(batch, report);
+            batch.clear();
+        }
+    }
+
+    private Row parseNdjson(String line, long lineNumber, UserImportReportVO report) {
+        UserImportRowVO vo;
+        try {
+            vo = objectMapper.readValue(line, UserImportRowVO.class);
+        } catch (JsonProcessingException e) {
+            fail(report, lineNumber, null, "JSON格式错误");
+            return null;
+        }
+        return validated(vo, lineNumber, report);
+    }
+
+    private Row parseCsv(List<String> columns, long lineNumber, boolean malformed, UserImportReportVO report) {
+        if (malformed) {
+            fail(report, lineNumber, null, "引号未闭合");
+            return null;
+        }
+        if (columns.size() < 3) {
+            fail(report, lineNumber, null, "列数不足");
+            return null;
+        }
+        UserImportRowVO vo = new UserImportRowVO();
+        vo.setUsername(columns.get(0).trim());
+        vo.setPassword(columns.get(1));
+        vo.setEmail(columns.get(2).trim());
+        vo.setSex(columns.size() > 3 ? columns.get(3).trim() : null);
+        return validated(vo, lineNumber, report);
+    }
+
+    private Row validated(UserImportRowVO vo, long lineNumber, UserImportReportVO report) {
+        String error = validate(vo);
+        if (error != null) {
+            fail(report, lineNumber, vo.getUsername(), error);
+            return null;
+        }
+        return new Row(lineNumber, vo);
+    }
+
+    private String validate(UserImportRowVO vo) {
+        if (vo.getUsername() == null || vo.getUsername().length() < 4 || vo.getUsername().length() > 32) {
+            return "用户名长度必须在4-32之间";
+        }
+        if (vo.getPassword() == null || vo.getPassword().isBlank()) {
+            return "密码不能为空";
+        }
+        if (vo.getEmail() == null || vo.getEmail().length() > 32 || !EMAIL_PATTERN.matcher(vo.getEmail()).matches()) {
+            return "邮箱格式不正确";
+        }
+        if (vo.getSex() != null && !vo.getSex().isEmpty() && !"M".equals(vo.getSex()) && !"F".equals(vo.getSex())) {
+            return "性别只能是M或F";
+        }
+        return null;
+    }
+
+    private void importBatch(List<Row> batch, UserImportReportVO report) {
+        List<Row> candidates = excludeDuplicates(batch, report);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        hashingPool.submit(() -> candidates.parallelStream()
+                .forEach(row -> row.passwordHash = HexUtil.encryptAndFormat(row.vo.getPassword(), hashingCost))).join();
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Row> inserted;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, candidates,
+                    candidates.size(), (ps, row) -> {
+                        ps.setString(1, row.vo.getUsername());
+                        ps.setString(2, row.passwordHash);
+                        ps.setString(3, row.vo.getEmail());
+                        ps.setString(4, row.vo.getSex() == null || row.vo.getSex().isEmpty() ? null : row.vo.getSex());
+                        ps.setTimestamp(5, now);
+                        ps.setTimestamp(6, now);
+                    }));
+            inserted = candidates;
+        } catch (DuplicateKeyException e) {
+            // 预检查之后有并发写入，整批回滚后逐行写入以定位冲突的行
+            inserted = insertOneByOne(candidates, now, report);
+        }
+
+        report.setImported(report.getImported() + inserted.size());
+        inserted.forEach(row -> eventPublisher.publishEvent(new UserCreatedEvent(row.vo.getUsername(), row.vo.getEmail())));
+    }
+
+    /**
+     * 剔除批内重复以及数据库中已存在的用户名和邮箱，数据库的排序规则大小写不敏感，统一按小写比较
+     */
+    private List<Row> excludeDuplicates(List<Row> batch, UserImportReportVO report) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<Row> unique = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (!usernames.add(lowerCase(row.vo.getUsername()))) {
+                fail(report, row.line, row.vo.getUsername(), "文件中用户名重复");
+            } else if (!emails.add(lowerCase(row.vo.getEmail()))) {
+                fail(report, row.line, row.vo.getUsername(), "文件中邮箱重复");
+            } else {
+                unique.add(row);
+            }
+        }
+        if (unique.isEmpty()) {
+            return unique;
+        }
+
+        Set<String> existingUsernames = new HashSet<>();
+        Set<String> existingEmails = new HashSet<>();
+        namedParameterJdbcTemplate.query(EXISTING_SQL, Map.of(
+                "usernames", unique.stream().map(row -> row.vo.getUsername()).toList(),
+                "emails", unique.stream().map(row -> row.vo.getEmail()).toList()
+        ), rs -> {
+            existingUsernames.add(lowerCase(rs.getString("username")));
+            existingEmails.add(lowerCase(rs.getString("email")));
+        });
+
+        List<Row> candidates = new ArrayList<>(unique.size());
+        for (Row row : unique) {
+            if (existingUsernames.contains(lowerCase(row.vo.getUsername()))) {
+                fail(report, row.line, row.vo.getUsername(), ResultCode.USER_EXISTED.getMessage());
+            } else if (existingEmails.contains(lowerCase(row.vo.getEmail()))) {
+                fail(report, row.line, row.vo.getUsername(), ResultCode.EMAIL_EXISTED.getMessage());
+            } else {
+                candidates.add(row);
+            }
+        }
+        return candidates;
+    }
+
+    private List<Row> insertOneByOne(List<Row> rows, Timestamp now, UserImportReportVO report) {
+        List<Row> inserted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, row.vo.getUsername(), row.passwordHash, row.vo.getEmail(),
+                        row.vo.getSex() == null || row.vo.getSex().isEmpty() ? null : row.vo.getSex(), now, now);
+                inserted.add(row);
+            } catch (DuplicateKeyException e) {
+                fail(report, row.line, row.vo.getUsername(), "用户名或邮箱已存在");
+            }
+        }
+        return inserted;
+    }
+
+    private void fail(UserImportReportVO report, long line, String username, String reason) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < properties.getMaxReportedErrors()) {
+            report.getErrors().add(new UserImportReportVO.RowError(line, username, reason));
+        }
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 按 RFC 4180 读取CSV记录，与导出使用同一格式：含逗号、引号或换行的字段加引号，字段内的引号写两次。
+     * 引号内的换行属于字段内容，一条记录可能跨多行
+     */
+    private static final class CsvRecordReader {
+
+        private final BufferedReader reader;
+
+        private long line;
+
+        private long recordLine;
+
+        private boolean malformed;
+
+        private CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return 下一条记录的字段，文件结束时返回 null
+         */
+        private List<String> read() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = ++line;
+            malformed = false;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean fieldStart = true;
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        // 引号未闭合，整条记录作废
+                        malformed = true;
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    if (c == '"') {
+                        c = reader.read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && fieldStart) {
+                    quoted = true;
+                    fieldStart = false;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    fieldStart = true;
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                    fieldStart = false;
+                }
+                c = reader.read();
+            }
+        }
+
+        /**
+         * 当前记录起始的行号
+         */
+        private long getRecordLine() {
+            return recordLine;
+        }
+
+        private boolean isMalformed() {
+            return malformed;
+        }
+
+    }
+
+    private static final class Row {
+
+        private final long line;
+
+        private final UserImportRowVO vo;
+
+        private String passwordHash;
+
+        private Row(long line, UserImportRowVO vo) {
+            this.line = line;
+            this.vo = vo;
+        }
+
+    }
+
+}
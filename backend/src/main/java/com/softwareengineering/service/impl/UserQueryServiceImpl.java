@@ -0,0 +1,313 @@
+package com.softwareengineering.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.softwareengineering.config.UserExportProperties;
+import com.softwareengineering.index.UserSearchIndex;
+import com.softwareengineering.service.UserImportService;
+import com.softwareengineering.service.UserQueryService;
+import com.softwareengineering.vo.UserPageVO;
+import com.softwareengineering.vo.UserQueryVO;
+import com.softwareengineering.vo.UserSummaryVO;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 用户列表和导出
+ * <p>
+ * 列表按ID游标分页(id &gt; afterId order by id limit n)，走主键范围扫描，翻页深度不影响耗时。
+ * 导出使用只进只读游标，按 fetch-size 分批读取并直接写入响应，不在内存中累积。
+ * 搜索先在内存索引中按前缀匹配用户名，再按用户名批量读取
+ */
+@Slf4j
+@Service
+public class UserQueryServiceImpl implements UserQueryService {
+
+    private static final String SELECT_SQL = "select id, username, email, sex, register_date, last_modify_date from user";
+
+    private static final List<String> SEARCH_COLUMNS = List.of("username", "email");
+
+    private static final Pattern LIKE_SPECIAL_CHARACTERS = Pattern.compile("[\\\\%_]");
+
+    private static final String CSV_HEADER = "id,username,email,sex,register_date,last_modify_date\n";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * 设置了 fetch-size 的模板，只用于导出
+     */
+    private final NamedParameterJdbcTemplate exportJdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserSearchIndex userSearchIndex;
+
+    public UserQueryServiceImpl(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                UserExportProperties properties,
+                                UserSearchIndex userSearchIndex) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        JdbcTemplate exportTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        exportTemplate.setFetchSize(properties.getFetchSize());
+        this.exportJdbcTemplate = new NamedParameterJdbcTemplate(exportTemplate);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.userSearchIndex = userSearchIndex;
+    }
+
+    @Override
+    public UserPageVO list(UserQueryVO query) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = SELECT_SQL + where(query, params) + " order by id limit :limit";
+        // 多查一行判断是否还有下一页
+        params.addValue("limit", query.getLimit() + 1);
+        List<UserSummaryVO> items = readOnlyTransaction.execute(status -> jdbcTemplate.query(sql, params,
+                (rs, rowNum) -> mapRow(rs)));
+        if (items.size() <= query.getLimit()) {
+            return new UserPageVO(items, null);
+        }
+        List<UserSummaryVO> page = items.subList(0, query.getLimit());
+        return new UserPageVO(page, page.getLast().getId());
+    }
+
+    @Override
+    public List<UserSummaryVO> search(String keyword, int limit) {
+        String trimmed = keyword.trim();
+        List<String> usernames = userSearchIndex.search(trimmed, limit);
+        if (usernames == null) {
+            return searchDatabase(trimmed, limit);
+        }
+        if (usernames.isEmpty()) {
+            return List.of();
+        }
+        Map<String, UserSummaryVO> rows = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(SELECT_SQL + " where username in (:usernames)",
+                Map.of("usernames", usernames), (RowCallbackHandler) rs -> {
+                    UserSummaryVO row = mapRow(rs);
+                    rows.put(row.getUsername(), row);
+                }));
+        // 按索引的排名返回
+        return usernames.stream().map(rows::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * 索引不可用时按用户名、邮箱前缀查询，LIKE 'x%' 走唯一索引的范围扫描
+     */
+    private List<UserSummaryVO> searchDatabase(String keyword, int limit) {
+        String prefix = LIKE_SPECIAL_CHARACTERS.matcher(keyword).replaceAll("\\\\$0") + "%";
+        Map<String, Object> params = Map.of("prefix", prefix, "limit", limit);
+        Comparator<String> rank = searchRank(keyword.toLowerCase(Locale.ROOT));
+        Map<Long, UserSummaryVO> rows = new LinkedHashMap<>();
+        Map<Long, String> matched = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (String column : SEARCH_COLUMNS) {
+                jdbcTemplate.query(SELECT_SQL + " where " + column + " like :prefix order by " + column + " limit :limit",
+                        params, (RowCallbackHandler) rs -> {
+                            UserSummaryVO row = mapRow(rs);
+                            String value = "email".equals(column) ? row.getEmail() : row.getUsername();
+                            rows.putIfAbsent(row.getId(), row);
+                            // 用户名和邮箱都匹配时按排名靠前的取值排序
+                            matched.merge(row.getId(), value.toLowerCase(Locale.ROOT),
+                                    (a, b) -> rank.compare(a, b) <= 0 ? a : b);
+                        });
+            }
+        });
+        return rows.values().stream()
+                .sorted(Comparator.comparing(row -> matched.get(row.getId()), rank))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public long export(UserQueryVO query, UserImportService.Format format, OutputStream output) throws IOException {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = SELECT_SQL + where(query, params) + " order by id";
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == UserImportService.Format.CSV
+                ? new CsvRowWriter(writer)
+                : new NdjsonRowWriter(objectMapper, writer);
+
+        long[] rows = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> exportJdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(mapRow(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // 客户端中断下载
+            log.warn("导出用户中断，已写出{}行：{}", rows[0], e.getMessage());
+            throw e.getCause();
+        }
+        rowWriter.finish();
+        log.info("导出用户完成，共{}行", rows[0]);
+        return rows[0];
+    }
+
+    /**
+     * 与搜索索引一致的排名：完全匹配优先，其次取值越短越靠前
+     */
+    private static Comparator<String> searchRank(String keyword) {
+        return Comparator.comparing((String value) -> !value.equals(keyword))
+                .thenComparingInt(String::length)
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    private static String where(UserQueryVO query, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder(" where id > :afterId");
+        params.addValue("afterId", query.getAfterId() == null ? 0L : query.getAfterId());
+        if (query.getRegisteredFrom() != null) {
+            where.append(" and register_date >= :registeredFrom");
+            params.addValue("registeredFrom", Timestamp.from(query.getRegisteredFrom()));
+        }
+        if (query.getRegisteredTo() != null) {
+            where.append(" and register_date < :registeredTo");
+            params.addValue("registeredTo", Timestamp.from(query.getRegisteredTo()));
+        }
+        if (query.getSex() != null && !query.getSex().isEmpty()) {
+            where.append(" and sex = :sex");
+            params.addValue("sex", query.getSex());
+        }
+        return where.toString();
+    }
+
+    private static UserSummaryVO mapRow(ResultSet rs) throws SQLException {
+        String sex = rs.getString("sex");
+        return new UserSummaryVO(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("email"),
+                sex == null || sex.isEmpty() ? null : sex.charAt(0),
+                toInstant(rs.getTimestamp("register_date")),
+                toInstant(rs.getTimestamp("last_modify_date")));
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private interface RowWriter {
+
+        void write(UserSummaryVO row) throws IOException;
+
+        void finish() throws IOException;
+
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(UserSummaryVO row) throws IOException {
+            writer.write(row.getId().toString());
+            writer.write(',');
+            writeField(row.getUsername());
+            writer.write(',');
+            writeField(row.getEmail());
+            writer.write(',');
+            if (row.getSex() != null) {
+                writer.write(row.getSex());
+            }
+            writer.write(',');
+            writeField(row.getRegisterDate() == null ? null : row.getRegisterDate().toString());
+            writer.write(',');
+            writeField(row.getLastModifyDate() == null ? null : row.getLastModifyDate().toString());
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * 包含逗号、引号或换行时按 RFC 4180 加引号
+         */
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final ObjectWriter objectWriter;
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(ObjectMapper objectMapper, Writer writer) throws IOException {
+            // 每行写完不刷新，由缓冲区决定何时写出
+            this.objectWriter = objectMapper.writerFor(UserSummaryVO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(UserSummaryVO row) throws IOException {
+            objectWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+
+    }
+
+}
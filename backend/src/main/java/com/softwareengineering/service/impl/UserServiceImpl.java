@@ -1,91 +1,150 @@
 package com.softwareengineering.service.impl;
 
+import com.softwareengineering.cache.UserCache;
 import com.softwareengineering.common.ResultCode;
-import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.dao.UserCredentials;
 import com.softwareengineering.dao.UserRepository;
+import com.softwareengineering.datasource.ReadWriteRoutingDataSource;
 import com.softwareengineering.entity.User;
+import com.softwareengineering.event.UserCreatedEvent;
 import com.softwareengineering.exception.BusinessException;
+import com.softwareengineering.index.UserExistenceIndex;
 import com.softwareengineering.mapper.UserMapper;
+import com.softwareengineering.service.MailService;
+import com.softwareengineering.service.PasswordHashService;
+import com.softwareengineering.service.SessionService;
 import com.softwareengineering.service.UserService;
-import com.softwareengineering.util.HexUtil;
+import com.softwareengineering.service.VerificationCodeService;
+import com.softwareengineering.vo.LoginResultVO;
 import com.softwareengineering.vo.UserLoginVO;
 import com.softwareengineering.vo.UserRegisterVO;
+import io.micrometer.observation.annotation.Observed;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Random;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import java.util.Set;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * 各公开方法的耗时记录在 user.service 指标中(按 method 区分)，开启追踪时生成span
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
+@Observed(name = "user.service")
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
 
     private final UserMapper userMapper;
 
-    private final JavaMailSender mailSender;
+    private final MailService mailService;
 
-    private final StringRedisTemplate redisTemplate;
+    private final PasswordHashService passwordHashService;
 
-    private static final String VERIFICATION_CODE_PREFIX = "verification:code:";
+    private final VerificationCodeService verificationCodeService;
 
-    private static final long VERIFICATION_CODE_EXPIRE = 5;
+    private final SessionService sessionService;
+
+    private final UserExistenceIndex userExistenceIndex;
+
+    private final UserCache userCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Duration VERIFICATION_CODE_EXPIRE = Duration.ofMinutes(5);
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public void register(UserRegisterVO registerVO) {
-        // 验证用户名和邮箱是否已存在
-        if (userRepository.existsByUsername(registerVO.getUsername())) {
-            throw new BusinessException(ResultCode.USER_EXISTED);
-        }
-        if (userRepository.existsByEmail(registerVO.getEmail())) {
-            throw new BusinessException(ResultCode.EMAIL_EXISTED);
+        // 原子地比较并删除验证码，不一致时不删除
+        String email = registerVO.getEmail();
+        Long remainingMillis = verificationCodeService.consume(email, registerVO.getVerificationCode());
+        if (remainingMillis == null) {
+            throw BusinessException.of(ResultCode.VERIFICATION_CODE_ERROR);
         }
 
-        // 验证验证码
-        String codeKey = VERIFICATION_CODE_PREFIX + registerVO.getEmail();
-        String savedCode = redisTemplate.opsForValue().get(codeKey);
-        if (savedCode == null || !savedCode.equals(registerVO.getVerificationCode())) {
-            throw new BusinessException(ResultCode.VERIFICATION_CODE_ERROR);
+        // 转换并保存用户，用户名和邮箱的唯一性由唯一索引保证，并发注册时也只有一个能成功
+        User user = userMapper.toEntity(registerVO);
+        try {
+            user.setPassword(passwordHashService.hash(registerVO.getPassword()));
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // 注册失败时归还验证码，用户修改用户名后可以继续使用
+            verificationCodeService.restore(email, registerVO.getVerificationCode(), remainingMillis);
+            throw BusinessException.of(duplicateResultCode(e));
+        } catch (BusinessException e) {
+            verificationCodeService.restore(email, registerVO.getVerificationCode(), remainingMillis);
+            throw e;
         }
+        eventPublisher.publishEvent(new UserCreatedEvent(user.getUsername(), user.getEmail()));
+    }
 
-        // 转换并保存用户
-        User user = userMapper.toEntity(registerVO);
-        user.setPassword(HexUtil.encryptAndFormat(registerVO.getPassword()));
-        userRepository.save(user);
+    /**
+     * 根据违反的唯一索引确定错误码
+     */
+    private static ResultCode duplicateResultCode(DataIntegrityViolationException e) {
+        String detail = e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : e.getMostSpecificCause().getMessage();
+        detail = detail == null ? "" : detail.toLowerCase(Locale.ROOT);
+        if (detail.contains(User.USERNAME_UNIQUE_INDEX)) {
+            return ResultCode.USER_EXISTED;
+        }
+        if (detail.contains(User.EMAIL_UNIQUE_INDEX)) {
+            return ResultCode.EMAIL_EXISTED;
+        }
+        throw e;
+    }
 
-        // 删除验证码
-        redisTemplate.delete(codeKey);
+    @Override
+    public boolean isUsernameAvailable(String username) {
+        return !userExistenceIndex.mightContainUsername(username) || !userRepository.existsByUsername(username);
     }
 
     @Override
-    public User login(UserLoginVO loginVO) {
-        User user = userRepository.findByUsername(loginVO.getUsername());
-        if (user == null) {
-            throw new BusinessException(ResultCode.USER_NOT_FOUND);
+    public LoginResultVO login(UserLoginVO loginVO) {
+        // 只查询ID和密码哈希，不加载整个用户实体
+        UserCredentials credentials = userCache.findByUsername(loginVO.getUsername(), this::loadCredentials);
+        if (credentials == null) {
+            throw BusinessException.of(ResultCode.USER_NOT_FOUND);
         }
-        if (!HexUtil.verify(user.getPassword(), loginVO.getPassword())) {
-            throw new BusinessException(ResultCode.PASSWORD_ERROR);
+        if (!passwordHashService.verify(credentials.password(), loginVO.getPassword())) {
+            throw BusinessException.of(ResultCode.PASSWORD_ERROR);
         }
+        if (passwordHashService.needsRehash(credentials.password())) {
+            rehash(credentials, loginVO.getUsername(), loginVO.getPassword());
+        }
+
+        return new LoginResultVO(credentials.id(), sessionService.create(credentials.id()));
+    }
+
+    /**
+     * 密码哈希始终从主库读取：从库可能还是重置前的旧哈希，读到后旧密码仍能登录，还会被写入用户缓存。
+     * 只在缓存未命中时执行，不会明显增加主库负载
+     */
+    private UserCredentials loadCredentials(String username) {
+        return ReadWriteRoutingDataSource.usePrimary(() -> userRepository.findCredentialsByUsername(username));
+    }
 
-        // 生成会话ID并存储到Redis
-        String sessionId = UUID.randomUUID().toString();
-        redisTemplate.opsForValue().set(
-                CommonConstants.Redis.SESSION_PREFIX + sessionId,
-                user.getId().toString(),
-                CommonConstants.Redis.SESSION_EXPIRE,
-                TimeUnit.MINUTES
-        );
-
-        // 设置sessionId到用户对象中(临时属性)
-        user.setSessionId(sessionId);
-        return user;
+    /**
+     * 登录成功后将旧版本的密码记录升级为当前参数，失败不影响登录
+     */
+    private void rehash(UserCredentials credentials, String username, String plainPassword) {
+        try {
+            String newPassword = passwordHashService.hash(plainPassword);
+            if (userRepository.compareAndSetPassword(credentials.id(), credentials.password(), newPassword) > 0) {
+                // 批量更新不触发实体监听器，需手动清除缓存
+                userCache.evict(username);
+            }
+        } catch (BusinessException e) {
+            log.warn("密码哈希升级跳过，用户ID：{}，原因：{}", credentials.id(), e.getMessage());
+        }
     }
 
     @Override
@@ -93,69 +152,56 @@ public class UserServiceImpl implements UserService {
         // 生成6位随机验证码
         String code = String.format("%06d", new Random().nextInt(1000000));
 
-        // 发送邮件
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(email);
-        message.setSubject("验证码");
-        message.setText("您的验证码是：" + code + "，有效期5分钟。");
-        mailSender.send(message);
-
-        // 保存到Redis
-        redisTemplate.opsForValue().set(
-                VERIFICATION_CODE_PREFIX + email,
-                code,
-                VERIFICATION_CODE_EXPIRE,
-                TimeUnit.MINUTES
-        );
+        verificationCodeService.save(email, code, VERIFICATION_CODE_EXPIRE);
+
+        // 写入发件箱，由后台异步发送
+        mailService.send(email, "验证码", "您的验证码是：" + code + "，有效期5分钟。");
     }
 
     @Override
     public void logout(String sessionId) {
-        String key = CommonConstants.Redis.SESSION_PREFIX + sessionId;
-        String userId = redisTemplate.opsForValue().get(key);
+        if (!sessionService.remove(sessionId)) {
+            throw BusinessException.of(ResultCode.UNAUTHORIZED);
+        }
+    }
+
+    @Override
+    public void logoutAll(String sessionId) {
+        Long userId = sessionService.resolve(sessionId);
         if (userId == null) {
-            throw new BusinessException(ResultCode.UNAUTHORIZED);
+            throw BusinessException.of(ResultCode.UNAUTHORIZED);
         }
-        redisTemplate.delete(key);
+        sessionService.removeAll(userId);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void resetPassword(String email, String verificationCode, String newPassword) {
         // 验证验证码
-        String codeKey = VERIFICATION_CODE_PREFIX + email;
-        String savedCode = redisTemplate.opsForValue().get(codeKey);
-        if (savedCode == null || !savedCode.equals(verificationCode)) {
-            throw new BusinessException(ResultCode.VERIFICATION_CODE_ERROR);
+        if (!verificationCodeService.matches(email, verificationCode)) {
+            throw BusinessException.of(ResultCode.VERIFICATION_CODE_ERROR);
         }
 
-        // 查找用户
+        // 查找用户，直接查询数据库，保存后由实体监听器清除缓存
         User user = userRepository.findByEmail(email);
         if (user == null) {
-            throw new BusinessException(ResultCode.USER_NOT_FOUND);
+            throw BusinessException.of(ResultCode.USER_NOT_FOUND);
         }
 
+        // 在哈希线程池中计算，线程池饱和时直接返回服务器繁忙
+        String newPasswordHash = passwordHashService.hash(newPassword);
+
         try {
-            // 直接使用新密码加密并保存，不要使用 encryptAndFormat
-            user.setPassword(HexUtil.encryptAndFormat(newPassword));
+            user.setPassword(newPasswordHash);
             userRepository.saveAndFlush(user);  // 使用 saveAndFlush 确保立即写入数据库
             
             // 删除验证码
-            redisTemplate.delete(codeKey);
+            verificationCodeService.remove(email);
             
             // 删除该用户的所有会话
-            String sessionPattern = CommonConstants.Redis.SESSION_PREFIX + "*";
-            Set<String> keys = redisTemplate.keys(sessionPattern);
-            if (keys != null) {
-                for (String key : keys) {
-                    String userId = redisTemplate.opsForValue().get(key);
-                    if (userId != null && userId.equals(user.getId().toString())) {
-                        redisTemplate.delete(key);
-                    }
-                }
-            }
+            sessionService.removeAll(user.getId());
         } catch (Exception e) {
-            throw new BusinessException(ResultCode.SYSTEM_ERROR, "密码重置失败：" + e.getMessage());
+            throw new BusinessException(ResultCode.SYSTEM_ERROR, "密码重置失败：" + e.getMessage(), e);
         }
     }
 
@@ -0,0 +1,54 @@
+package com.softwareengineering.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 按数据库排序规则折叠用户名、邮箱
+ * <p>
+ * 数据库排序规则(utf8mb4_0900_ai_ci)忽略大小写和重音，如 José 与 jose 相等。
+ * 折叠后相等的取值在数据库中视为同一个值，可以作为索引和缓存的键
+ */
+public final class CollationKeys {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private CollationKeys() {
+    }
+
+    /**
+     * 统一折叠为小写ASCII；无法折叠为ASCII的取值返回null，调用方应直接查询数据库
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (!isAscii(value)) {
+            value = COMBINING_MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFKD)).replaceAll("")
+                    .replace("ß", "ss");
+            if (!isAscii(value)) {
+                return null;
+            }
+        }
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 无法折叠为ASCII的取值只忽略大小写，用于不回退到数据库查询的场景，如限流的键
+     */
+    public static String normalizeOrLowerCase(String value) {
+        String normalized = normalize(value);
+        return normalized != null || value == null ? normalized : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
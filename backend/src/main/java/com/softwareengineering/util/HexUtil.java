@@ -1,13 +1,16 @@
 package com.softwareengineering.util;
 
-import cn.hutool.core.util.RandomUtil;
-import cn.hutool.crypto.SecureUtil;
-import cn.hutool.crypto.digest.DigestUtil;
-import cn.hutool.crypto.digest.Digester;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
 import java.util.concurrent.ThreadLocalRandom;
 import jakarta.validation.constraints.NotBlank;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.bouncycastle.crypto.digests.MD5Digest;
+import org.bouncycastle.crypto.digests.SHA1Digest;
+import org.bouncycastle.crypto.digests.SM3Digest;
 
 /**
  * 哈希加密和比对工具
@@ -17,6 +20,11 @@ import jakarta.validation.constraints.NotBlank;
  * 如果不想被入侵者通过哈希长度判断算法类型，也可以对哈希进行统一长度裁剪
  * <p>
  * 当然，也可以混合使用多种加密算法
+ * <p>
+ * 存储格式为 {@code 盐值#算法编号#十六进制摘要}。验证时不拆分字符串、不生成十六进制字符串，
+ * 摘要实例按线程复用，直接与存储的十六进制逐字节做恒定时间比较
+ * <p>
+ * v1-v3 为快速摘要，v4 为 Argon2id，其盐值字段为 {@code 内存KiB$迭代次数$并行度$Base64盐值}
  *
  * @author OrionLi
  * @date 2024/02/11
@@ -26,28 +34,38 @@ public final class HexUtil {
     /**
      * 分隔符
      */
-    private static final String SEPARATOR = "#";
+    private static final char SEPARATOR = '#';
 
     /**
-     * 分割 {@link HexUtil#SEPARATOR} 后的长度
+     * 盐值字符集，与 Hutool RandomUtil.randomString 一致
      */
-    private static final int AFTER_SEPARATOR_LENGTH = 3;
+    private static final String SALT_CHARACTERS = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final char ARGON2_FIELD_SEPARATOR = '$';
+
+    private static final int ARGON2_SALT_LENGTH = 16;
 
     /**
-     * sm3摘要算法
+     * 已知的加密策略
      */
-    private static final Digester SM3_DIGESTER = DigestUtil.digester("sm3");
+    private static final Algorithm[] ALGORITHMS = Algorithm.values();
+
+    /**
+     * 快速摘要策略，仅用于兼容已有记录和批量导入，新密码应使用 {@link #encryptAndFormat(String, Argon2Cost)}
+     */
+    private static final Algorithm[] DIGEST_ALGORITHMS = {Algorithm.V1, Algorithm.V2, Algorithm.V3};
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
 
     /**
-     * 加密策略工厂，存储已知的加密策略实例
+     * 每个线程复用的摘要实例和输出缓冲
      */
-    private static final Map<String, EncryptionPolicy> ENCRYPTION_POLICY_MAP = Map.of(
-            "v1", (plainPassword, salt) -> SecureUtil.md5(plainPassword + salt),
-            "v2", (plainPassword, salt) -> SecureUtil.sha1(plainPassword + salt),
-            "v3", ((plainPassword, salt) -> SM3_DIGESTER.digestHex(plainPassword + salt))
-    );
+    private static final ThreadLocal<Digests> DIGESTS = ThreadLocal.withInitial(Digests::new);
 
-    private static final List<String> POLICY_CODES = ENCRYPTION_POLICY_MAP.keySet().stream().toList();
+    private HexUtil() {
+    }
 
     /**
      * 用户登录时调用此方法，根据数据库中取出的password字段进行验证
@@ -58,20 +76,31 @@ public final class HexUtil {
      */
     @NotBlank
     public static boolean verify(String storedPassword, String plainPassword) {
-        String[] parts = storedPassword.split(SEPARATOR);
-        if (parts.length != AFTER_SEPARATOR_LENGTH) {
+        // 与 String.split 的行为保持一致：忽略末尾的分隔符
+        int end = storedPassword.length();
+        while (end > 0 && storedPassword.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        int first = storedPassword.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : storedPassword.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0 || second >= end || storedPassword.lastIndexOf(SEPARATOR, end - 1) != second) {
             throw new IllegalArgumentException("Invalid password format, storedPassword: " + storedPassword);
         }
-        String salt = parts[0];
-        String algorithmCode = parts[1];
-        String encryptedValue = parts[2];
 
-        EncryptionPolicy policy = ENCRYPTION_POLICY_MAP.get(algorithmCode);
-        if (policy == null) {
-            throw new UnsupportedOperationException("Unsupported util algorithm: " + algorithmCode);
+        Algorithm algorithm = Algorithm.of(storedPassword, first + 1, second);
+        if (algorithm == null) {
+            throw new UnsupportedOperationException("Unsupported util algorithm: "
+                    + storedPassword.substring(first + 1, second));
         }
 
-        return encryptedValue.equals(policy.encrypt(plainPassword, salt));
+        int hexStart = second + 1;
+        if (end - hexStart != algorithm.digestLength * 2) {
+            return false;
+        }
+        byte[] digest = algorithm == Algorithm.V4
+                ? argon2(plainPassword, storedPassword.substring(0, first))
+                : DIGESTS.get().digest(algorithm, plainPassword, storedPassword, first);
+        return constantTimeEqualsHex(digest, algorithm.digestLength, storedPassword, hexStart);
     }
 
     /**
@@ -82,33 +111,216 @@ public final class HexUtil {
      */
     @NotBlank
     public static String encryptAndFormat(String plainPassword) {
-        String algorithmCode = POLICY_CODES.get(ThreadLocalRandom.current().nextInt(POLICY_CODES.size()));
-        EncryptionPolicy policy = ENCRYPTION_POLICY_MAP.get(algorithmCode);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Algorithm algorithm = DIGEST_ALGORITHMS[random.nextInt(DIGEST_ALGORITHMS.length)];
+
+        int saltLength = random.nextInt(4, 8);
+        StringBuilder builder = new StringBuilder(saltLength + algorithm.code.length() + 2 + algorithm.digestLength * 2);
+        for (int i = 0; i < saltLength; i++) {
+            builder.append(SALT_CHARACTERS.charAt(random.nextInt(SALT_CHARACTERS.length())));
+        }
+
+        byte[] digest = DIGESTS.get().digest(algorithm, plainPassword, builder, saltLength);
+        builder.append(SEPARATOR).append(algorithm.code).append(SEPARATOR);
+        for (int i = 0; i < algorithm.digestLength; i++) {
+            builder.append(HEX_DIGITS[(digest[i] >> 4) & 0xF]).append(HEX_DIGITS[digest[i] & 0xF]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 使用 Argon2id 创建密码记录，耗时和内存由 cost 决定，不应在请求线程上直接调用
+     *
+     * @param plainPassword 明文密码
+     * @param cost Argon2 参数
+     * @return 格式化后的加密密码字符串
+     */
+    @NotBlank
+    public static String encryptAndFormat(String plainPassword, Argon2Cost cost) {
+        byte[] salt = new byte[ARGON2_SALT_LENGTH];
+        SECURE_RANDOM.nextBytes(salt);
+        String saltField = cost.memoryKiB() + "" + ARGON2_FIELD_SEPARATOR + cost.iterations() + ARGON2_FIELD_SEPARATOR
+                + cost.parallelism() + ARGON2_FIELD_SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(salt);
+        byte[] hash = argon2(plainPassword, saltField);
+
+        StringBuilder builder = new StringBuilder(saltField.length() + 4 + hash.length * 2)
+                .append(saltField).append(SEPARATOR).append(Algorithm.V4.code).append(SEPARATOR);
+        for (byte b : hash) {
+            builder.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 是否为 Argon2 记录，验证这类记录开销较大
+     */
+    public static boolean isArgon2(String storedPassword) {
+        int first = storedPassword.indexOf(SEPARATOR);
+        return first >= 0 && storedPassword.startsWith(Algorithm.V4.code + SEPARATOR, first + 1);
+    }
+
+    /**
+     * 记录是否需要升级：快速摘要记录，或 Argon2 参数弱于 cost
+     *
+     * @param storedPassword 数据库中存储的密码字符串
+     * @param cost 当前的 Argon2 参数
+     */
+    public static boolean needsRehash(String storedPassword, Argon2Cost cost) {
+        if (!isArgon2(storedPassword)) {
+            return true;
+        }
+        Argon2Cost current = Argon2Cost.parse(storedPassword.substring(0, storedPassword.indexOf(SEPARATOR)));
+        return current.memoryKiB() < cost.memoryKiB() || current.iterations() < cost.iterations();
+    }
+
+    private static byte[] argon2(String plainPassword, String saltField) {
+        Argon2Cost cost = Argon2Cost.parse(saltField);
+        byte[] salt = Base64.getUrlDecoder().decode(saltField.substring(saltField.lastIndexOf(ARGON2_FIELD_SEPARATOR) + 1));
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        generator.init(new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withMemoryAsKB(cost.memoryKiB())
+                .withIterations(cost.iterations())
+                .withParallelism(cost.parallelism())
+                .withSalt(salt)
+                .build());
+        byte[] hash = new byte[Algorithm.V4.digestLength];
+        generator.generateBytes(plainPassword.getBytes(StandardCharsets.UTF_8), hash);
+        return hash;
+    }
+
+    /**
+     * 恒定时间比较摘要与存储的十六进制，只接受小写十六进制，与原先的字符串比较结果一致
+     */
+    private static boolean constantTimeEqualsHex(byte[] digest, int length, String hex, int offset) {
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            int high = hexValue(hex.charAt(offset + 2 * i));
+            int low = hexValue(hex.charAt(offset + 2 * i + 1));
+            // 非法字符时 high 或 low 为 -1，组合后为负数，diff 一定非零
+            diff |= ((high << 4) | low) ^ (digest[i] & 0xFF);
+        }
+        return diff == 0;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * 加密策略，编号写入存储的密码字符串中，已有的编号和算法不能修改
+     */
+    enum Algorithm {
+
+        V1("v1", 16),
+
+        V2("v2", 20),
 
-        String dynamicSalt = RandomUtil.randomString(ThreadLocalRandom.current().nextInt(4, 8));
-        String encryptedValue = policy.encrypt(plainPassword, dynamicSalt);
+        V3("v3", 32),
+
+        V4("v4", 32);
+
+        private final String code;
+
+        private final int digestLength;
+
+        Algorithm(String code, int digestLength) {
+            this.code = code;
+            this.digestLength = digestLength;
+        }
+
+        private static Algorithm of(String source, int start, int end) {
+            for (Algorithm algorithm : ALGORITHMS) {
+                if (end - start == algorithm.code.length()
+                        && source.regionMatches(start, algorithm.code, 0, algorithm.code.length())) {
+                    return algorithm;
+                }
+            }
+            return null;
+        }
 
-        return dynamicSalt + SEPARATOR + algorithmCode + SEPARATOR + encryptedValue;
     }
 
     /**
-     * 加密策略接口
+     * Argon2 参数
      *
-     * @author OrionLi
+     * @param memoryKiB 内存开销(KiB)
+     * @param iterations 迭代次数
+     * @param parallelism 并行度
+     */
+    public record Argon2Cost(int memoryKiB, int iterations, int parallelism) {
+
+        private static Argon2Cost parse(String saltField) {
+            String[] fields = saltField.split("\\" + ARGON2_FIELD_SEPARATOR);
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Invalid argon2 parameters: " + saltField);
+            }
+            try {
+                return new Argon2Cost(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid argon2 parameters: " + saltField, e);
+            }
+        }
+
+    }
+
+    /**
+     * 线程内复用的摘要实例
      */
-    @FunctionalInterface
-    interface EncryptionPolicy {
+    private static final class Digests {
+
+        private final Digest[] digests = {new MD5Digest(), new SHA1Digest(), new SM3Digest()};
+
+        private final byte[] output = new byte[32];
 
         /**
-         * 加密给定的明文密码
+         * 计算 UTF-8(plainPassword + salt) 的摘要，salt 为 saltSource 的前 saltLength 个字符
          *
-         * @param plainPassword 明文密码
-         * @param salt 盐值
-         * @return 加密后的密码字符串
+         * @return 线程内复用的输出缓冲，有效长度为算法的摘要长度
          */
-        String encrypt(String plainPassword, String salt);
+        private byte[] digest(Algorithm algorithm, String plainPassword, CharSequence saltSource, int saltLength) {
+            Digest digest = digests[algorithm.ordinal()];
+            digest.reset();
+            int passwordLength = plainPassword.length();
+            int total = passwordLength + saltLength;
+            for (int i = 0; i < total; i++) {
+                char c = i < passwordLength ? plainPassword.charAt(i) : saltSource.charAt(i - passwordLength);
+                if (c < 0x80) {
+                    digest.update((byte) c);
+                } else if (c < 0x800) {
+                    digest.update((byte) (0xC0 | (c >> 6)));
+                    digest.update((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    char next = i + 1 < total
+                            ? (i + 1 < passwordLength ? plainPassword.charAt(i + 1) : saltSource.charAt(i + 1 - passwordLength))
+                            : 0;
+                    if (Character.isHighSurrogate(c) && Character.isLowSurrogate(next)) {
+                        int codePoint = Character.toCodePoint(c, next);
+                        digest.update((byte) (0xF0 | (codePoint >> 18)));
+                        digest.update((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                        digest.update((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                        digest.update((byte) (0x80 | (codePoint & 0x3F)));
+                        i++;
+                    } else {
+                        // 与 String.getBytes(UTF_8) 一致，不成对的代理字符编码为 '?'
+                        digest.update((byte) '?');
+                    }
+                } else {
+                    digest.update((byte) (0xE0 | (c >> 12)));
+                    digest.update((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    digest.update((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+            digest.doFinal(output, 0);
+            return output;
+        }
 
     }
 
 }
-
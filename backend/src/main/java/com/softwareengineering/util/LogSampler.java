@@ -0,0 +1,74 @@
+package com.softwareengineering.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 按键限制日志频率：每个时间窗口内前 burst 次全部记录，之后每 sampleEvery 次记录一次
+ */
+public final class LogSampler {
+
+    private final long windowNanos;
+
+    private final int burst;
+
+    private final int sampleEvery;
+
+    private final LongSupplier nanoTime;
+
+    private final Map<Object, Window> windows = new ConcurrentHashMap<>();
+
+    public LogSampler(Duration window, int burst, int sampleEvery) {
+        this(window, burst, sampleEvery, System::nanoTime);
+    }
+
+    LogSampler(Duration window, int burst, int sampleEvery, LongSupplier nanoTime) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be positive");
+        }
+        this.windowNanos = window.toNanos();
+        this.burst = burst;
+        this.sampleEvery = sampleEvery;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @return 需要记录时返回上次记录以来跳过的次数，不需要记录时返回-1
+     */
+    public long acquire(Object key) {
+        long now = nanoTime.getAsLong();
+        Window window = windows.computeIfAbsent(key, k -> new Window(now));
+        // 临界区只做计数，不会长时间占用
+        synchronized (window) {
+            if (now - window.start >= windowNanos) {
+                window.start = now;
+                window.count = 0;
+            }
+            long count = ++window.count;
+            if (count <= burst || (count - burst) % sampleEvery == 0) {
+                long skipped = window.skipped;
+                window.skipped = 0;
+                return skipped;
+            }
+            window.skipped++;
+            return -1;
+        }
+    }
+
+    private static final class Window {
+
+        private long start;
+
+        private long count;
+
+        private long skipped;
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+    }
+
+}
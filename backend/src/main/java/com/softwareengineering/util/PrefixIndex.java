@@ -0,0 +1,140 @@
+package com.softwareengineering.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不可变的前缀索引：按键排序的两个平行数组，前缀查询为一次二分查找加顺序扫描
+ * <p>
+ * 相比逐字符的字典树，没有节点对象，内存接近键和值本身的大小
+ */
+public final class PrefixIndex {
+
+    /**
+     * 每个数组元素的引用大小，按开启压缩指针估算
+     */
+    private static final int REFERENCE_BYTES = 4;
+
+    private final String[] keys;
+
+    private final String[] values;
+
+    private final long sizeInBytes;
+
+    private PrefixIndex(String[] keys, String[] values, long sizeInBytes) {
+        this.keys = keys;
+        this.values = values;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return 估算的内存占用(字节)，相同的字符串实例只计算一次
+     */
+    public long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * 按键的字典序依次回调以 prefix 开头的条目
+     *
+     * @param max 最多回调的条目数
+     * @return 回调的条目数
+     */
+    public int forEachWithPrefix(String prefix, int max, EntryConsumer consumer) {
+        int count = 0;
+        for (int i = lowerBound(prefix); i < keys.length && count < max && keys[i].startsWith(prefix); i++, count++) {
+            consumer.accept(keys[i], values[i]);
+        }
+        return count;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 估算 String 的内存：对象头和字段约24字节，Latin1 的 byte[] 头16字节加内容，按8字节对齐
+     */
+    public static long estimateSize(String value) {
+        return 24 + ((16L + value.length() + 7) & ~7L);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(String key, String value);
+
+    }
+
+    public static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private final Map<String, Boolean> distinctStrings = new IdentityHashMap<>();
+
+        private long stringBytes;
+
+        private Builder() {
+        }
+
+        /**
+         * 值相同时应传入同一个字符串实例，内存只计算一次
+         */
+        public Builder add(String key, String value) {
+            entries.add(new Entry(key, value));
+            count(key);
+            count(value);
+            return this;
+        }
+
+        /**
+         * @return 构建后的估算内存
+         */
+        public long sizeInBytes() {
+            return stringBytes + 2L * entries.size() * REFERENCE_BYTES;
+        }
+
+        public PrefixIndex build() {
+            entries.sort(Comparator.comparing(Entry::key));
+            String[] keys = new String[entries.size()];
+            String[] values = new String[entries.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = entries.get(i).key();
+                values[i] = entries.get(i).value();
+            }
+            return new PrefixIndex(keys, values, sizeInBytes());
+        }
+
+        private void count(String value) {
+            if (distinctStrings.put(value, Boolean.TRUE) == null) {
+                stringBytes += estimateSize(value);
+            }
+        }
+
+    }
+
+    private record Entry(String key, String value) {
+    }
+
+}
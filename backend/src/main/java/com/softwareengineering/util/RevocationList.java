@@ -0,0 +1,63 @@
+package com.softwareengineering.util;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 按过期时间分桶的令牌吊销表
+ * <p>
+ * 单个令牌按其过期时间所在的分钟分桶，整桶过期后一次性丢弃；用户级吊销只记录令牌代数的截止值，
+ * 代数小于截止值的令牌都视为已吊销，不比较各节点的时钟。截止值保留到吊销时指定的时间，
+ * 由吊销节点按集群内令牌的最长有效期计算。吊销表的大小只与有效期内的吊销次数有关
+ */
+public final class RevocationList {
+
+    private static final long BUCKET_MILLIS = 60_000;
+
+    private final ConcurrentSkipListMap<Long, Set<Long>> tokenBuckets = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentHashMap<Long, UserCutoff> userCutoffs = new ConcurrentHashMap<>();
+
+    public void revokeToken(long tokenId, long expiresAt) {
+        tokenBuckets.computeIfAbsent(expiresAt / BUCKET_MILLIS, bucket -> ConcurrentHashMap.newKeySet()).add(tokenId);
+    }
+
+    /**
+     * @param generation  代数小于该值的令牌都失效
+     * @param retainUntil 截止值保留到该时间戳(毫秒)
+     */
+    public void revokeUser(long userId, long generation, long retainUntil) {
+        userCutoffs.merge(userId, new UserCutoff(generation, retainUntil), (current, revoked) -> new UserCutoff(
+                Math.max(current.generation(), revoked.generation()), Math.max(current.retainUntil(), revoked.retainUntil())));
+    }
+
+    public boolean isRevoked(long tokenId, long userId, long generation, long expiresAt) {
+        if (!userCutoffs.isEmpty()) {
+            UserCutoff cutoff = userCutoffs.get(userId);
+            if (cutoff != null && generation < cutoff.generation()) {
+                return true;
+            }
+        }
+        Set<Long> bucket = tokenBuckets.get(expiresAt / BUCKET_MILLIS);
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    /**
+     * 丢弃已整体过期的分桶和截止时间
+     *
+     * @param now 当前时间戳(毫秒)
+     */
+    public void purge(long now) {
+        tokenBuckets.headMap(now / BUCKET_MILLIS).clear();
+        userCutoffs.values().removeIf(cutoff -> cutoff.retainUntil() < now);
+    }
+
+    public int size() {
+        return tokenBuckets.values().stream().mapToInt(Set::size).sum() + userCutoffs.size();
+    }
+
+    private record UserCutoff(long generation, long retainUntil) {
+    }
+
+}
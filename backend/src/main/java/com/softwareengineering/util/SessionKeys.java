@@ -0,0 +1,74 @@
+package com.softwareengineering.util;
+
+import com.softwareengineering.constant.CommonConstants;
+import java.util.UUID;
+
+/**
+ * 会话在Redis中的键
+ * <p>
+ * 会话ID的格式为"标签.UUID"，标签由用户ID散列得到。会话键和用户会话索引使用同一个哈希标签，
+ * 在 Redis Cluster 中同一用户的键落在同一个槽，创建会话的管道和删除全部会话的UNLINK只访问一个节点。
+ * 标签只有4096种取值，不能反推出用户ID。
+ * 升级前签发的会话ID是不带标签的UUID，仍使用原来的键，有效期结束前可以继续使用。
+ * 其中更早的版本签发的会话没有登记在任何用户会话索引中
+ */
+public final class SessionKeys {
+
+    private static final char TAG_DELIMITER = '.';
+
+    private static final int TAG_MASK = 0xFFF;
+
+    private SessionKeys() {
+    }
+
+    public static String newSessionId(Long userId) {
+        return tag(userId) + TAG_DELIMITER + UUID.randomUUID();
+    }
+
+    /**
+     * 会话键，如 user:session:{3af}3af.xxx；升级前的会话ID不含标签，使用原来的键 user:session:xxx
+     */
+    public static String sessionKey(String sessionId) {
+        int delimiter = sessionId.indexOf(TAG_DELIMITER);
+        if (delimiter < 0) {
+            return CommonConstants.Redis.SESSION_PREFIX + sessionId;
+        }
+        String tag = delimiter > 0 ? sessionId.substring(0, delimiter) : sessionId;
+        return CommonConstants.Redis.SESSION_PREFIX + '{' + tag + '}' + sessionId;
+    }
+
+    /**
+     * 用户会话索引键(Set，成员为会话ID)，如 user:sessions:{3af}42
+     */
+    public static String userSessionsKey(Long userId) {
+        return CommonConstants.Redis.USER_SESSIONS_PREFIX + '{' + tag(userId) + '}' + userId;
+    }
+
+    /**
+     * 升级前的用户会话索引键，如 user:sessions:42，成员为不含标签的会话ID
+     */
+    public static String legacyUserSessionsKey(Long userId) {
+        return CommonConstants.Redis.USER_SESSIONS_PREFIX + userId;
+    }
+
+    /**
+     * 删除全部会话时写入的标记，如 user:sessions:legacy-revoked:42，存在期间该用户升级前的会话都无效
+     */
+    public static String legacyRevokedKey(Long userId) {
+        return CommonConstants.Redis.LEGACY_SESSIONS_REVOKED_PREFIX + userId;
+    }
+
+    /**
+     * @return 是否为升级前签发的会话ID，这些会话不再滑动续期，有效期结束后自然淘汰
+     */
+    public static boolean isLegacy(String sessionId) {
+        return sessionId.indexOf(TAG_DELIMITER) < 0;
+    }
+
+    private static String tag(Long userId) {
+        // 乘以黄金分割常数打散连续的用户ID，取高位
+        long mixed = userId * 0x9E3779B97F4A7C15L;
+        return Integer.toHexString((int) (mixed >>> 52) & TAG_MASK);
+    }
+
+}
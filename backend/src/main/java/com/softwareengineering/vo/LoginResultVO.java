@@ -0,0 +1,19 @@
+package com.softwareengineering.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 登录响应，只包含客户端需要的用户ID和会话ID
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginResultVO {
+
+    private Long id;
+
+    private String sessionId;
+
+}
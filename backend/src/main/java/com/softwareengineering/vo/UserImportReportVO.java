@@ -0,0 +1,33 @@
+package com.softwareengineering.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class UserImportReportVO {
+
+    /**
+     * 读取的数据行数
+     */
+    private long total;
+
+    /**
+     * 成功导入的行数
+     */
+    private long imported;
+
+    /**
+     * 失败的行数
+     */
+    private long failed;
+
+    /**
+     * 失败明细，最多 app.user-import.max-reported-errors 条
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    public record RowError(long line, String username, String reason) {
+    }
+
+}
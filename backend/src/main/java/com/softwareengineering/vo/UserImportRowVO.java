@@ -0,0 +1,16 @@
+package com.softwareengineering.vo;
+
+import lombok.Data;
+
+@Data
+public class UserImportRowVO {
+
+    private String username;
+
+    private String password;
+
+    private String email;
+
+    private String sex;
+
+}
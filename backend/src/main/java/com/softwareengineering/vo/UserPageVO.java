@@ -0,0 +1,20 @@
+package com.softwareengineering.vo;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageVO {
+
+    private List<UserSummaryVO> items;
+
+    /**
+     * 下一页的 afterId，没有下一页时为null
+     */
+    private Long nextAfterId;
+
+}
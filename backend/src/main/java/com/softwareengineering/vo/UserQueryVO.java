@@ -0,0 +1,42 @@
+package com.softwareengineering.vo;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * 用户列表和导出的查询条件
+ */
+@Data
+public class UserQueryVO {
+
+    /**
+     * 上一页最后一个用户的ID，首页不传；导出时从该ID之后开始
+     */
+    @PositiveOrZero(message = "afterId不能为负数")
+    private Long afterId;
+
+    /**
+     * 每页条数，导出时忽略
+     */
+    @Min(value = 1, message = "每页条数不能小于1")
+    @Max(value = 500, message = "每页条数不能大于500")
+    private int limit = 50;
+
+    /**
+     * 注册时间下限(包含)，ISO-8601格式
+     */
+    private Instant registeredFrom;
+
+    /**
+     * 注册时间上限(不包含)，ISO-8601格式
+     */
+    private Instant registeredTo;
+
+    @Pattern(regexp = "[MF]", message = "性别只能是M或F")
+    private String sex;
+
+}
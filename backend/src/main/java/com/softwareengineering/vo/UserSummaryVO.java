@@ -0,0 +1,28 @@
+package com.softwareengineering.vo;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户列表和导出的一行，不包含密码哈希
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryVO {
+
+    private Long id;
+
+    private String username;
+
+    private String email;
+
+    private Character sex;
+
+    private Instant registerDate;
+
+    private Instant lastModifyDate;
+
+}
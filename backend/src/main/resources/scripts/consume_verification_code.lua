@@ -0,0 +1,8 @@
+-- 验证码比较并删除：与 ARGV[1] 一致时删除并返回剩余有效期(毫秒，-1表示未设置过期)，否则返回nil且不删除
+-- KEYS[1]: 验证码
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return false
+end
+local ttl = redis.call('PTTL', KEYS[1])
+redis.call('DEL', KEYS[1])
+return ttl
@@ -0,0 +1,39 @@
+-- 多个令牌桶的原子检查：所有桶都有令牌时各扣一个，否则不扣
+-- KEYS[i]: 令牌桶
+-- ARGV[2i-1]: 桶容量, ARGV[2i]: 每毫秒补充的令牌数
+-- 返回 {0, 0} 表示通过，{i, wait} 表示第i个桶不足，需要等待wait毫秒
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local tokens = {}
+local denied = 0
+local wait = 0
+for i = 1, #KEYS do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local rate = tonumber(ARGV[2 * i])
+    local bucket = redis.call('HMGET', KEYS[i], 'tokens', 'ts')
+    local available = tonumber(bucket[1])
+    local ts = tonumber(bucket[2])
+    if available == nil or ts == nil then
+        available = capacity
+        ts = now
+    end
+    available = math.min(capacity, available + math.max(0, now - ts) * rate)
+    tokens[i] = available
+    if available < 1 then
+        local need = math.ceil((1 - available) / rate)
+        if need > wait then
+            denied = i
+            wait = need
+        end
+    end
+end
+if denied > 0 then
+    return {denied, wait}
+end
+for i = 1, #KEYS do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local rate = tonumber(ARGV[2 * i])
+    redis.call('HSET', KEYS[i], 'tokens', tostring(tokens[i] - 1), 'ts', tostring(now))
+    redis.call('PEXPIRE', KEYS[i], math.ceil(capacity / rate))
+end
+return {0, 0}
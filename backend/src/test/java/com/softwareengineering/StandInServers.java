@@ -0,0 +1,55 @@
+package com.softwareengineering;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * SpringBootTest 共用的进程内Redis协议服务(jedis-mock，消费组由 {@link StreamConsumerGroups} 实现)和SMTP服务(GreenMail)，首次使用时启动，JVM退出时停止。
+ * 其余配置见 application-standin.yml
+ */
+public final class StandInServers {
+
+    private static RedisServer redisServer;
+
+    private static GreenMail greenMail;
+
+    private StandInServers() {
+    }
+
+    /**
+     * 在 {@code @DynamicPropertySource} 方法中调用，注册替身的端口
+     */
+    public static synchronized void register(DynamicPropertyRegistry registry) {
+        if (redisServer == null) {
+            start();
+        }
+        int redisPort = redisServer.getBindPort();
+        int smtpPort = greenMail.getSmtp().getPort();
+        registry.add("redis.port", () -> redisPort);
+        registry.add("mail.port", () -> smtpPort);
+    }
+
+    private static void start() {
+        try {
+            redisServer = StreamConsumerGroups.newRedisServer(new StreamConsumerGroups());
+            redisServer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            greenMail.stop();
+            try {
+                redisServer.stop();
+            } catch (IOException ignored) {
+                // JVM正在退出
+            }
+        }));
+    }
+
+}
@@ -0,0 +1,357 @@
+package com.softwareengineering;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.github.fppt.jedismock.datastructures.Slice;
+import com.github.fppt.jedismock.operations.server.MockExecutor;
+import com.github.fppt.jedismock.server.RedisCommandInterceptor;
+import com.github.fppt.jedismock.server.Response;
+import com.github.fppt.jedismock.server.ServiceOptions;
+import com.github.fppt.jedismock.storage.OperationExecutorState;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * jedis-mock 不支持消费组，由本拦截器在进程内实现Stream命令：
+ * XADD、XLEN、XDEL、XRANGE、XGROUP CREATE、XREADGROUP、XACK、XPENDING、XAUTOCLAIM，Stream键的DEL也在此处理，
+ * 其余命令交给 jedis-mock。只支持测试用到的参数组合
+ */
+public final class StreamConsumerGroups implements RedisCommandInterceptor {
+
+    private final Map<String, Stream> streams = new HashMap<>();
+
+    /**
+     * 启动带消费组支持的 jedis-mock
+     */
+    public static RedisServer newRedisServer(StreamConsumerGroups consumerGroups) {
+        return RedisServer.newRedisServer().setOptions(ServiceOptions.withInterceptor(consumerGroups));
+    }
+
+    @Override
+    public synchronized Slice execCommand(OperationExecutorState state, String name, List<Slice> params) {
+        List<String> args = params.stream().map(Slice::toString).toList();
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "xadd" -> xadd(args);
+            case "xlen" -> Response.integer(streams.containsKey(args.getFirst()) ? streams.get(args.getFirst()).entries.size() : 0);
+            case "xdel" -> xdel(args);
+            case "xrange" -> xrange(args);
+            case "xgroup" -> xgroup(args);
+            case "xreadgroup" -> xreadgroup(args);
+            case "xack" -> xack(args);
+            case "xpending" -> xpending(args);
+            case "xautoclaim" -> xautoclaim(args);
+            case "del" -> del(state, name, params);
+            default -> MockExecutor.proceed(state, name, params);
+        };
+    }
+
+    private Slice xadd(List<String> args) {
+        Stream stream = streams.computeIfAbsent(args.getFirst(), key -> new Stream());
+        StreamId id = args.get(1).equals("*") ? stream.nextId(now()) : StreamId.parse(args.get(1));
+        List<String> fields = args.subList(2, args.size());
+        stream.entries.put(id, List.copyOf(fields));
+        stream.lastId = id;
+        return bulk(id.toString());
+    }
+
+    private Slice xdel(List<String> args) {
+        Stream stream = streams.get(args.getFirst());
+        int deleted = 0;
+        for (String id : args.subList(1, args.size())) {
+            if (stream != null && stream.entries.remove(StreamId.parse(id)) != null) {
+                deleted++;
+            }
+        }
+        return Response.integer(deleted);
+    }
+
+    private Slice xrange(List<String> args) {
+        Stream stream = streams.get(args.getFirst());
+        if (stream == null) {
+            return Response.EMPTY_ARRAY;
+        }
+        long count = args.size() > 4 ? Long.parseLong(args.get(4)) : Long.MAX_VALUE;
+        List<Slice> entries = new ArrayList<>();
+        for (Map.Entry<StreamId, List<String>> entry : stream.entries
+                .subMap(StreamId.parse(args.get(1)), true, StreamId.parse(args.get(2)), true).entrySet()) {
+            if (entries.size() >= count) {
+                break;
+            }
+            entries.add(entry(entry.getKey(), entry.getValue()));
+        }
+        return Response.array(entries);
+    }
+
+    private Slice xgroup(List<String> args) {
+        if (!args.getFirst().equalsIgnoreCase("create")) {
+            return Response.error("ERR unsupported XGROUP subcommand");
+        }
+        String key = args.get(1);
+        Stream stream = streams.get(key);
+        if (stream == null) {
+            if (!args.contains("MKSTREAM") && !args.contains("mkstream")) {
+                return Response.error("ERR The XGROUP subcommand requires the key to exist");
+            }
+            stream = new Stream();
+            streams.put(key, stream);
+        }
+        if (stream.groups.containsKey(args.get(2))) {
+            return Response.error("BUSYGROUP Consumer Group name already exists");
+        }
+        Group group = new Group();
+        group.lastDelivered = args.get(3).equals("$") ? stream.lastId : StreamId.parse(args.get(3));
+        stream.groups.put(args.get(2), group);
+        return Response.OK;
+    }
+
+    /**
+     * XREADGROUP GROUP group consumer [COUNT n] STREAMS key id，只支持单个Stream且不阻塞
+     */
+    private Slice xreadgroup(List<String> args) {
+        String groupName = args.get(1);
+        String consumer = args.get(2);
+        long count = Long.MAX_VALUE;
+        int streamsIndex = args.size();
+        for (int i = 3; i < args.size(); i++) {
+            String arg = args.get(i).toUpperCase(Locale.ROOT);
+            if (arg.equals("COUNT")) {
+                count = Long.parseLong(args.get(++i));
+            } else if (arg.equals("STREAMS")) {
+                streamsIndex = i;
+                break;
+            }
+        }
+        String key = args.get(streamsIndex + 1);
+        String offset = args.get(streamsIndex + 2);
+        Stream stream = streams.get(key);
+        Group group = stream == null ? null : stream.groups.get(groupName);
+        if (group == null) {
+            return noGroup(key, groupName);
+        }
+
+        List<Slice> entries = new ArrayList<>();
+        long now = now();
+        if (offset.equals(">")) {
+            for (Map.Entry<StreamId, List<String>> entry : stream.entries.tailMap(group.lastDelivered, false).entrySet()) {
+                if (entries.size() >= count) {
+                    break;
+                }
+                group.pending.put(entry.getKey(), new Pending(consumer, now, 1));
+                group.lastDelivered = entry.getKey();
+                entries.add(entry(entry.getKey(), entry.getValue()));
+            }
+            if (entries.isEmpty()) {
+                return Response.NULL_ARRAY;
+            }
+        } else {
+            for (Map.Entry<StreamId, Pending> pending : group.pending.tailMap(StreamId.parse(offset), false).entrySet()) {
+                if (entries.size() >= count) {
+                    break;
+                }
+                if (pending.getValue().consumer.equals(consumer)) {
+                    pending.setValue(pending.getValue().redeliver(consumer, now));
+                    entries.add(entry(pending.getKey(), stream.entries.get(pending.getKey())));
+                }
+            }
+        }
+        return Response.array(Response.array(bulk(key), Response.array(entries)));
+    }
+
+    private Slice xack(List<String> args) {
+        Stream stream = streams.get(args.getFirst());
+        Group group = stream == null ? null : stream.groups.get(args.get(1));
+        int acknowledged = 0;
+        for (String id : args.subList(2, args.size())) {
+            if (group != null && group.pending.remove(StreamId.parse(id)) != null) {
+                acknowledged++;
+            }
+        }
+        return Response.integer(acknowledged);
+    }
+
+    /**
+     * 只支持扩展形式：XPENDING key group [IDLE ms] start end count [consumer]
+     */
+    private Slice xpending(List<String> args) {
+        String key = args.getFirst();
+        Stream stream = streams.get(key);
+        Group group = stream == null ? null : stream.groups.get(args.get(1));
+        if (group == null) {
+            return noGroup(key, args.get(1));
+        }
+        int i = 2;
+        long minIdle = 0;
+        if (args.get(i).equalsIgnoreCase("IDLE")) {
+            minIdle = Long.parseLong(args.get(i + 1));
+            i += 2;
+        }
+        StreamId start = StreamId.parse(args.get(i));
+        StreamId end = StreamId.parse(args.get(i + 1));
+        long count = Long.parseLong(args.get(i + 2));
+        String consumer = args.size() > i + 3 ? args.get(i + 3) : null;
+
+        long now = now();
+        List<Slice> result = new ArrayList<>();
+        for (Map.Entry<StreamId, Pending> entry : group.pending.subMap(start, true, end, true).entrySet()) {
+            Pending pending = entry.getValue();
+            if (result.size() >= count) {
+                break;
+            }
+            if ((consumer == null || pending.consumer.equals(consumer)) && now - pending.deliveredAt >= minIdle) {
+                result.add(Response.array(bulk(entry.getKey().toString()), bulk(pending.consumer),
+                        Response.integer(now - pending.deliveredAt), Response.integer(pending.deliveryCount)));
+            }
+        }
+        return Response.array(result);
+    }
+
+    /**
+     * XAUTOCLAIM key group consumer min-idle start [COUNT n]，已删除的记录从待确认列表中移除，按Redis 7的格式返回
+     */
+    private Slice xautoclaim(List<String> args) {
+        String key = args.getFirst();
+        Stream stream = streams.get(key);
+        Group group = stream == null ? null : stream.groups.get(args.get(1));
+        if (group == null) {
+            return noGroup(key, args.get(1));
+        }
+        String consumer = args.get(2);
+        long minIdle = Long.parseLong(args.get(3));
+        StreamId start = StreamId.parse(args.get(4));
+        long count = 100;
+        for (int i = 5; i < args.size(); i++) {
+            if (args.get(i).equalsIgnoreCase("COUNT")) {
+                count = Long.parseLong(args.get(++i));
+            }
+        }
+
+        long now = now();
+        List<Slice> claimed = new ArrayList<>();
+        List<Slice> deleted = new ArrayList<>();
+        StreamId cursor = StreamId.MIN;
+        for (StreamId id : new ArrayList<>(group.pending.tailMap(start, true).keySet())) {
+            if (claimed.size() >= count) {
+                cursor = id;
+                break;
+            }
+            Pending pending = group.pending.get(id);
+            if (now - pending.deliveredAt < minIdle) {
+                continue;
+            }
+            List<String> fields = stream.entries.get(id);
+            if (fields == null) {
+                group.pending.remove(id);
+                deleted.add(bulk(id.toString()));
+                continue;
+            }
+            group.pending.put(id, pending.redeliver(consumer, now));
+            claimed.add(entry(id, fields));
+        }
+        return Response.array(bulk(cursor.toString()), Response.array(claimed), Response.array(deleted));
+    }
+
+    private Slice del(OperationExecutorState state, String name, List<Slice> params) {
+        int deleted = 0;
+        List<Slice> others = new ArrayList<>();
+        for (Slice key : params) {
+            if (streams.remove(key.toString()) != null) {
+                deleted++;
+            } else {
+                others.add(key);
+            }
+        }
+        if (!others.isEmpty()) {
+            String reply = MockExecutor.proceed(state, name, others).toString();
+            deleted += Integer.parseInt(reply.substring(1).trim());
+        }
+        return Response.integer(deleted);
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static Slice noGroup(String key, String group) {
+        return Response.error("NOGROUP No such key '" + key + "' or consumer group '" + group + "'");
+    }
+
+    private static Slice entry(StreamId id, List<String> fields) {
+        if (fields == null) {
+            return Response.array(bulk(id.toString()), Response.NULL_ARRAY);
+        }
+        List<Slice> values = fields.stream().map(StreamConsumerGroups::bulk).toList();
+        return Response.array(bulk(id.toString()), Response.array(values));
+    }
+
+    private static Slice bulk(String value) {
+        return Response.bulkString(Slice.create(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final class Stream {
+
+        private final NavigableMap<StreamId, List<String>> entries = new TreeMap<>();
+
+        private final Map<String, Group> groups = new HashMap<>();
+
+        private StreamId lastId = StreamId.MIN;
+
+        private StreamId nextId(long now) {
+            return now > lastId.millis() ? new StreamId(now, 0) : new StreamId(lastId.millis(), lastId.sequence() + 1);
+        }
+
+    }
+
+    private static final class Group {
+
+        private StreamId lastDelivered = StreamId.MIN;
+
+        private final NavigableMap<StreamId, Pending> pending = new TreeMap<>();
+
+    }
+
+    private record Pending(String consumer, long deliveredAt, long deliveryCount) {
+
+        private Pending redeliver(String newConsumer, long now) {
+            return new Pending(newConsumer, now, deliveryCount + 1);
+        }
+
+    }
+
+    private record StreamId(long millis, long sequence) implements Comparable<StreamId> {
+
+        private static final StreamId MIN = new StreamId(0, 0);
+
+        private static final StreamId MAX = new StreamId(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        private static StreamId parse(String value) {
+            return switch (value) {
+                case "-" -> MIN;
+                case "+" -> MAX;
+                default -> {
+                    int dash = value.indexOf('-');
+                    yield dash < 0
+                            ? new StreamId(Long.parseLong(value), 0)
+                            : new StreamId(Long.parseLong(value.substring(0, dash)), Long.parseLong(value.substring(dash + 1)));
+                }
+            };
+        }
+
+        @Override
+        public int compareTo(StreamId other) {
+            int compared = Long.compare(millis, other.millis);
+            return compared != 0 ? compared : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public String toString() {
+            return millis + "-" + sequence;
+        }
+
+    }
+
+}
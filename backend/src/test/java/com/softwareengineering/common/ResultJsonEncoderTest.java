@@ -0,0 +1,53 @@
+package com.softwareengineering.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.vo.LoginResultVO;
+import com.softwareengineering.vo.UserSummaryVO;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@DisplayName("Result编码测试")
+class ResultJsonEncoderTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ResultJsonEncoder encoder = new ResultJsonEncoder(objectMapper);
+
+    @Test
+    @DisplayName("不带数据的结果使用缓存的字节")
+    void testConstantResults() throws Exception {
+        assertNotNull(encoder.encoded(Result.success()));
+        for (ResultCode resultCode : ResultCode.values()) {
+            assertSameBytes(Result.error(resultCode));
+        }
+        // 自定义消息不使用缓存
+        Result<Void> custom = Result.error(ResultCode.PARAM_ERROR, "用户名长度必须在4-32位之间\"");
+        assertNull(encoder.encoded(custom));
+        assertSameBytes(custom);
+        assertSameBytes(new Result<>(null, null, null));
+    }
+
+    @Test
+    @DisplayName("带数据的结果与ObjectMapper输出一致")
+    void testPayloadResults() throws Exception {
+        assertSameBytes(Result.success(new LoginResultVO(1L, "0b4cbc1e-5f4d-4f0b-9a4e-2d1c6f7e8a90")));
+        assertSameBytes(Result.success(List.of(new UserSummaryVO(1L, "alice01", "alice01@example.com", 'F',
+                Instant.parse("2024-01-01T00:00:00Z"), null))));
+        assertSameBytes(Result.success("文本"));
+    }
+
+    private void assertSameBytes(Result<?> result) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        encoder.write(result, output);
+        assertArrayEquals(objectMapper.writeValueAsBytes(result), output.toByteArray(), output.toString());
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.softwareengineering.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.softwareengineering.dao.UserCredentials;
+import com.softwareengineering.entity.User;
+import com.softwareengineering.vo.UserSummaryVO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+@DisplayName("native-image 运行时提示测试")
+class NativeHintsTest {
+
+    @Test
+    @DisplayName("登记Lua脚本和反射访问的类型")
+    void testHints() {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.resource().forResource("scripts/token_bucket.lua").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("scripts/consume_verification_code.lua").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(UserCredentials.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(UserSummaryVO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(User.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.softwareengineering.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.config.ExceptionLogProperties;
+import com.softwareengineering.exception.BusinessException;
+import com.softwareengineering.exception.GlobalExceptionHandler;
+import com.softwareengineering.service.RateLimitService;
+import com.softwareengineering.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * 返回 CompletableFuture 的接口：先断言异步已开始，再通过 asyncDispatch 取得最终响应
+ */
+@DisplayName("用户接口异步处理测试")
+class UserControllerAsyncTest {
+
+    private static final String EMAIL = "async@example.com";
+
+    private static final String CLIENT_IP = "203.0.113.7";
+
+    private static final String RESET_PASSWORD_BODY =
+            "{\"email\":\"" + EMAIL + "\",\"verificationCode\":\"123456\",\"newPassword\":\"NewPass456\"}";
+
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private UserService userService;
+
+    private RateLimitService rateLimitService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        rateLimitService = mock(RateLimitService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, rateLimitService, ioExecutor))
+                .setControllerAdvice(new GlobalExceptionHandler(new SimpleMeterRegistry(), new ExceptionLogProperties()))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ioExecutor.close();
+    }
+
+    @Test
+    @DisplayName("发送验证码：在异步线程中执行，请求线程先取出的客户端IP传给限流")
+    void testSendVerificationCode() throws Exception {
+        AtomicReference<Thread> rateLimitThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            rateLimitThread.set(Thread.currentThread());
+            return null;
+        }).when(rateLimitService).acquire(eq(RateLimitService.VERIFICATION_CODE), anyMap());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/user/verification-code/async")
+                        .param("email", EMAIL)
+                        .with(request -> {
+                            request.setRemoteAddr(CLIENT_IP);
+                            return request;
+                        }))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(ResultCode.SUCCESS.getCode()));
+
+        verify(rateLimitService).acquire(RateLimitService.VERIFICATION_CODE,
+                Map.of(RateLimitService.EMAIL, EMAIL, RateLimitService.IP, CLIENT_IP));
+        verify(userService).sendVerificationCode(EMAIL);
+        assertNotEquals(Thread.currentThread(), rateLimitThread.get());
+    }
+
+    @Test
+    @DisplayName("发送验证码：异步线程中的限流异常由全局异常处理器转换")
+    void testSendVerificationCodeRateLimited() throws Exception {
+        doThrow(BusinessException.of(ResultCode.TOO_MANY_REQUESTS))
+                .when(rateLimitService).acquire(eq(RateLimitService.VERIFICATION_CODE), anyMap());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/user/verification-code/async").param("email", EMAIL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(ResultCode.TOO_MANY_REQUESTS.getCode()));
+
+        verify(userService, never()).sendVerificationCode(EMAIL);
+    }
+
+    @Test
+    @DisplayName("重置密码：正常完成")
+    void testResetPassword() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(post("/api/user/reset-password/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(RESET_PASSWORD_BODY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(ResultCode.SUCCESS.getCode()));
+
+        verify(userService).resetPassword(EMAIL, "123456", "NewPass456");
+    }
+
+    @Test
+    @DisplayName("重置密码：异步线程中的业务异常由全局异常处理器转换")
+    void testResetPasswordBusinessException() throws Exception {
+        doThrow(BusinessException.of(ResultCode.VERIFICATION_CODE_ERROR))
+                .when(userService).resetPassword(EMAIL, "123456", "NewPass456");
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/user/reset-password/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(RESET_PASSWORD_BODY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(ResultCode.VERIFICATION_CODE_ERROR.getCode()))
+                .andExpect(jsonPath("$.message").value(ResultCode.VERIFICATION_CODE_ERROR.getMessage()));
+    }
+
+}
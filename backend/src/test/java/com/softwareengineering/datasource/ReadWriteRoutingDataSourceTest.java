@@ -0,0 +1,170 @@
+package com.softwareengineering.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 使用两个H2内存库分别作为主库和从库，通过只存在于其中一个库的数据判断路由结果
+ */
+@DisplayName("读写分离路由测试")
+class ReadWriteRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+
+    private HikariDataSource replica;
+
+    private SwitchableDataSource switchableReplica;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate writeTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = createDatabase("routing-primary");
+        replica = createDatabase("routing-replica");
+        new JdbcTemplate(primary).update("insert into user (username, password) values ('primary', 'x')");
+        new JdbcTemplate(replica).update("insert into user (username, password) values ('replica', 'x')");
+
+        switchableReplica = new SwitchableDataSource(replica);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, switchableReplica, Duration.ofSeconds(1));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadWriteRoutingDataSource.clearPrimaryStickiness();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    @DisplayName("只读事务使用从库，写事务和无事务使用主库")
+    void testRouting() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+        assertEquals("primary", currentDatabase());
+
+        writeTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update("insert into user (username, password) values ('written', 'x')"));
+        assertEquals(1, new JdbcTemplate(primary).queryForObject(
+                "select count(*) from user where username = 'written'", Integer.class));
+        assertEquals(0, new JdbcTemplate(replica).queryForObject(
+                "select count(*) from user where username = 'written'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("写入后同一请求内的只读事务使用主库")
+    void testReadYourWrites() {
+        ReadWriteRoutingDataSource.beginPrimaryStickiness();
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+        writeTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update("insert into user (username, password) values ('written', 'x')"));
+        Integer written = readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForObject("select count(*) from user where username = 'written'", Integer.class));
+        assertEquals(1, written);
+
+        // 请求结束后恢复使用从库
+        ReadWriteRoutingDataSource.clearPrimaryStickiness();
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+
+        assertEquals("primary", ReadWriteRoutingDataSource.usePrimary(() ->
+                readOnlyTransaction.execute(status -> currentDatabase())));
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    @DisplayName("请求范围之外的写入不会把线程固定到主库")
+    void testWriteOutsideRequestDoesNotPin() {
+        // 如定时任务、邮件发送和导入线程
+        writeTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update("insert into user (username, password) values ('written', 'x')"));
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+
+        // usePrimary 结束后不留下粘滞标记
+        ReadWriteRoutingDataSource.usePrimary(() -> {
+            writeTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.update("insert into user (username, password) values ('written2', 'x')"));
+            return null;
+        });
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    @DisplayName("从库不可用时回退到主库，恢复后重新使用从库")
+    void testReplicaFallback() {
+        switchableReplica.down = true;
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentDatabase()));
+        assertFalse(routingDataSource.isReplicaHealthy());
+
+        routingDataSource.checkReplica();
+        assertFalse(routingDataSource.isReplicaHealthy());
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentDatabase()));
+
+        switchableReplica.down = false;
+        routingDataSource.checkReplica();
+        assertTrue(routingDataSource.isReplicaHealthy());
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select username from user where username in ('primary', 'replica')", String.class);
+    }
+
+    private static HikariDataSource createDatabase(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("h2/schema.sql")).execute(dataSource);
+        new JdbcTemplate(dataSource).update("delete from user");
+        return dataSource;
+    }
+
+    /**
+     * 可模拟宕机的从库
+     */
+    private static final class SwitchableDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        private SwitchableDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLTransientConnectionException("replica is down");
+            }
+            return super.getConnection();
+        }
+
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.softwareengineering.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.fppt.jedismock.RedisServer;
+
+import com.softwareengineering.common.ResultJsonEncoder;
+import com.softwareengineering.config.AdminProperties;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.service.SessionService;
+import com.softwareengineering.service.impl.RedisSessionServiceImpl;
+import com.softwareengineering.service.impl.SessionTouchBuffer;
+import com.softwareengineering.util.SessionKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@DisplayName("会话认证过滤器测试")
+class SessionAuthenticationFilterTest {
+
+    private static final long ADMIN_ID = 1L;
+
+    private static final long USER_ID = 2L;
+
+    private SessionService sessionService;
+
+    private SessionAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = mock(SessionService.class);
+        when(sessionService.resolve("admin-session")).thenReturn(ADMIN_ID);
+        when(sessionService.resolve("user-session")).thenReturn(USER_ID);
+        // Mockito 对未打桩的 Long 返回0，显式返回null表示会话不存在
+        when(sessionService.resolve("unknown-session")).thenReturn(null);
+
+        SessionProperties sessionProperties = new SessionProperties();
+        sessionProperties.setProtectedPaths(List.of("/api/user/logout", "/api/admin/**"));
+        AdminProperties adminProperties = new AdminProperties();
+        adminProperties.setUserIds(Set.of(ADMIN_ID));
+
+        filter = new SessionAuthenticationFilter(sessionService, sessionProperties, adminProperties,
+                new ResultJsonEncoder(Jackson2ObjectMapperBuilder.json().build()));
+    }
+
+    @Test
+    @DisplayName("管理接口：管理员放行，普通用户403，无会话401")
+    void testAdminPaths() throws Exception {
+        for (String path : List.of("/api/admin/users", "/api/admin/users/search", "/api/admin/users/export",
+                "/api/admin/users/import")) {
+            assertEquals(200, filter(path, "admin-session").getStatus(), path);
+            assertEquals(403, filter(path, "user-session").getStatus(), path);
+            assertEquals(401, filter(path, "unknown-session").getStatus(), path);
+            assertEquals(401, filter(path, null).getStatus(), path);
+        }
+    }
+
+    @Test
+    @DisplayName("未配置管理员时管理接口拒绝所有会话")
+    void testNoAdminConfigured() throws Exception {
+        SessionService sessionService = mock(SessionService.class);
+        when(sessionService.resolve("admin-session")).thenReturn(ADMIN_ID);
+        SessionProperties sessionProperties = new SessionProperties();
+        sessionProperties.setProtectedPaths(List.of("/api/admin/**"));
+        filter = new SessionAuthenticationFilter(sessionService, sessionProperties, new AdminProperties(),
+                new ResultJsonEncoder(Jackson2ObjectMapperBuilder.json().build()));
+
+        assertEquals(403, filter("/api/admin/users", "admin-session").getStatus());
+    }
+
+    @Test
+    @DisplayName("普通受保护接口只校验会话")
+    void testProtectedPath() throws Exception {
+        MockHttpServletRequest request = request("/api/user/logout", "user-session");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(USER_ID, request.getAttribute(SessionAuthenticationFilter.USER_ID_ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("普通接口携带会话时校验并刷新，不携带或会话无效时照常处理")
+    void testOrdinaryPath() throws Exception {
+        MockHttpServletRequest request = request("/api/user/username-available", "user-session");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(USER_ID, request.getAttribute(SessionAuthenticationFilter.USER_ID_ATTRIBUTE));
+        verify(sessionService).touch("user-session", USER_ID);
+
+        for (String sessionId : new String[]{"unknown-session", null}) {
+            request = request("/api/user/username-available", sessionId);
+            chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+            assertNull(request.getAttribute(SessionAuthenticationFilter.USER_ID_ATTRIBUTE));
+        }
+    }
+
+    @Test
+    @DisplayName("普通接口的请求延长Redis中会话的有效期")
+    void testOrdinaryRequestExtendsTtl() throws Exception {
+        RedisServer redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        LettuceConnectionFactory connectionFactory =
+                new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        try {
+            StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+            SessionProperties sessionProperties = new SessionProperties();
+            sessionProperties.setProtectedPaths(List.of("/api/user/logout"));
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            SessionTouchBuffer touchBuffer = new SessionTouchBuffer(redisTemplate, sessionProperties, meterRegistry);
+            RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(connectionFactory);
+            filter = new SessionAuthenticationFilter(new RedisSessionServiceImpl(redisTemplate, touchBuffer,
+                    listenerContainer, sessionProperties, meterRegistry), sessionProperties, new AdminProperties(),
+                    new ResultJsonEncoder(Jackson2ObjectMapperBuilder.json().build()));
+
+            // 剩余有效期只有10秒的会话
+            String sessionId = SessionKeys.newSessionId(USER_ID);
+            String key = SessionKeys.sessionKey(sessionId);
+            redisTemplate.opsForValue().set(key, String.valueOf(USER_ID), Duration.ofSeconds(10));
+
+            assertEquals(200, filter("/api/user/username-available", sessionId).getStatus());
+            touchBuffer.flush();
+
+            assertTrue(redisTemplate.getExpire(key, TimeUnit.SECONDS) > 10);
+        } finally {
+            connectionFactory.destroy();
+            redisServer.stop();
+        }
+    }
+
+    private MockHttpServletResponse filter(String path, String sessionId) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(path, sessionId), response, chain);
+        if (response.getStatus() != 200) {
+            assertNull(chain.getRequest(), "拒绝的请求不应到达控制器");
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String sessionId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (sessionId != null) {
+            request.addHeader(SessionAuthenticationFilter.SESSION_HEADER, sessionId);
+        }
+        return request;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.softwareengineering.index;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import com.softwareengineering.config.UserIndexProperties;
+import com.softwareengineering.config.UserSearchProperties;
+import com.softwareengineering.dao.UserRepository;
+import com.softwareengineering.event.UserCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 两个节点共用进程内Redis协议服务(jedis-mock)，各自有独立的索引
+ */
+@DisplayName("新用户广播测试")
+class UserCreatedBroadcasterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private UserCreatedBroadcaster local;
+
+    private UserExistenceIndex localIndex;
+
+    private UserExistenceIndex remoteIndex;
+
+    private UserSearchIndex remoteSearchIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+
+        localIndex = emptyIndex();
+        remoteIndex = emptyIndex();
+        remoteSearchIndex = emptySearchIndex();
+        local = broadcaster(localIndex, emptySearchIndex());
+        broadcaster(remoteIndex, remoteSearchIndex);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (RedisMessageListenerContainer listenerContainer : listenerContainers) {
+            listenerContainer.destroy();
+        }
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    @DisplayName("本节点注册的用户追加到其他节点的存在性索引和搜索索引")
+    void testRemoteNodeLearnsNewUser() {
+        assertFalse(remoteIndex.mightContainUsername("alice01"));
+
+        localIndex.onUserCreated(new UserCreatedEvent("Alice01", "Alice01@Example.com"));
+        local.onUserCreated(new UserCreatedEvent("Alice01", "Alice01@Example.com"));
+
+        // 存在性索引先于搜索索引追加，等到搜索索引可见时两者都已追加
+        await().atMost(Duration.ofSeconds(5)).until(() -> !remoteSearchIndex.search("alic", 10).isEmpty());
+        assertEquals(List.of("Alice01"), remoteSearchIndex.search("alic", 10));
+        assertTrue(remoteIndex.mightContainUsername("alice01"));
+        assertTrue(remoteIndex.mightContainEmail("alice01@example.com"));
+        assertTrue(localIndex.mightContainUsername("ALICE01"));
+        assertFalse(remoteIndex.mightContainUsername("bob0001"));
+    }
+
+    /**
+     * 数据库中没有用户，构建完成后所有取值都判定为一定不存在
+     */
+    private static UserExistenceIndex emptyIndex() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.count()).thenReturn(0L);
+        when(userRepository.streamAllIdentities()).thenAnswer(invocation -> Stream.empty());
+        UserExistenceIndex index = new UserExistenceIndex(userRepository, mock(PlatformTransactionManager.class),
+                new UserIndexProperties(), new SimpleMeterRegistry());
+        index.rebuild();
+        return index;
+    }
+
+    private static UserSearchIndex emptySearchIndex() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamAllIdentities()).thenAnswer(invocation -> Stream.empty());
+        UserSearchIndex index = new UserSearchIndex(userRepository, mock(PlatformTransactionManager.class),
+                new UserSearchProperties(), new SimpleMeterRegistry());
+        index.rebuild();
+        return index;
+    }
+
+    private UserCreatedBroadcaster broadcaster(UserExistenceIndex index, UserSearchIndex searchIndex) {
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        UserCreatedBroadcaster broadcaster = new UserCreatedBroadcaster(new StringRedisTemplate(connectionFactory),
+                listenerContainer, objectMapper, index, searchIndex);
+        listenerContainer.start();
+        listenerContainers.add(listenerContainer);
+        return broadcaster;
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.softwareengineering.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.softwareengineering.config.MailDispatcherProperties;
+import com.softwareengineering.service.impl.InMemoryMailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * 邮件发送到本地 GreenMail，前几次发送可以注入失败
+ */
+@DisplayName("进程内邮件发送测试")
+class InMemoryMailServiceTest {
+
+    private GreenMail greenMail;
+
+    private FlakyMailSender mailSender;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private InMemoryMailServiceImpl mailService;
+
+    @BeforeEach
+    void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        mailSender = new FlakyMailSender();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.setProperty("mail.smtp.from", "noreply@example.com");
+        mailSender.setJavaMailProperties(javaMailProperties);
+
+        MailDispatcherProperties properties = new MailDispatcherProperties();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofMillis(100));
+        meterRegistry = new SimpleMeterRegistry();
+        mailService = new InMemoryMailServiceImpl(mailSender, properties, meterRegistry, ObservationRegistry.NOOP);
+        mailService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailService.stop();
+        greenMail.stop();
+    }
+
+    @Test
+    @DisplayName("投递后由后台批量发送")
+    void testSend() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            mailService.send("user" + i + "@example.com", "验证码", "您的验证码是：" + String.format("%06d", i));
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(Duration.ofSeconds(10).toMillis(), 50), "邮件未全部送达");
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals("验证码", received[0].getSubject());
+        await().atMost(Duration.ofSeconds(5)).until(() -> counter("mail.sent") == 50);
+    }
+
+    @Test
+    @DisplayName("发送失败后退避重试，超过次数后放弃")
+    void testRetry() {
+        mailSender.failures.set(2);
+        mailService.send("retry@example.com", "验证码", "123456");
+        assertTrue(greenMail.waitForIncomingEmail(Duration.ofSeconds(10).toMillis(), 1), "重试后应送达");
+        assertEquals(3, mailSender.attempts.get());
+
+        mailSender.failures.set(3);
+        mailService.send("lost@example.com", "验证码", "123456");
+        await().atMost(Duration.ofSeconds(10)).until(() -> counter("mail.failed") == 1);
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    /**
+     * failures 大于0时本次发送失败并减一
+     */
+    private static final class FlakyMailSender extends JavaMailSenderImpl {
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            attempts.incrementAndGet();
+            if (failures.getAndDecrement() > 0) {
+                throw new MailSendException("SMTP unavailable");
+            }
+            super.doSend(mimeMessages, originalMessages);
+        }
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.softwareengineering.service;
+
+import com.softwareengineering.config.RateLimitProperties;
+import com.softwareengineering.service.impl.InMemoryRateLimitServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+
+@DisplayName("进程内令牌桶限流测试")
+class InMemoryRateLimitServiceTest extends RateLimitServiceContractTest {
+
+    @Override
+    protected RateLimitService createRateLimitService(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new InMemoryRateLimitServiceImpl(properties, meterRegistry);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.softwareengineering.service;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.service.impl.InMemorySessionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("进程内会话存储测试")
+class InMemorySessionServiceTest extends SessionServiceContractTest {
+
+    @Override
+    protected SessionService createSessionService() {
+        return new InMemorySessionServiceImpl(new SessionProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("与删除全部会话并发创建的会话都在索引中，之后的删除全部会话能清除")
+    void testConcurrentCreateAndRemoveAll() throws Exception {
+        SessionService sessionService = createSessionService();
+        int creators = 4;
+        int sessionsPerCreator = 5000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean creating = new AtomicBoolean(true);
+        List<Future<List<String>>> created = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(creators + 1)) {
+            for (int i = 0; i < creators; i++) {
+                created.add(executor.submit(() -> {
+                    start.await();
+                    List<String> sessionIds = new ArrayList<>(sessionsPerCreator);
+                    for (int j = 0; j < sessionsPerCreator; j++) {
+                        sessionIds.add(sessionService.create(1L));
+                    }
+                    return sessionIds;
+                }));
+            }
+            Future<?> remover = executor.submit(() -> {
+                start.await();
+                while (creating.get()) {
+                    sessionService.removeAll(1L);
+                }
+                return null;
+            });
+            start.countDown();
+
+            List<String> sessionIds = new ArrayList<>();
+            for (Future<List<String>> future : created) {
+                sessionIds.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            creating.set(false);
+            remover.get(30, TimeUnit.SECONDS);
+
+            sessionService.removeAll(1L);
+            for (String sessionId : sessionIds) {
+                assertNull(sessionService.resolve(sessionId), sessionId);
+            }
+        }
+    }
+
+}
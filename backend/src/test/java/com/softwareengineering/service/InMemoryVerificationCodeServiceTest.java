@@ -0,0 +1,16 @@
+package com.softwareengineering.service;
+
+import com.softwareengineering.config.VerificationCodeProperties;
+import com.softwareengineering.service.impl.InMemoryVerificationCodeServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+
+@DisplayName("进程内验证码存储测试")
+class InMemoryVerificationCodeServiceTest extends VerificationCodeServiceContractTest {
+
+    @Override
+    protected VerificationCodeService createVerificationCodeService() {
+        return new InMemoryVerificationCodeServiceImpl(new VerificationCodeProperties(), new SimpleMeterRegistry());
+    }
+
+}
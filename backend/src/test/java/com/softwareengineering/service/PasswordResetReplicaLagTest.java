@@ -0,0 +1,122 @@
+package com.softwareengineering.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.softwareengineering.StandInServers;
+import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.exception.BusinessException;
+import com.softwareengineering.vo.UserLoginVO;
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * 开启读写分离，从库是另一个从不同步的H2内存库，相当于复制延迟无限长
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + PasswordResetReplicaLagTest.PRIMARY_URL,
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=" + PasswordResetReplicaLagTest.REPLICA_URL,
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.user-cache.tombstone-ttl=500ms"})
+@ActiveProfiles("standin")
+@DisplayName("从库复制延迟下的密码重置测试")
+class PasswordResetReplicaLagTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:lag-primary;MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL = "jdbc:h2:mem:lag-replica;MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final long USER_ID = 1L;
+
+    private static final String USERNAME = "lagUser";
+
+    private static final String EMAIL = "lag@example.com";
+
+    private static final String OLD_PASSWORD = "OldPass123";
+
+    private static final String NEW_PASSWORD = "NewPass456";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private VerificationCodeService verificationCodeService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @DynamicPropertySource
+    static void standIns(DynamicPropertyRegistry registry) {
+        StandInServers.register(registry);
+        // 主库表结构由 spring.sql.init 创建，从库需提前建好
+        try (HikariDataSource replica = new HikariDataSource()) {
+            replica.setJdbcUrl(REPLICA_URL);
+            new ResourceDatabasePopulator(new ClassPathResource("h2/schema.sql")).execute(replica);
+        }
+    }
+
+    @Test
+    @DisplayName("从库仍是旧密码哈希时，重置后旧密码立即失效，缓存也不回填旧哈希")
+    void testOldPasswordRejectedAfterReset() throws InterruptedException {
+        // 1. 主库和从库都有旧密码，登录一次，用户进入缓存
+        String oldHash = passwordHashService.hash(OLD_PASSWORD);
+        for (DataSource dataSource : List.of(primaryDataSource, replicaDataSource)) {
+            new JdbcTemplate(dataSource).update("insert into user (id, username, password, email) values (?, ?, ?, ?)",
+                    USER_ID, USERNAME, oldHash, EMAIL);
+        }
+        assertDoesNotThrow(() -> userService.login(loginVO(OLD_PASSWORD)));
+
+        // 2. 重置密码，只写入主库
+        verificationCodeService.save(EMAIL, "123456", Duration.ofMinutes(5));
+        userService.resetPassword(EMAIL, "123456", NEW_PASSWORD);
+        assertEquals(oldHash, new JdbcTemplate(replicaDataSource).queryForObject(
+                "select password from user where id = ?", String.class, USER_ID));
+
+        // 3. 旧密码立即失效，新密码可以登录
+        assertPasswordRejected(OLD_PASSWORD);
+        assertDoesNotThrow(() -> userService.login(loginVO(NEW_PASSWORD)));
+
+        // 4. 墓碑过期后重新写入缓存的也是主库中的新哈希
+        Thread.sleep(1000);
+        assertPasswordRejected(OLD_PASSWORD);
+        assertDoesNotThrow(() -> userService.login(loginVO(NEW_PASSWORD)));
+        assertPasswordRejected(OLD_PASSWORD);
+    }
+
+    private void assertPasswordRejected(String password) {
+        BusinessException exception = assertThrows(BusinessException.class, () -> userService.login(loginVO(password)));
+        assertEquals(ResultCode.PASSWORD_ERROR, exception.getResultCode());
+    }
+
+    private static UserLoginVO loginVO(String password) {
+        UserLoginVO loginVO = new UserLoginVO();
+        loginVO.setUsername(USERNAME);
+        loginVO.setPassword(password);
+        return loginVO;
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.softwareengineering.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.softwareengineering.common.ResultCode;
+import com.softwareengineering.config.RateLimitProperties;
+import com.softwareengineering.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 各令牌桶限流实现共同遵守的行为，每种实现继承一次
+ */
+abstract class RateLimitServiceContractTest {
+
+    private static final String ENDPOINT = "test";
+
+    private static final String ATOMIC_ENDPOINT = "atomic";
+
+    private RateLimitProperties properties;
+
+    protected SimpleMeterRegistry meterRegistry;
+
+    private RateLimitService rateLimitService;
+
+    protected abstract RateLimitService createRateLimitService(RateLimitProperties properties, MeterRegistry meterRegistry)
+            throws Exception;
+
+    @BeforeEach
+    void setUpRateLimitService() throws Exception {
+        properties = new RateLimitProperties();
+        properties.getEndpoints().put(ENDPOINT, Map.of(
+                RateLimitService.EMAIL, bucket(2, Duration.ofSeconds(2)),
+                RateLimitService.IP, bucket(100, Duration.ofMinutes(1))));
+        properties.getEndpoints().put(RateLimitService.LOGIN, Map.of(
+                RateLimitService.USERNAME_IP, bucket(3, Duration.ofMinutes(5)),
+                RateLimitService.IP, bucket(100, Duration.ofMinutes(1))));
+        properties.getEndpoints().put(ATOMIC_ENDPOINT, Map.of(
+                RateLimitService.EMAIL, bucket(2, Duration.ofMinutes(1)),
+                RateLimitService.IP, bucket(1, Duration.ofMinutes(1))));
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimitService = createRateLimitService(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("令牌用完后拒绝，其他取值不受影响")
+    void testDeny() {
+        acquire("a@example.com", "10.0.0.1");
+        acquire("a@example.com", "10.0.0.1");
+
+        assertDenied("a@example.com", "10.0.0.1");
+        assertDenied("a@example.com", "10.0.0.2");
+        // 其他邮箱不受影响
+        acquire("b@example.com", "10.0.0.1");
+    }
+
+    @Test
+    @DisplayName("任一维度超限时其他维度的令牌不扣除")
+    void testAllOrNothing() {
+        rateLimitService.acquire(ATOMIC_ENDPOINT, Map.of(RateLimitService.EMAIL, "a@example.com", RateLimitService.IP, "10.0.0.1"));
+        assertThrows(BusinessException.class, () -> rateLimitService.acquire(ATOMIC_ENDPOINT,
+                Map.of(RateLimitService.EMAIL, "b@example.com", RateLimitService.IP, "10.0.0.1")));
+
+        // b@example.com 的两个令牌都还在
+        rateLimitService.acquire(ATOMIC_ENDPOINT, Map.of(RateLimitService.EMAIL, "b@example.com", RateLimitService.IP, "10.0.0.2"));
+        rateLimitService.acquire(ATOMIC_ENDPOINT, Map.of(RateLimitService.EMAIL, "b@example.com", RateLimitService.IP, "10.0.0.3"));
+    }
+
+    @Test
+    @DisplayName("按补充速率恢复令牌")
+    void testRefill() {
+        acquire("a@example.com", "10.0.0.1");
+        acquire("a@example.com", "10.0.0.1");
+        assertDenied("a@example.com", "10.0.0.1");
+
+        // 每秒补充一个；间隔远大于一次调用的耗时，两次调用之间不会再补充
+        await().pollDelay(Duration.ofMillis(1050)).pollInterval(Duration.ofMillis(50)).atMost(Duration.ofSeconds(5))
+                .until(() -> tryAcquire("a@example.com", "10.0.0.1"));
+        assertDenied("a@example.com", "10.0.0.1");
+    }
+
+    @Test
+    @DisplayName("大小写和重音不同的取值共用一个令牌桶")
+    void testKeyNormalization() {
+        acquire("Alice@Example.com", "10.0.0.1");
+        acquire("alice@example.COM", "10.0.0.2");
+        assertDenied("ALICE@EXAMPLE.COM", "10.0.0.3");
+
+        acquire("josé@example.com", "10.0.0.1");
+        acquire("JOSE@example.com", "10.0.0.1");
+        assertDenied("Jose@Example.com", "10.0.0.1");
+    }
+
+    @Test
+    @DisplayName("登录按用户名和IP计数，其他IP反复尝试不会锁定账号")
+    void testLoginLockout() {
+        for (int i = 0; i < 3; i++) {
+            login("victim", "10.0.0.66");
+        }
+        assertThrows(BusinessException.class, () -> login("Victim", "10.0.0.66"));
+
+        assertDoesNotThrow(() -> login("victim", "10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("关闭限流或未配置的接口不限流")
+    void testDisabled() {
+        for (int i = 0; i < 5; i++) {
+            rateLimitService.acquire("unknown", Map.of(RateLimitService.IP, "10.0.0.1"));
+        }
+        properties.setEnabled(false);
+        for (int i = 0; i < 5; i++) {
+            acquire("a@example.com", "10.0.0.1");
+        }
+    }
+
+    protected void acquire(String email, String ip) {
+        rateLimitService.acquire(ENDPOINT, Map.of(RateLimitService.EMAIL, email, RateLimitService.IP, ip));
+    }
+
+    private boolean tryAcquire(String email, String ip) {
+        try {
+            acquire(email, ip);
+            return true;
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    protected void assertDenied(String email, String ip) {
+        BusinessException exception = assertThrows(BusinessException.class, () -> acquire(email, ip));
+        assertEquals(ResultCode.TOO_MANY_REQUESTS, exception.getResultCode());
+    }
+
+    private void login(String username, String ip) {
+        rateLimitService.acquire(RateLimitService.LOGIN, Map.of(
+                RateLimitService.USERNAME_IP, username + "|" + ip,
+                RateLimitService.IP, ip));
+    }
+
+    private static RateLimitProperties.Bucket bucket(int capacity, Duration refillPeriod) {
+        RateLimitProperties.Bucket bucket = new RateLimitProperties.Bucket();
+        bucket.setCapacity(capacity);
+        bucket.setRefillPeriod(refillPeriod);
+        return bucket;
+    }
+
+}
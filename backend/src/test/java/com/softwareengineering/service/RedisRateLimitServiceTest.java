@@ -0,0 +1,59 @@
+package com.softwareengineering.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.softwareengineering.config.RateLimitProperties;
+import com.softwareengineering.service.impl.RedisRateLimitServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 令牌桶脚本在进程内Redis协议服务(jedis-mock)中执行
+ */
+@DisplayName("Redis令牌桶限流测试")
+class RedisRateLimitServiceTest extends RateLimitServiceContractTest {
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    @Override
+    protected RateLimitService createRateLimitService(RateLimitProperties properties, MeterRegistry meterRegistry)
+            throws IOException {
+        redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        return new RedisRateLimitServiceImpl(new StringRedisTemplate(connectionFactory), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    @DisplayName("被Redis拒绝后，同一令牌桶的请求在本地拒绝，不访问Redis")
+    void testLocalRejection() {
+        acquire("a@example.com", "10.0.0.1");
+        acquire("a@example.com", "10.0.0.1");
+
+        assertDenied("a@example.com", "10.0.0.1");
+        assertDenied("a@example.com", "10.0.0.2");
+        assertEquals(1, rejections("redis"));
+        assertEquals(1, rejections("local"));
+    }
+
+    private double rejections(String source) {
+        return meterRegistry.get("rate.limit.rejections").tag("source", source).counter().count();
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.softwareengineering.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.service.impl.RedisSessionServiceImpl;
+import com.softwareengineering.service.impl.SessionTouchBuffer;
+import com.softwareengineering.util.SessionKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 使用进程内Redis协议服务(jedis-mock)，多节点用例中各节点共用同一个服务，各自有独立的近端缓存
+ */
+@DisplayName("Redis会话存储测试")
+class RedisSessionServiceTest extends SessionServiceContractTest {
+
+    private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+
+    @Override
+    protected SessionService createSessionService() throws IOException {
+        redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        return node();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (RedisMessageListenerContainer listenerContainer : listenerContainers) {
+            listenerContainer.destroy();
+        }
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    @DisplayName("近端缓存命中时不访问Redis")
+    void testNearCacheHit() {
+        SessionService node = node();
+        String sessionId = node.create(1L);
+        assertEquals(1L, node.resolve(sessionId));
+
+        // 绕过服务直接删除，没有失效广播，本地缓存仍然命中
+        redisTemplate.delete(SessionKeys.sessionKey(sessionId));
+        assertEquals(1L, node.resolve(sessionId));
+        // 其他节点没有缓存，回源Redis
+        assertNull(node().resolve(sessionId));
+    }
+
+    @Test
+    @DisplayName("其他节点退出登录后清除本节点的近端缓存")
+    void testRemoteLogoutInvalidatesNearCache() {
+        SessionService local = node();
+        SessionService remote = node();
+        String sessionId = local.create(1L);
+        assertEquals(1L, remote.resolve(sessionId));
+
+        assertTrue(local.remove(sessionId));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> remote.resolve(sessionId) == null);
+    }
+
+    @Test
+    @DisplayName("会话在Redis中过期后，近端缓存不再认为有效")
+    void testNearCacheBoundedByRedisTtl() {
+        SessionService local = node();
+        SessionService remote = node();
+        String sessionId = local.create(1L);
+        redisTemplate.expire(SessionKeys.sessionKey(sessionId), Duration.ofMillis(500));
+
+        // 读取时剩余500ms，远小于近端缓存的30秒
+        assertEquals(1L, remote.resolve(sessionId));
+        await().atMost(Duration.ofSeconds(5)).until(() -> remote.resolve(sessionId) == null);
+    }
+
+    @Test
+    @DisplayName("升级前签发的会话在原来的键上有效期内仍可使用和删除")
+    void testLegacySession() {
+        SessionService node = node();
+        String first = legacySession(1L);
+        String second = legacySession(1L);
+        String current = node.create(1L);
+
+        assertEquals(1L, node.resolve(first));
+        node.touch(first, 1L);
+        assertTrue(node.remove(first));
+        assertNull(node.resolve(first));
+        assertEquals(1L, node.resolve(second));
+
+        node.removeAll(1L);
+        assertNull(node.resolve(second));
+        assertNull(node.resolve(current));
+        assertEquals(0L, redisTemplate.countExistingKeys(List.of(SessionKeys.sessionKey(second),
+                SessionKeys.legacyUserSessionsKey(1L))));
+    }
+
+    @Test
+    @DisplayName("未登记在索引中的升级前会话同样被删除全部会话清除，包括已缓存在其他节点的")
+    void testUnindexedLegacySession() {
+        SessionService local = node();
+        SessionService remote = node();
+        // 更早的版本只写会话键，没有用户会话索引
+        String cached = unindexedLegacySession(1L);
+        String unread = unindexedLegacySession(1L);
+        String otherUser = unindexedLegacySession(2L);
+        assertEquals(1L, remote.resolve(cached));
+
+        local.removeAll(1L);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> remote.resolve(cached) == null);
+        assertNull(local.resolve(cached));
+        assertNull(remote.resolve(unread));
+        assertNull(node().resolve(unread));
+        assertEquals(0L, redisTemplate.countExistingKeys(List.of(SessionKeys.sessionKey(cached),
+                SessionKeys.sessionKey(unread))));
+        assertEquals(2L, local.resolve(otherUser));
+    }
+
+    /**
+     * 按更早的版本的格式写入的会话：只有不带标签的会话键
+     */
+    private String unindexedLegacySession(Long userId) {
+        String sessionId = UUID.randomUUID().toString();
+        redisTemplate.opsForValue().set(SessionKeys.sessionKey(sessionId), userId.toString(), Duration.ofMinutes(30));
+        return sessionId;
+    }
+
+    /**
+     * 按升级前的格式写入的会话：不带标签的UUID，登记在不带哈希标签的用户会话索引中
+     */
+    private String legacySession(Long userId) {
+        String sessionId = UUID.randomUUID().toString();
+        redisTemplate.opsForValue().set(SessionKeys.sessionKey(sessionId), userId.toString(), Duration.ofMinutes(30));
+        redisTemplate.opsForSet().add(SessionKeys.legacyUserSessionsKey(userId), sessionId);
+        return sessionId;
+    }
+
+    /**
+     * 连接同一个Redis的新节点，近端缓存为空
+     */
+    private SessionService node() {
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        SessionProperties properties = new SessionProperties();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SessionService sessionService = new RedisSessionServiceImpl(redisTemplate,
+                new SessionTouchBuffer(redisTemplate, properties, meterRegistry), listenerContainer, properties, meterRegistry);
+        listenerContainer.start();
+        listenerContainers.add(listenerContainer);
+        return sessionService;
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.softwareengineering.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.softwareengineering.StreamConsumerGroups;
+import com.softwareengineering.config.MailDispatcherProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.service.impl.RedisStreamMailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * 发件箱使用进程内Redis协议服务(jedis-mock，消费组由 {@link StreamConsumerGroups} 实现)，邮件发送到本地 GreenMail，
+ * 每批发送前注入固定延迟模拟慢速SMTP，也可以注入发送失败
+ */
+@DisplayName("邮件发件箱测试")
+class RedisStreamMailServiceTest {
+
+    private static final Duration SMTP_DELAY = Duration.ofMillis(300);
+
+    private static final Duration CLAIM_MIN_IDLE = Duration.ofSeconds(2);
+
+    private RedisServer redisServer;
+
+    private GreenMail greenMail;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+
+    private SlowMailSender mailSender;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RedisStreamMailServiceImpl mailService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redisServer = StreamConsumerGroups.newRedisServer(new StreamConsumerGroups());
+        redisServer.start();
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        mailSender = new SlowMailSender();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.setProperty("mail.smtp.from", "noreply@example.com");
+        mailSender.setJavaMailProperties(javaMailProperties);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private void startMailService() {
+        MailDispatcherProperties properties = new MailDispatcherProperties();
+        properties.setPollInterval(Duration.ofMillis(100));
+        properties.setMaxAttempts(3);
+        properties.setClaimMinIdle(CLAIM_MIN_IDLE);
+        properties.setClaimInterval(Duration.ofMillis(100));
+        properties.setConsumerName("test");
+        mailService = new RedisStreamMailServiceImpl(redisTemplate, mailSender, properties,
+                meterRegistry, ObservationRegistry.NOOP);
+        mailService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (mailService != null) {
+            mailService.stop();
+        }
+        redisTemplate.delete(List.of(CommonConstants.Redis.MAIL_OUTBOX_STREAM, CommonConstants.Redis.MAIL_DEAD_LETTER_STREAM));
+        connectionFactory.destroy();
+        greenMail.stop();
+        redisServer.stop();
+    }
+
+    @Test
+    @DisplayName("SMTP变慢时投递不等待发送，邮件全部送达后从发件箱删除")
+    void testSlowSmtp() throws MessagingException {
+        startMailService();
+        int mails = 200;
+        long[] latencies = new long[mails];
+        for (int i = 0; i < mails; i++) {
+            long start = System.nanoTime();
+            mailService.send("user" + i + "@example.com", "验证码", "您的验证码是：" + String.format("%06d", i));
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        long p99Millis = latencies[(int) (mails * 0.99) - 1] / 1_000_000;
+
+        // 调用方只写发件箱，不等待SMTP
+        assertTrue(p99Millis < SMTP_DELAY.toMillis(), "p99延迟过高：" + p99Millis + "ms");
+
+        assertTrue(greenMail.waitForIncomingEmail(Duration.ofSeconds(30).toMillis(), mails), "邮件未全部送达");
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(mails, received.length);
+        Set<String> recipients = new HashSet<>();
+        for (MimeMessage message : received) {
+            recipients.add(message.getAllRecipients()[0].toString());
+        }
+        assertEquals(mails, recipients.size());
+        assertEquals("验证码", received[0].getSubject());
+
+        // 发送后确认并删除，发件箱不残留已发送的邮件
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> redisTemplate.opsForStream().size(CommonConstants.Redis.MAIL_OUTBOX_STREAM) == 0L);
+    }
+
+    @Test
+    @DisplayName("发送失败的邮件留在待确认列表中，空闲后被接管重试，不阻塞其他邮件")
+    void testRetryAfterIdle() {
+        startMailService();
+        mailSender.failures.set(1);
+        mailService.send("retry@example.com", "验证码", "123456");
+        await().atMost(Duration.ofSeconds(5)).until(() -> mailSender.attempts.get() == 1);
+
+        // 等待重试期间新邮件照常发送
+        mailService.send("next@example.com", "验证码", "654321");
+        assertTrue(greenMail.waitForIncomingEmail(CLAIM_MIN_IDLE.toMillis(), 1), "新邮件不应等待重试");
+        assertEquals("next@example.com", recipient(greenMail.getReceivedMessages()[0]));
+
+        assertTrue(greenMail.waitForIncomingEmail(Duration.ofSeconds(10).toMillis(), 2), "空闲后应重试送达");
+        assertEquals(3, mailSender.attempts.get());
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> redisTemplate.opsForStream().size(CommonConstants.Redis.MAIL_OUTBOX_STREAM) == 0L);
+        assertEquals(0L, redisTemplate.opsForStream().size(CommonConstants.Redis.MAIL_DEAD_LETTER_STREAM));
+    }
+
+    @Test
+    @DisplayName("投递次数超过上限后转入死信并确认")
+    void testDeadLetter() {
+        startMailService();
+        mailSender.failures.set(Integer.MAX_VALUE);
+        mailService.send("lost@example.com", "验证码", "123456");
+
+        await().atMost(Duration.ofSeconds(15))
+                .until(() -> redisTemplate.opsForStream().size(CommonConstants.Redis.MAIL_DEAD_LETTER_STREAM) == 1L);
+        assertEquals(3, mailSender.attempts.get());
+        assertEquals(1.0, meterRegistry.get("mail.failed").counter().count());
+        assertEquals("lost@example.com", redisTemplate.opsForStream()
+                .range(CommonConstants.Redis.MAIL_DEAD_LETTER_STREAM, Range.unbounded())
+                .getFirst().getValue().get("to"));
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> redisTemplate.opsForStream().size(CommonConstants.Redis.MAIL_OUTBOX_STREAM) == 0L);
+        assertTrue(redisTemplate.opsForStream().pending(CommonConstants.Redis.MAIL_OUTBOX_STREAM,
+                CommonConstants.Redis.MAIL_DISPATCHER_GROUP, Range.unbounded(), 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("其他消费者读取后未确认的邮件由本节点接管发送")
+    void testClaimFromStoppedConsumer() {
+        redisTemplate.opsForStream().add(StreamRecords.string(Map.of(
+                "to", "orphan@example.com", "subject", "验证码", "text", "123456"))
+                .withStreamKey(CommonConstants.Redis.MAIL_OUTBOX_STREAM));
+        redisTemplate.opsForStream().createGroup(CommonConstants.Redis.MAIL_OUTBOX_STREAM, ReadOffset.from("0"),
+                CommonConstants.Redis.MAIL_DISPATCHER_GROUP);
+        // 已停止的节点读取后没有确认
+        assertEquals(1, redisTemplate.opsForStream().read(
+                Consumer.from(CommonConstants.Redis.MAIL_DISPATCHER_GROUP, "stopped-0"),
+                StreamOffset.create(CommonConstants.Redis.MAIL_OUTBOX_STREAM, ReadOffset.lastConsumed())).size());
+
+        startMailService();
+        assertTrue(greenMail.waitForIncomingEmail(Duration.ofSeconds(10).toMillis(), 1), "应接管并送达");
+        assertEquals("orphan@example.com", recipient(greenMail.getReceivedMessages()[0]));
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> redisTemplate.opsForStream().size(CommonConstants.Redis.MAIL_OUTBOX_STREAM) == 0L);
+    }
+
+    private static String recipient(MimeMessage message) {
+        try {
+            return message.getAllRecipients()[0].toString();
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 每批发送前等待 {@link #SMTP_DELAY}；failures 大于0时本次发送失败并减一
+     */
+    private static final class SlowMailSender extends JavaMailSenderImpl {
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            attempts.incrementAndGet();
+            if (failures.getAndDecrement() > 0) {
+                throw new MailSendException("SMTP unavailable");
+            }
+            try {
+                Thread.sleep(SMTP_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.doSend(mimeMessages, originalMessages);
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.softwareengineering.service;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.softwareengineering.service.impl.RedisVerificationCodeServiceImpl;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 使用进程内Redis协议服务(jedis-mock)，验证码比较并删除脚本在其Lua环境中执行
+ */
+@DisplayName("Redis验证码存储测试")
+class RedisVerificationCodeServiceTest extends VerificationCodeServiceContractTest {
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    @Override
+    protected VerificationCodeService createVerificationCodeService() throws IOException {
+        redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        return new RedisVerificationCodeServiceImpl(new StringRedisTemplate(connectionFactory));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+}
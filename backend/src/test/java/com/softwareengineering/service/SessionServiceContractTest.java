@@ -0,0 +1,68 @@
+package com.softwareengineering.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 各会话存储共同遵守的行为，每种实现继承一次
+ */
+abstract class SessionServiceContractTest {
+
+    private SessionService sessionService;
+
+    protected abstract SessionService createSessionService() throws Exception;
+
+    @BeforeEach
+    void setUpSessionService() throws Exception {
+        sessionService = createSessionService();
+    }
+
+    @Test
+    @DisplayName("创建的会话解析为对应用户")
+    void testCreateAndResolve() {
+        String first = sessionService.create(1L);
+        String second = sessionService.create(2L);
+
+        assertNotEquals(first, second);
+        assertEquals(1L, sessionService.resolve(first));
+        assertEquals(2L, sessionService.resolve(second));
+        assertNull(sessionService.resolve("missing"));
+    }
+
+    @Test
+    @DisplayName("删除单个会话，重复删除返回false")
+    void testRemove() {
+        String sessionId = sessionService.create(1L);
+        String other = sessionService.create(1L);
+
+        assertTrue(sessionService.remove(sessionId));
+        assertNull(sessionService.resolve(sessionId));
+        assertFalse(sessionService.remove(sessionId));
+        assertEquals(1L, sessionService.resolve(other));
+    }
+
+    @Test
+    @DisplayName("删除用户的全部会话，不影响其他用户")
+    void testRemoveAll() {
+        String first = sessionService.create(1L);
+        String second = sessionService.create(1L);
+        String other = sessionService.create(2L);
+
+        sessionService.removeAll(1L);
+
+        assertNull(sessionService.resolve(first));
+        assertNull(sessionService.resolve(second));
+        assertFalse(sessionService.remove(first));
+        assertEquals(2L, sessionService.resolve(other));
+        // 没有会话的用户
+        sessionService.removeAll(3L);
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.softwareengineering.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.service.impl.RedisSessionServiceImpl;
+import com.softwareengineering.service.impl.SessionTouchBuffer;
+import com.softwareengineering.util.SessionKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 使用进程内Redis协议服务(jedis-mock)，通过会话的剩余有效期判断是否已刷新
+ */
+@DisplayName("会话滑动过期测试")
+class SessionTouchBufferTest {
+
+    private static final long USER_ID = 1L;
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SessionTouchBuffer touchBuffer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        meterRegistry = new SimpleMeterRegistry();
+        touchBuffer = new SessionTouchBuffer(redisTemplate, new SessionProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    @DisplayName("多次访问合并为每次刷新一条EXPIRE，刷新窗口内不再写入")
+    void testCoalesce() {
+        String sessionId = expiringSession();
+        for (int i = 0; i < 100; i++) {
+            touchBuffer.touch(sessionId, USER_ID);
+        }
+        assertEquals(0, writes());
+
+        touchBuffer.flush();
+        assertEquals(1, writes());
+        assertRefreshed(sessionId);
+
+        // 刷新窗口内的访问和空的刷新都不写Redis
+        touchBuffer.touch(sessionId, USER_ID);
+        touchBuffer.flush();
+        touchBuffer.flush();
+        assertEquals(1, writes());
+        assertEquals(1, touches("queued"));
+        assertEquals(100, touches("coalesced"));
+    }
+
+    @Test
+    @DisplayName("关闭时写出尚未刷新的访问")
+    void testFlushOnShutdown() {
+        String first = expiringSession();
+        String second = expiringSession();
+        touchBuffer.touch(first, USER_ID);
+        touchBuffer.touch(second, USER_ID);
+
+        touchBuffer.destroy();
+
+        assertEquals(2, writes());
+        assertRefreshed(first);
+        assertRefreshed(second);
+    }
+
+    @Test
+    @DisplayName("登录后刷新窗口内的访问不再刷新")
+    void testSkipTouchAfterLogin() {
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        SessionService sessionService = new RedisSessionServiceImpl(redisTemplate, touchBuffer, listenerContainer,
+                new SessionProperties(), meterRegistry);
+        String sessionId = sessionService.create(USER_ID);
+
+        sessionService.touch(sessionId, USER_ID);
+        touchBuffer.flush();
+
+        assertEquals(0, writes());
+        assertEquals(0, touches("queued"));
+    }
+
+    /**
+     * 剩余有效期只有10秒的会话
+     */
+    private String expiringSession() {
+        String sessionId = SessionKeys.newSessionId(USER_ID);
+        redisTemplate.opsForValue().set(SessionKeys.sessionKey(sessionId), String.valueOf(USER_ID), Duration.ofSeconds(10));
+        return sessionId;
+    }
+
+    private void assertRefreshed(String sessionId) {
+        Long ttl = redisTemplate.getExpire(SessionKeys.sessionKey(sessionId), TimeUnit.SECONDS);
+        assertTrue(ttl != null && ttl > 60, "会话未刷新，剩余" + ttl + "秒");
+    }
+
+    private double writes() {
+        return meterRegistry.get("session.touch.writes").counter().count();
+    }
+
+    private double touches(String result) {
+        return meterRegistry.get("session.touches").tag("result", result).counter().count();
+    }
+
+}
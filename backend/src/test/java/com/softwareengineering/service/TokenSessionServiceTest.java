@@ -0,0 +1,197 @@
+package com.softwareengineering.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.softwareengineering.config.SessionProperties;
+import com.softwareengineering.constant.CommonConstants;
+import com.softwareengineering.service.impl.TokenSessionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 吊销记录使用进程内Redis协议服务(jedis-mock)，多节点用例中各节点共用同一个服务
+ */
+@DisplayName("签名令牌会话测试")
+class TokenSessionServiceTest extends SessionServiceContractTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    /**
+     * 各节点共同的 max-ttl，不短于用例中最长的节点有效期
+     */
+    private static final Duration MAX_TTL = Duration.ofMinutes(60);
+
+    private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    @Override
+    protected SessionService createSessionService() throws IOException {
+        redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        return node(Duration.ofMinutes(30));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (RedisMessageListenerContainer listenerContainer : listenerContainers) {
+            listenerContainer.destroy();
+        }
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    @DisplayName("篡改任意一段或签名后校验失败")
+    void testTampering() {
+        SessionService node = node(Duration.ofMinutes(30));
+        String token = node.create(1L);
+        assertEquals(1L, node.resolve(token));
+
+        String[] parts = token.split("\\.");
+        assertEquals(6, parts.length);
+        // 冒充其他用户、延长有效期、提高代数绕过用户吊销
+        assertNull(node.resolve("2" + token.substring(parts[0].length())));
+        assertNull(node.resolve(String.join(".", parts[0], parts[1], String.valueOf(Long.MAX_VALUE), parts[3], parts[4], parts[5])));
+        assertNull(node.resolve(String.join(".", parts[0], parts[1], parts[2], "999", parts[4], parts[5])));
+        // 修改签名的最后一个字符
+        char last = token.charAt(token.length() - 1);
+        assertNull(node.resolve(token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A')));
+        // 其他密钥签发的令牌
+        SessionProperties otherProperties = properties(Duration.ofMinutes(30));
+        otherProperties.getToken().setSecret(SECRET.toUpperCase());
+        assertNull(node.resolve(node(otherProperties).create(1L)));
+        // 格式错误
+        assertNull(node.resolve(token.substring(0, token.lastIndexOf('.'))));
+        assertNull(node.resolve(token + ".x"));
+        assertNull(node.resolve(null));
+        assertNull(node.resolve("x".repeat(200)));
+    }
+
+    @Test
+    @DisplayName("过期的令牌校验失败")
+    void testExpiry() {
+        SessionService node = node(Duration.ofMillis(300));
+        String token = node.create(1L);
+        assertEquals(1L, node.resolve(token));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> node.resolve(token) == null);
+        assertFalse(node.remove(token));
+    }
+
+    @Test
+    @DisplayName("吊销单个令牌，同步到其他节点，不影响同一用户的其他令牌")
+    void testRevokeToken() {
+        SessionService local = node(Duration.ofMinutes(30));
+        SessionService remote = node(Duration.ofMinutes(30));
+        String token = local.create(1L);
+        String other = local.create(1L);
+        assertEquals(1L, remote.resolve(token));
+
+        assertTrue(local.remove(token));
+
+        assertNull(local.resolve(token));
+        await().atMost(Duration.ofSeconds(5)).until(() -> remote.resolve(token) == null);
+        assertEquals(1L, remote.resolve(other));
+        // 新启动的节点从Redis加载吊销记录
+        assertNull(node(Duration.ofMinutes(30)).resolve(token));
+    }
+
+    @Test
+    @DisplayName("吊销用户的全部令牌按令牌代数判断，与签发时间和各节点的有效期无关")
+    void testRevokeUser() {
+        SessionService shortTtl = node(Duration.ofMinutes(10));
+        SessionService longTtl = node(Duration.ofMinutes(60));
+        // 有效期比吊销节点长的令牌同样失效
+        String before = longTtl.create(1L);
+        String otherUser = longTtl.create(2L);
+
+        // 与签发在同一毫秒内吊销也不会漏掉
+        shortTtl.removeAll(1L);
+
+        assertNull(shortTtl.resolve(before));
+        await().atMost(Duration.ofSeconds(5)).until(() -> longTtl.resolve(before) == null);
+        assertEquals(2L, shortTtl.resolve(otherUser));
+
+        // 吊销之后立即签发的令牌有效，即使签发时间与吊销时间相同
+        String after = shortTtl.create(1L);
+        assertEquals(1L, shortTtl.resolve(after));
+        assertEquals(1L, longTtl.resolve(after));
+        assertEquals(1L, node(Duration.ofMinutes(30)).resolve(after));
+
+        // 再次吊销
+        longTtl.removeAll(1L);
+        assertNull(longTtl.resolve(after));
+        await().atMost(Duration.ofSeconds(5)).until(() -> shortTtl.resolve(after) == null);
+    }
+
+    @Test
+    @DisplayName("用户吊销记录按集群内的最长有效期保留，与吊销节点自身的有效期无关")
+    void testUserRevocationRetention() {
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        SessionService shortTtl = node(Duration.ofMinutes(10));
+        long start = System.currentTimeMillis();
+        shortTtl.removeAll(1L);
+
+        Double retainUntil = redisTemplate.opsForZSet().score(CommonConstants.Redis.TOKEN_REVOKED_KEY,
+                redisTemplate.opsForZSet().range(CommonConstants.Redis.TOKEN_REVOKED_KEY, 0, 0).iterator().next());
+        assertTrue(retainUntil >= start + MAX_TTL.toMillis(), "吊销记录应保留到 max-ttl 之后");
+        // 代数保留得比吊销记录久
+        assertTrue(redisTemplate.getExpire(CommonConstants.Redis.TOKEN_GENERATION_PREFIX + 1L) > MAX_TTL.toSeconds());
+    }
+
+    @Test
+    @DisplayName("max-ttl 短于本节点有效期时启动失败")
+    void testMaxTtlShorterThanTtl() {
+        SessionProperties properties = properties(Duration.ofMinutes(30));
+        properties.getToken().setMaxTtl(Duration.ofMinutes(10));
+        assertThrows(IllegalStateException.class, () -> node(properties));
+    }
+
+    private SessionService node(Duration ttl) {
+        return node(properties(ttl));
+    }
+
+    /**
+     * 连接同一个Redis的新节点，启动时加载已有的吊销记录
+     */
+    private SessionService node(SessionProperties properties) {
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        SessionService sessionService = new TokenSessionServiceImpl(new StringRedisTemplate(connectionFactory),
+                listenerContainer, properties, new SimpleMeterRegistry());
+        listenerContainer.start();
+        listenerContainers.add(listenerContainer);
+        return sessionService;
+    }
+
+    private static SessionProperties properties(Duration ttl) {
+        SessionProperties properties = new SessionProperties();
+        properties.getToken().setSecret(SECRET);
+        properties.getToken().setTtl(ttl);
+        properties.getToken().setMaxTtl(MAX_TTL);
+        return properties;
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.softwareengineering.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.config.UserImportProperties;
+import com.softwareengineering.service.impl.UserImportServiceImpl;
+import com.softwareengineering.util.HexUtil;
+import com.softwareengineering.vo.UserImportReportVO;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+@DisplayName("批量导入用户测试")
+class UserImportServiceTest {
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UserImportServiceImpl userImportService;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:import;MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("h2/schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("delete from user");
+
+        UserImportProperties properties = new UserImportProperties();
+        properties.setBatchSize(2);
+        userImportService = new UserImportServiceImpl(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                new ObjectMapper(), publishedEvents::add, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userImportService.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("CSV导入，失败行逐行报告")
+    void testImportCsv() throws Exception {
+        jdbcTemplate.update("insert into user (username, password, email) values (?, ?, ?)",
+                "existing", "x", "existing@example.com");
+        String csv = """
+                username,password,email,sex
+                alice01,Secret123,alice@example.com,F
+                bob0001,Secret123,bob@example.com,M
+                Alice01,Secret123,alice2@example.com,F
+                carol01,Secret123,not-an-email,F
+                existing,Secret123,new@example.com,M
+                dave001,Secret123,EXISTING@example.com,M
+                """;
+
+        UserImportReportVO report = userImportService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.CSV);
+
+        assertEquals(6, report.getTotal());
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getFailed());
+        assertEquals(List.of(4L, 5L, 6L, 7L), report.getErrors().stream().map(UserImportReportVO.RowError::line).sorted().toList());
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from user", Integer.class));
+        assertEquals(2, publishedEvents.size());
+
+        String password = jdbcTemplate.queryForObject("select password from user where username = 'alice01'", String.class);
+        // 使用导入参数的 Argon2 记录，首次登录时按注册参数重新哈希
+        assertTrue(HexUtil.isArgon2(password));
+        assertTrue(HexUtil.verify(password, "Secret123"));
+        assertTrue(HexUtil.needsRehash(password, new HexUtil.Argon2Cost(19 * 1024, 2, 1)));
+    }
+
+    @Test
+    @DisplayName("CSV按RFC 4180解析，与导出的引号规则一致")
+    void testImportQuotedCsv() throws Exception {
+        // 与导出相同的写法：含逗号、引号或换行的字段加引号，引号写两次
+        String csv = "username,password,email,sex\r\n"
+                + "\"o,neil\",\"pa,ss\"\"word\",oneil@example.com,M\r\n"
+                + "multi01,\"line1\nline2\",multi@example.com,\r\n"
+                + "plain01,Secret123,plain@example.com,F\r\n"
+                + "broken1,\"Secret123,broken@example.com,F\r\n";
+
+        UserImportReportVO report = userImportService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.CSV);
+
+        assertEquals(4, report.getTotal());
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getFailed());
+        // 跨行的记录之后行号仍按文件中的行计算
+        assertEquals(List.of(6L), report.getErrors().stream().map(UserImportReportVO.RowError::line).toList());
+
+        String password = jdbcTemplate.queryForObject("select password from user where username = ?", String.class, "o,neil");
+        assertTrue(HexUtil.verify(password, "pa,ss\"word"));
+        password = jdbcTemplate.queryForObject("select password from user where username = 'multi01'", String.class);
+        assertTrue(HexUtil.verify(password, "line1\nline2"));
+        assertEquals("F", jdbcTemplate.queryForObject("select sex from user where username = 'plain01'", String.class));
+    }
+
+    @Test
+    @DisplayName("NDJSON导入")
+    void testImportNdjson() throws Exception {
+        String ndjson = """
+                {"username":"alice01","password":"Secret123","email":"alice@example.com","sex":"F"}
+                {"username":"bob0001","password":"Secret123","email":"bob@example.com"}
+                {broken
+                """;
+
+        UserImportReportVO report = userImportService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.NDJSON);
+
+        assertEquals(3, report.getTotal());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(3L, report.getErrors().getFirst().line());
+    }
+
+}
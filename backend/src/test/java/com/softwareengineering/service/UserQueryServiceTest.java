@@ -0,0 +1,162 @@
+package com.softwareengineering.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareengineering.config.UserExportProperties;
+import com.softwareengineering.config.UserSearchProperties;
+import com.softwareengineering.index.UserSearchIndex;
+import com.softwareengineering.service.impl.UserQueryServiceImpl;
+import com.softwareengineering.vo.UserPageVO;
+import com.softwareengineering.vo.UserQueryVO;
+import com.softwareengineering.vo.UserSummaryVO;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+@DisplayName("用户列表和导出测试")
+class UserQueryServiceTest {
+
+    private static final Instant JANUARY = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static final Instant FEBRUARY = Instant.parse("2024-02-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private HikariDataSource dataSource;
+
+    private UserQueryService userQueryService;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:query;MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("h2/schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("delete from user");
+        insert(jdbcTemplate, "alice01", "F", JANUARY);
+        insert(jdbcTemplate, "bob0001", "M", JANUARY);
+        insert(jdbcTemplate, "carol01", "F", FEBRUARY);
+        insert(jdbcTemplate, "dave001", "M", FEBRUARY);
+        insert(jdbcTemplate, "eve,\"01\"", null, FEBRUARY);
+
+        UserExportProperties properties = new UserExportProperties();
+        properties.setFetchSize(2);
+        // 搜索索引未构建，搜索回退到数据库前缀查询
+        UserSearchIndex userSearchIndex = new UserSearchIndex(null, new DataSourceTransactionManager(dataSource),
+                new UserSearchProperties(), new SimpleMeterRegistry());
+        userQueryService = new UserQueryServiceImpl(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                objectMapper, properties, userSearchIndex);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("按ID游标翻页直到没有下一页")
+    void testKeysetPagination() {
+        UserQueryVO query = new UserQueryVO();
+        query.setLimit(2);
+
+        UserPageVO first = userQueryService.list(query);
+        assertEquals(List.of("alice01", "bob0001"), usernames(first));
+
+        query.setAfterId(first.getNextAfterId());
+        UserPageVO second = userQueryService.list(query);
+        assertEquals(List.of("carol01", "dave001"), usernames(second));
+
+        query.setAfterId(second.getNextAfterId());
+        UserPageVO last = userQueryService.list(query);
+        assertEquals(List.of("eve,\"01\""), usernames(last));
+        assertNull(last.getNextAfterId());
+    }
+
+    @Test
+    @DisplayName("按注册时间和性别筛选")
+    void testFilters() {
+        UserQueryVO query = new UserQueryVO();
+        query.setRegisteredFrom(FEBRUARY);
+        query.setSex("M");
+        assertEquals(List.of("dave001"), usernames(userQueryService.list(query)));
+
+        query = new UserQueryVO();
+        query.setRegisteredTo(FEBRUARY);
+        UserPageVO page = userQueryService.list(query);
+        assertEquals(List.of("alice01", "bob0001"), usernames(page));
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    @DisplayName("索引不可用时按用户名和邮箱前缀查询数据库")
+    void testSearchDatabaseFallback() {
+        assertEquals(List.of("carol01"), userQueryService.search("CAR", 20).stream().map(UserSummaryVO::getUsername).toList());
+        assertEquals(List.of("dave001"), userQueryService.search("dave001@", 20).stream().map(UserSummaryVO::getUsername).toList());
+        // LIKE 通配符按字面匹配
+        assertEquals(List.of(), userQueryService.search("_ob", 20));
+        // 用户名和邮箱都匹配的用户只返回一次
+        assertEquals(List.of("alice01"), userQueryService.search("a", 20).stream().map(UserSummaryVO::getUsername).toList());
+    }
+
+    @Test
+    @DisplayName("导出CSV，含特殊字符的字段加引号")
+    void testExportCsv() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = userQueryService.export(new UserQueryVO(), UserImportService.Format.CSV, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, rows);
+        assertEquals(6, lines.length);
+        assertEquals("id,username,email,sex,register_date,last_modify_date", lines[0]);
+        assertEquals(",alice01,alice01@example.com,F,2024-01-01T00:00:00Z,2024-01-01T00:00:00Z",
+                lines[1].substring(lines[1].indexOf(',')));
+        assertEquals(",\"eve,\"\"01\"\"\",\"eve,\"\"01\"\"@example.com\",,2024-02-01T00:00:00Z,2024-02-01T00:00:00Z",
+                lines[5].substring(lines[5].indexOf(',')));
+    }
+
+    @Test
+    @DisplayName("导出NDJSON，按条件筛选")
+    void testExportNdjson() throws Exception {
+        UserQueryVO query = new UserQueryVO();
+        query.setSex("F");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = userQueryService.export(query, UserImportService.Format.NDJSON, output);
+
+        String content = output.toString(StandardCharsets.UTF_8);
+        assertEquals(2, rows);
+        String[] lines = content.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals('\n', content.charAt(content.length() - 1));
+        UserSummaryVO first = objectMapper.readValue(lines[0], UserSummaryVO.class);
+        UserSummaryVO second = objectMapper.readValue(lines[1], UserSummaryVO.class);
+        assertEquals("alice01", first.getUsername());
+        assertEquals("carol01", second.getUsername());
+        assertEquals(FEBRUARY, second.getRegisterDate());
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String username, String sex, Instant registerDate) {
+        Timestamp timestamp = Timestamp.from(registerDate);
+        jdbcTemplate.update("insert into user (username, password, email, sex, register_date, last_modify_date) values (?, ?, ?, ?, ?, ?)",
+                username, "x", username + "@example.com", sex, timestamp, timestamp);
+    }
+
+    private static List<String> usernames(UserPageVO page) {
+        return page.getItems().stream().map(UserSummaryVO::getUsername).toList();
+    }
+
+}
@@ -7,18 +7,25 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 import com.softwareengineering.common.ResultCode;
-import com.softwareengineering.constant.CommonConstants;
 import com.softwareengineering.dao.UserRepository;
 import com.softwareengineering.entity.User;
 import com.softwareengineering.exception.BusinessException;
 import com.softwareengineering.util.HexUtil;
+import com.softwareengineering.util.SessionKeys;
+import com.softwareengineering.vo.LoginResultVO;
 import com.softwareengineering.vo.UserLoginVO;
 import com.softwareengineering.vo.UserRegisterVO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -58,7 +65,6 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
-        doNothing().when(mailSender).send(any(SimpleMailMessage.class));
         // 清理Redis中的测试数据
         redisTemplate.delete("verification:code:" + TEST_EMAIL);
     }
@@ -74,7 +80,7 @@ class UserServiceTest {
         void testNormalRegister() {
             // 1. 发送验证码
             assertDoesNotThrow(() -> userService.sendVerificationCode(TEST_EMAIL));
-            verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
+            verify(mailSender, timeout(5000).atLeastOnce()).send(any(SimpleMailMessage[].class));
 
             // 2. 准备注册数据
             UserRegisterVO registerVO = createValidRegisterVO();
@@ -101,11 +107,66 @@ class UserServiceTest {
             // 2. 尝试使用相同用户名注册
             UserRegisterVO duplicateVO = createValidRegisterVO();
             duplicateVO.setEmail("another@example.com");
+            redisTemplate.opsForValue().set("verification:code:another@example.com", TEST_VERIFICATION_CODE);
 
             // 3. 验证异常
             BusinessException exception = assertThrows(BusinessException.class,
                     () -> userService.register(duplicateVO));
             assertEquals("用户已存在", exception.getMessage());
+
+            // 4. 注册失败时验证码被归还
+            assertEquals(TEST_VERIFICATION_CODE, redisTemplate.opsForValue().get("verification:code:another@example.com"));
+            redisTemplate.delete("verification:code:another@example.com");
+        }
+
+        @Test
+        @DisplayName("并发注册相同用户名")
+        void testConcurrentRegisterSameUsername() throws Exception {
+            int concurrency = 16;
+            String username = "concurrentUser";
+            List<UserRegisterVO> registerVOs = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                UserRegisterVO registerVO = createValidRegisterVO();
+                registerVO.setUsername(username);
+                registerVO.setEmail("concurrent" + i + "@example.com");
+                redisTemplate.opsForValue().set("verification:code:" + registerVO.getEmail(), TEST_VERIFICATION_CODE);
+                registerVOs.add(registerVO);
+            }
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ResultCode>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+                for (UserRegisterVO registerVO : registerVOs) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            userService.register(registerVO);
+                            return ResultCode.SUCCESS;
+                        } catch (BusinessException e) {
+                            return e.getResultCode();
+                        }
+                    }));
+                }
+                start.countDown();
+
+                int succeeded = 0;
+                for (Future<ResultCode> result : results) {
+                    ResultCode resultCode = result.get(30, TimeUnit.SECONDS);
+                    if (resultCode == ResultCode.SUCCESS) {
+                        succeeded++;
+                    } else {
+                        assertEquals(ResultCode.USER_EXISTED, resultCode);
+                    }
+                }
+                assertEquals(1, succeeded);
+                assertNotNull(userRepository.findByUsername(username));
+            } finally {
+                User user = userRepository.findByUsername(username);
+                if (user != null) {
+                    userRepository.delete(user);
+                }
+                registerVOs.forEach(registerVO -> redisTemplate.delete("verification:code:" + registerVO.getEmail()));
+            }
         }
 
         @Test
@@ -145,15 +206,60 @@ class UserServiceTest {
             loginVO.setUsername(TEST_USERNAME);
             loginVO.setPassword(TEST_PASSWORD);
 
-            User loggedInUser = assertDoesNotThrow(() -> userService.login(loginVO));
-            assertEquals(TEST_USERNAME, loggedInUser.getUsername());
-            assertNotNull(loggedInUser.getSessionId());
+            LoginResultVO loginResult = assertDoesNotThrow(() -> userService.login(loginVO));
+            assertEquals(userRepository.findByUsername(TEST_USERNAME).getId(), loginResult.getId());
+            assertNotNull(loginResult.getSessionId());
 
             // 3. 验证Redis中的会话信息
-            String sessionKey = CommonConstants.Redis.SESSION_PREFIX + loggedInUser.getSessionId();
+            String sessionKey = SessionKeys.sessionKey(loginResult.getSessionId());
             String userId = redisTemplate.opsForValue().get(sessionKey);
             assertNotNull(userId);
-            assertEquals(loggedInUser.getId().toString(), userId);
+            assertEquals(loginResult.getId().toString(), userId);
+        }
+
+        @Test
+        @DisplayName("登录时升级旧版本的密码记录")
+        @Transactional
+        @Rollback
+        void testRehashLegacyPasswordOnLogin() {
+            // 1. 准备使用快速摘要记录的用户
+            prepareExistingUser();
+            User user = userRepository.findByUsername(TEST_USERNAME);
+            user.setPassword(HexUtil.encryptAndFormat(TEST_PASSWORD));
+            userRepository.saveAndFlush(user);
+
+            // 2. 登录成功后记录被升级
+            UserLoginVO loginVO = new UserLoginVO();
+            loginVO.setUsername(TEST_USERNAME);
+            loginVO.setPassword(TEST_PASSWORD);
+            assertDoesNotThrow(() -> userService.login(loginVO));
+            String password = userRepository.findCredentialsByUsername(TEST_USERNAME).password();
+            assertTrue(HexUtil.isArgon2(password));
+            assertTrue(HexUtil.verify(password, TEST_PASSWORD));
+        }
+
+        @Test
+        @DisplayName("重置密码后缓存不返回旧密码")
+        @Transactional
+        @Rollback
+        void testLoginAfterResetPasswordWithCache() {
+            // 1. 登录一次，用户进入缓存
+            prepareExistingUser();
+            UserLoginVO loginVO = new UserLoginVO();
+            loginVO.setUsername(TEST_USERNAME);
+            loginVO.setPassword(TEST_PASSWORD);
+            assertDoesNotThrow(() -> userService.login(loginVO));
+
+            // 2. 重置密码
+            String newPassword = "NewPass456";
+            redisTemplate.opsForValue().set("verification:code:" + TEST_EMAIL, TEST_VERIFICATION_CODE);
+            userService.resetPassword(TEST_EMAIL, TEST_VERIFICATION_CODE, newPassword);
+
+            // 3. 旧密码立即失效，新密码可以登录
+            BusinessException exception = assertThrows(BusinessException.class, () -> userService.login(loginVO));
+            assertEquals(ResultCode.PASSWORD_ERROR, exception.getResultCode());
+            loginVO.setPassword(newPassword);
+            assertDoesNotThrow(() -> userService.login(loginVO));
         }
 
         @Test
@@ -190,17 +296,40 @@ class UserServiceTest {
             UserLoginVO loginVO = new UserLoginVO();
             loginVO.setUsername(TEST_USERNAME);
             loginVO.setPassword(TEST_PASSWORD);
-            User loggedInUser = userService.login(loginVO);
-            String sessionId = loggedInUser.getSessionId();
+            String sessionId = userService.login(loginVO).getSessionId();
 
             // 2. 执行登出
             assertDoesNotThrow(() -> userService.logout(sessionId));
 
             // 3. 验证会话已被删除
-            String sessionKey = CommonConstants.Redis.SESSION_PREFIX + sessionId;
+            String sessionKey = SessionKeys.sessionKey(sessionId);
             assertNull(redisTemplate.opsForValue().get(sessionKey));
         }
 
+        @Test
+        @DisplayName("登出所有设备")
+        @Transactional
+        @Rollback
+        void testLogoutAll() {
+            // 1. 同一用户在两个设备登录
+            prepareExistingUser();
+            UserLoginVO loginVO = new UserLoginVO();
+            loginVO.setUsername(TEST_USERNAME);
+            loginVO.setPassword(TEST_PASSWORD);
+            String firstSessionId = userService.login(loginVO).getSessionId();
+            LoginResultVO secondLogin = userService.login(loginVO);
+            String indexKey = SessionKeys.userSessionsKey(secondLogin.getId());
+            assertEquals(2L, redisTemplate.opsForSet().size(indexKey));
+
+            // 2. 在其中一个设备上登出所有设备
+            assertDoesNotThrow(() -> userService.logoutAll(firstSessionId));
+
+            // 3. 验证两个会话及索引都已被删除
+            assertNull(redisTemplate.opsForValue().get(SessionKeys.sessionKey(firstSessionId)));
+            assertNull(redisTemplate.opsForValue().get(SessionKeys.sessionKey(secondLogin.getSessionId())));
+            assertEquals(Boolean.FALSE, redisTemplate.hasKey(indexKey));
+        }
+
         @Test
         @DisplayName("使用无效会话ID登出")
         void testLogoutWithInvalidSession() {
@@ -216,7 +345,7 @@ class UserServiceTest {
     @DisplayName("验证码发送测试")
     void testSendVerificationCode() {
         assertDoesNotThrow(() -> userService.sendVerificationCode(TEST_EMAIL));
-        verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
+        verify(mailSender, timeout(5000).atLeastOnce()).send(any(SimpleMailMessage[].class));
 
         String savedCode = redisTemplate.opsForValue().get("verification:code:" + TEST_EMAIL);
         assertNotNull(savedCode);
@@ -0,0 +1,91 @@
+package com.softwareengineering.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 各验证码存储共同遵守的行为，每种实现继承一次
+ */
+abstract class VerificationCodeServiceContractTest {
+
+    private static final String EMAIL = "test@example.com";
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private VerificationCodeService verificationCodeService;
+
+    protected abstract VerificationCodeService createVerificationCodeService() throws Exception;
+
+    @BeforeEach
+    void setUpVerificationCodeService() throws Exception {
+        verificationCodeService = createVerificationCodeService();
+    }
+
+    @Test
+    @DisplayName("保存后校验，新验证码覆盖旧验证码")
+    void testSaveAndMatches() {
+        verificationCodeService.save(EMAIL, "123456", TTL);
+        assertTrue(verificationCodeService.matches(EMAIL, "123456"));
+        assertFalse(verificationCodeService.matches(EMAIL, "654321"));
+        assertFalse(verificationCodeService.matches("other@example.com", "123456"));
+
+        verificationCodeService.save(EMAIL, "654321", TTL);
+        assertFalse(verificationCodeService.matches(EMAIL, "123456"));
+        assertTrue(verificationCodeService.matches(EMAIL, "654321"));
+    }
+
+    @Test
+    @DisplayName("验证码一致时删除并返回剩余有效期，不一致时保留")
+    void testConsume() {
+        verificationCodeService.save(EMAIL, "123456", TTL);
+
+        assertNull(verificationCodeService.consume(EMAIL, "654321"));
+        assertTrue(verificationCodeService.matches(EMAIL, "123456"));
+
+        Long remainingMillis = verificationCodeService.consume(EMAIL, "123456");
+        assertTrue(remainingMillis > 0 && remainingMillis <= TTL.toMillis());
+        assertFalse(verificationCodeService.matches(EMAIL, "123456"));
+        assertNull(verificationCodeService.consume(EMAIL, "123456"));
+    }
+
+    @Test
+    @DisplayName("归还验证码，已有新验证码时不覆盖")
+    void testRestore() {
+        verificationCodeService.save(EMAIL, "123456", TTL);
+        long remainingMillis = verificationCodeService.consume(EMAIL, "123456");
+
+        verificationCodeService.restore(EMAIL, "123456", remainingMillis);
+        assertTrue(verificationCodeService.matches(EMAIL, "123456"));
+
+        long again = verificationCodeService.consume(EMAIL, "123456");
+        verificationCodeService.save(EMAIL, "654321", TTL);
+        verificationCodeService.restore(EMAIL, "123456", again);
+        assertTrue(verificationCodeService.matches(EMAIL, "654321"));
+    }
+
+    @Test
+    @DisplayName("删除验证码")
+    void testRemove() {
+        verificationCodeService.save(EMAIL, "123456", TTL);
+        verificationCodeService.remove(EMAIL);
+        assertFalse(verificationCodeService.matches(EMAIL, "123456"));
+        // 不存在的验证码
+        verificationCodeService.remove(EMAIL);
+    }
+
+    @Test
+    @DisplayName("验证码到期后失效")
+    void testExpire() throws InterruptedException {
+        verificationCodeService.save(EMAIL, "123456", Duration.ofMillis(100));
+        Thread.sleep(300);
+        assertFalse(verificationCodeService.matches(EMAIL, "123456"));
+        assertNull(verificationCodeService.consume(EMAIL, "123456"));
+    }
+
+}
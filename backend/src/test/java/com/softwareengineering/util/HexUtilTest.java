@@ -0,0 +1,81 @@
+package com.softwareengineering.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.hutool.crypto.SecureUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import java.util.Locale;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("密码哈希工具测试")
+class HexUtilTest {
+
+    /**
+     * 原先基于 Hutool 的实现生成的密码记录
+     */
+    private static String legacyFormat(String plainPassword, String algorithmCode, String salt) {
+        String hex = switch (algorithmCode) {
+            case "v1" -> SecureUtil.md5(plainPassword + salt);
+            case "v2" -> SecureUtil.sha1(plainPassword + salt);
+            case "v3" -> DigestUtil.digester("sm3").digestHex(plainPassword + salt);
+            default -> throw new IllegalArgumentException(algorithmCode);
+        };
+        return salt + "#" + algorithmCode + "#" + hex;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"TestPass123", "", "密码Pass123", "emoji😀Pass1", "lone\uD800surrogate", "é"})
+    @DisplayName("兼容原有的密码记录")
+    void testVerifyLegacyRecords(String plainPassword) {
+        for (String algorithmCode : new String[]{"v1", "v2", "v3"}) {
+            String stored = legacyFormat(plainPassword, algorithmCode, "k3j9x2");
+            assertTrue(HexUtil.verify(stored, plainPassword), algorithmCode);
+            assertFalse(HexUtil.verify(stored, plainPassword + "x"), algorithmCode);
+        }
+    }
+
+    @Test
+    @DisplayName("生成的密码记录可被原有实现验证")
+    void testEncryptAndFormatCompatible() {
+        for (int i = 0; i < 100; i++) {
+            String stored = HexUtil.encryptAndFormat("TestPass123");
+            String[] parts = stored.split("#");
+            assertEquals(stored, legacyFormat("TestPass123", parts[1], parts[0]));
+            assertTrue(HexUtil.verify(stored, "TestPass123"));
+        }
+    }
+
+    @Test
+    @DisplayName("与原有实现一致的异常和边界情况")
+    void testMalformedRecords() {
+        String stored = legacyFormat("TestPass123", "v1", "salt");
+        assertTrue(HexUtil.verify(stored + "#", "TestPass123"));
+        assertFalse(HexUtil.verify(stored.toUpperCase(Locale.ROOT).replace("SALT#V1", "salt#v1"), "TestPass123"));
+        assertFalse(HexUtil.verify(stored.substring(0, stored.length() - 2), "TestPass123"));
+        assertThrows(IllegalArgumentException.class, () -> HexUtil.verify("salt#v1", "TestPass123"));
+        assertThrows(IllegalArgumentException.class, () -> HexUtil.verify(stored + "#extra", "TestPass123"));
+        assertThrows(UnsupportedOperationException.class, () -> HexUtil.verify("salt#v9#abcd", "TestPass123"));
+    }
+
+    @Test
+    @DisplayName("Argon2记录的生成、验证和升级判断")
+    void testArgon2() {
+        HexUtil.Argon2Cost cost = new HexUtil.Argon2Cost(1024, 2, 1);
+        String stored = HexUtil.encryptAndFormat("TestPass123", cost);
+        assertEquals(3, stored.split("#").length);
+        assertTrue(HexUtil.isArgon2(stored));
+        assertTrue(HexUtil.verify(stored, "TestPass123"));
+        assertFalse(HexUtil.verify(stored, "TestPass124"));
+
+        assertFalse(HexUtil.needsRehash(stored, cost));
+        assertTrue(HexUtil.needsRehash(stored, new HexUtil.Argon2Cost(1024, 3, 1)));
+        assertTrue(HexUtil.needsRehash(HexUtil.encryptAndFormat("TestPass123"), cost));
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.softwareengineering.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("日志限频测试")
+class LogSamplerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final LogSampler sampler = new LogSampler(Duration.ofSeconds(60), 2, 3, now::get);
+
+    @Test
+    @DisplayName("超过burst后按间隔抽样，并返回跳过的次数")
+    void testBurstThenSample() {
+        assertEquals(0, sampler.acquire("a"));
+        assertEquals(0, sampler.acquire("a"));
+        assertEquals(-1, sampler.acquire("a"));
+        assertEquals(-1, sampler.acquire("a"));
+        assertEquals(2, sampler.acquire("a"));
+        // 不同的键分别计数
+        assertEquals(0, sampler.acquire("b"));
+    }
+
+    @Test
+    @DisplayName("进入新窗口后重新计数，跳过的次数保留到下一次记录")
+    void testWindowReset() {
+        for (int i = 0; i < 3; i++) {
+            sampler.acquire("a");
+        }
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+        assertEquals(1, sampler.acquire("a"));
+        assertEquals(0, sampler.acquire("a"));
+        assertEquals(-1, sampler.acquire("a"));
+    }
+
+}
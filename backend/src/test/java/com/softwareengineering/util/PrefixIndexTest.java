@@ -0,0 +1,52 @@
+package com.softwareengineering.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("前缀索引测试")
+class PrefixIndexTest {
+
+    @Test
+    @DisplayName("按字典序返回前缀匹配的条目")
+    void testPrefixMatches() {
+        PrefixIndex index = PrefixIndex.builder()
+                .add("carol01", "carol01")
+                .add("alice01", "alice01")
+                .add("alice01@example.com", "alice01")
+                .add("alicia02", "alicia02")
+                .add("bob0001", "bob0001")
+                .build();
+
+        assertEquals(List.of("alice01", "alice01@example.com", "alicia02"), keys(index, "ali", 10));
+        assertEquals(List.of("alice01", "alice01@example.com"), keys(index, "alice", 10));
+        assertEquals(List.of("alice01"), keys(index, "ali", 1));
+        assertEquals(List.of(), keys(index, "d", 10));
+        assertEquals(List.of(), keys(index, "alice02", 10));
+        assertEquals(5, keys(index, "", 10).size());
+    }
+
+    @Test
+    @DisplayName("相同的字符串实例只计算一次内存")
+    void testSizeInBytes() {
+        String username = "alice01";
+        PrefixIndex.Builder builder = PrefixIndex.builder().add(username, username);
+        long single = builder.sizeInBytes();
+        builder.add("alice01@example.com", username);
+
+        assertEquals(PrefixIndex.estimateSize(username) + 8, single);
+        assertEquals(single + PrefixIndex.estimateSize("alice01@example.com") + 8, builder.sizeInBytes());
+        assertTrue(builder.build().sizeInBytes() > 0);
+    }
+
+    private static List<String> keys(PrefixIndex index, String prefix, int max) {
+        List<String> keys = new ArrayList<>();
+        index.forEachWithPrefix(prefix, max, (key, value) -> keys.add(key));
+        return keys;
+    }
+
+}
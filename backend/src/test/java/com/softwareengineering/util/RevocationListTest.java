@@ -0,0 +1,63 @@
+package com.softwareengineering.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("令牌吊销表测试")
+class RevocationListTest {
+
+    private static final long TTL = 30 * 60_000L;
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("单个令牌吊销只影响该令牌")
+    void testRevokeToken() {
+        RevocationList revocationList = new RevocationList();
+        revocationList.revokeToken(42L, NOW + TTL);
+
+        assertTrue(revocationList.isRevoked(42L, 1L, 0, NOW + TTL));
+        assertFalse(revocationList.isRevoked(43L, 1L, 0, NOW + TTL));
+        assertEquals(1, revocationList.size());
+    }
+
+    @Test
+    @DisplayName("用户吊销按令牌代数判断")
+    void testRevokeUser() {
+        RevocationList revocationList = new RevocationList();
+        revocationList.revokeUser(1L, 3, NOW + TTL);
+
+        assertTrue(revocationList.isRevoked(42L, 1L, 0, NOW + 2 * TTL));
+        assertTrue(revocationList.isRevoked(42L, 1L, 2, NOW + 1));
+        assertFalse(revocationList.isRevoked(42L, 1L, 3, NOW + 1));
+        assertFalse(revocationList.isRevoked(42L, 2L, 0, NOW + TTL));
+
+        // 取较大的代数，广播乱序到达时不回退
+        revocationList.revokeUser(1L, 2, NOW + TTL);
+        assertTrue(revocationList.isRevoked(42L, 1L, 2, NOW + TTL));
+    }
+
+    @Test
+    @DisplayName("令牌吊销保留到令牌过期，用户吊销保留到指定时间")
+    void testPurge() {
+        RevocationList revocationList = new RevocationList();
+        revocationList.revokeToken(42L, NOW + TTL);
+        // 集群内最长有效期为两倍TTL
+        revocationList.revokeUser(1L, 1, NOW + 2 * TTL);
+
+        revocationList.purge(NOW + TTL - 1);
+        assertEquals(2, revocationList.size());
+
+        revocationList.purge(NOW + TTL + 60_001);
+        assertEquals(1, revocationList.size());
+        assertTrue(revocationList.isRevoked(42L, 1L, 0, NOW + 2 * TTL));
+
+        revocationList.purge(NOW + 2 * TTL + 1);
+        assertEquals(0, revocationList.size());
+    }
+
+}
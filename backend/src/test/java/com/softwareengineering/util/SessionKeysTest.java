@@ -0,0 +1,53 @@
+package com.softwareengineering.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.lettuce.core.cluster.SlotHash;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("会话键测试")
+class SessionKeysTest {
+
+    @Test
+    @DisplayName("同一用户的会话键和会话索引在同一个槽")
+    void testSameSlot() {
+        for (long userId = 1; userId <= 1000; userId++) {
+            int slot = SlotHash.getSlot(SessionKeys.userSessionsKey(userId));
+            assertEquals(slot, SlotHash.getSlot(SessionKeys.sessionKey(SessionKeys.newSessionId(userId))));
+            assertEquals(slot, SlotHash.getSlot(SessionKeys.sessionKey(SessionKeys.newSessionId(userId))));
+        }
+    }
+
+    @Test
+    @DisplayName("连续的用户ID分散到不同的槽")
+    void testSpread() {
+        Set<Integer> slots = new HashSet<>();
+        for (long userId = 1; userId <= 1000; userId++) {
+            slots.add(SlotHash.getSlot(SessionKeys.userSessionsKey(userId)));
+        }
+        assertTrue(slots.size() > 500);
+    }
+
+    @Test
+    @DisplayName("会话ID不含用户ID，升级前的会话ID使用原来的键")
+    void testFormat() {
+        String sessionId = SessionKeys.newSessionId(42L);
+        String tag = sessionId.substring(0, sessionId.indexOf('.'));
+        assertNotEquals("42", tag);
+        assertEquals("user:session:{" + tag + "}" + sessionId, SessionKeys.sessionKey(sessionId));
+        assertEquals("user:sessions:{" + tag + "}42", SessionKeys.userSessionsKey(42L));
+        assertFalse(SessionKeys.isLegacy(sessionId));
+
+        String legacy = "0b1f3c9e-4d7a-4c55-9f0e-2a6b8d1e7c34";
+        assertTrue(SessionKeys.isLegacy(legacy));
+        assertEquals("user:session:" + legacy, SessionKeys.sessionKey(legacy));
+        assertEquals("user:sessions:42", SessionKeys.legacyUserSessionsKey(42L));
+    }
+
+}
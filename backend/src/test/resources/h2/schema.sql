@@ -0,0 +1,15 @@
+-- 与 table.sql 对应的H2(MySQL模式)建表语句，用于测试和基准测试
+CREATE TABLE IF NOT EXISTS `user`
+(
+    `id`               bigint       NOT NULL AUTO_INCREMENT,
+    `username`         varchar(32)  NOT NULL,
+    `password`         varchar(255) NOT NULL,
+    `email`            varchar(32)           DEFAULT NULL,
+    `sex`              char(1)               DEFAULT NULL,
+    `register_date`    timestamp(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    `last_modify_date` timestamp(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (`id`),
+    CONSTRAINT `user_username_uindex` UNIQUE (`username`),
+    CONSTRAINT `user_email_uindex` UNIQUE (`email`),
+    CHECK (sex = 'M' OR sex = 'F')
+);
@@ -1,7 +1,7 @@
 import axios, { AxiosError } from 'axios';
 import { ElMessage } from 'element-plus';
 import router from '@/router';
-import type { ApiResponse, User, RegisterParams, LoginParams, ResetPasswordParams } from '@/types/api';
+import type { ApiResponse, LoginResult, RegisterParams, LoginParams, ResetPasswordParams } from '@/types/api';
 
 const api = axios.create({
   baseURL: '/api',
@@ -81,7 +81,7 @@ export const userApi = {
 
   // 用户登录
   async login(params: LoginParams) {
-    const response = await api.post<ApiResponse<User>>('/user/login', params);
+    const response = await api.post<ApiResponse<LoginResult>>('/user/login', params);
     if (response.data.code !== 200) {
       throw new Error(response.data.message);
     }
@@ -7,7 +7,7 @@ export const useAuth = () => {
 
   const login = async (params: LoginParams) => {
     const { data } = await userApi.login(params);
-    localStorage.setItem('sessionId', data.data.sessionId!);
+    localStorage.setItem('sessionId', data.data.sessionId);
     isAuthenticated.value = true;
     return data;
   };
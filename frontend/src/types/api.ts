@@ -13,7 +13,12 @@ export interface User {
   sex: 'M' | 'F';
   registerDate: string;
   lastModifyDate: string;
-  sessionId?: string;
+}
+
+// 登录结果类型
+export interface LoginResult {
+  id: number;
+  sessionId: string;
 }
 
 // 注册参数类型